@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Actions.ActionController;
+import Actions.Moves.PhaseThreeMoveController;
+import Actions.Moves.PhaseTwoMoveController;
+import Actions.Placements.PlaceActionController;
+import Game.GameState;
+import Players.AiPlayer;
+
+/**
+ * This class benchmarks the end to end latency of the heuristic AI choosing its next click, from fetching the valid
+ * positions through to its choice, on each kind of mid-game position. The sample mode records the latency
+ * distribution as well as the average.
+ * @see AiPlayer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiPlayerBenchmark {
+
+    @Param({ "PLACEMENT", "MOVEMENT", "FLYING" })
+    public BenchmarkPositions position;
+
+    private AiPlayer aiPlayer;
+    private ActionController actionController;
+
+    /**
+     * This method builds the position, the controller for its phase and the AI player before the benchmark is run.
+     */
+    @Setup
+    public void setUp() {
+        GameState gameState = position.create();
+        switch (position) {
+            case PLACEMENT:
+                actionController = new PlaceActionController(gameState);
+                break;
+            case MOVEMENT:
+                actionController = new PhaseTwoMoveController(gameState);
+                break;
+            default:
+                actionController = new PhaseThreeMoveController(gameState);
+                break;
+        }
+        aiPlayer = new AiPlayer(0, "main/Display/img/cyan circle.png");
+    }
+
+    /**
+     * This method benchmarks the AI choosing its next click.
+     * @return The chosen position, so it is not optimised away
+     */
+    @Benchmark
+    public int chooseAction() {
+        return aiPlayer.chooseAction(actionController);
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.util.Random;
+
+import Actions.ActionGenerator;
+import Game.GameState;
+import Players.PhaseIndicator;
+import Positions.Board;
+
+/**
+ * This class builds the representative mid-game positions that the benchmarks run on. Each position is reached by
+ * playing random legal moves from the start of the game with a fixed seed, so every run benchmarks the same positions.
+ */
+public enum BenchmarkPositions {
+
+    /** Both players still placing tokens, with five tokens placed each. */
+    PLACEMENT,
+    /** Both players sliding tokens, with at least five tokens each. */
+    MOVEMENT,
+    /** The player to move is flying with three tokens. */
+    FLYING;
+
+    private static final long SEED = 3077L;
+    private static final int MAX_TURNS = 200;
+
+    /**
+     * This method builds the position.
+     * @return The position, with player 0 to move
+     */
+    public GameState create() {
+        Random random = new Random(SEED);
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+        while (true) {
+            GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+            int playerIndex = 0;
+            for (int turn = 0; turn < MAX_TURNS; turn++) {
+                if (playerIndex == 0 && isReached(gameState)) {
+                    return gameState;
+                }
+                int numMoves = ActionGenerator.generateMoves(gameState, playerIndex, moves);
+                if (numMoves == 0 || gameState.getTokensRemaining(playerIndex) < 3 && gameState.getGamePhase(playerIndex) != PhaseIndicator.PHASE_ONE) {
+                    break; // the game is over before reaching the position, so try another game
+                }
+                gameState.applyMove(moves[random.nextInt(numMoves)], playerIndex);
+                playerIndex = 1 - playerIndex;
+            }
+        }
+    }
+
+    /**
+     * This method checks whether a game has reached this kind of position.
+     * @param gameState The game to check
+     * @return True if the game is in this kind of position with player 0 to move, false otherwise
+     */
+    private boolean isReached(GameState gameState) {
+        switch (this) {
+            case PLACEMENT:
+                return gameState.getNumTokensToPlace(0) == 4 && gameState.getNumTokensToPlace(1) == 4;
+            case MOVEMENT:
+                return gameState.getGamePhase(0) == PhaseIndicator.PHASE_TWO && gameState.getGamePhase(1) == PhaseIndicator.PHASE_TWO
+                        && gameState.getTokensRemaining(0) >= 5 && gameState.getTokensRemaining(1) >= 5;
+            case FLYING:
+                return gameState.getGamePhase(0) == PhaseIndicator.PHASE_THREE && gameState.getTokensRemaining(1) >= 3;
+            default:
+                return false;
+        }
+    }
+}
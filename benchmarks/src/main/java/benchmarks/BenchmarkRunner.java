@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class is the entry point of the benchmarks jar. It accepts the usual JMH command line options, but writes the
+ * results as JSON to jmh-result.json unless another format or file is given, so that results can be tracked over time.
+ * <p>
+ * Usage: java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * Main method for the benchmarks.
+     * @param args JMH command line options
+     * @throws RunnerException If a benchmark fails
+     * @throws CommandLineOptionException If the options cannot be parsed
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
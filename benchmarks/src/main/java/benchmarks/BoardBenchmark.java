@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import Actions.ActionGenerator;
+import Game.GameState;
+import Positions.Board;
+
+/**
+ * This class benchmarks the board queries and move generation used on every turn, on each kind of mid-game position.
+ * @see Board
+ * @see ActionGenerator
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({ "PLACEMENT", "MOVEMENT", "FLYING" })
+    public BenchmarkPositions position;
+
+    private GameState gameState;
+    private Board board;
+    private int[] occupiedPositions;
+    private int[] moves = new int[ActionGenerator.MAX_MOVES];
+
+    /**
+     * This method builds the position before the benchmarks are run.
+     */
+    @Setup
+    public void setUp() {
+        gameState = position.create();
+        board = gameState.getBoard();
+        ArrayList<Integer> positions = board.findPositionsOfState(0);
+        positions.addAll(board.findPositionsOfState(1));
+        occupiedPositions = positions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * This method benchmarks checking every occupied position for a mill.
+     * @param blackhole Consumes the results so they are not optimised away
+     */
+    @Benchmark
+    public void checkForMill(Blackhole blackhole) {
+        for (int positionIndex : occupiedPositions) {
+            blackhole.consume(board.checkForMill(positionIndex));
+        }
+    }
+
+    /**
+     * This method benchmarks checking if all of a player's tokens are in mills.
+     * @return The result, so it is not optimised away
+     */
+    @Benchmark
+    public boolean allTokensInMill() {
+        return board.allTokensInMill(1);
+    }
+
+    /**
+     * This method benchmarks listing the empty positions.
+     * @return The result, so it is not optimised away
+     */
+    @Benchmark
+    public ArrayList<Integer> findPositionsOfState() {
+        return board.findPositionsOfState(-1);
+    }
+
+    /**
+     * This method benchmarks generating every legal move as packed moves.
+     * @return The number of moves, so they are not optimised away
+     */
+    @Benchmark
+    public int generateMoves() {
+        return ActionGenerator.generateMoves(gameState, 0, moves);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Actions.Mills.RemoveActionController;
+import Actions.Moves.PhaseThreeMoveController;
+import Actions.Moves.PhaseTwoMoveController;
+import Actions.Placements.PlaceActionController;
+import Game.GameState;
+
+/**
+ * This class benchmarks each action controller's getValidPositionsMask, which is called after every click to highlight
+ * the positions the player can choose. Each controller is benchmarked on a position from the phase it handles.
+ * @see Actions.ActionController
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+    private PlaceActionController placeActionController;
+    private PhaseTwoMoveController phaseTwoMoveController;
+    private PhaseThreeMoveController phaseThreeMoveController;
+    private RemoveActionController removeActionController;
+
+    /**
+     * This method builds the positions and controllers before the benchmarks are run. Each benchmark state has its own
+     * controllers.
+     */
+    @Setup
+    public void setUp() {
+        GameState placementState = BenchmarkPositions.PLACEMENT.create();
+        GameState movementState = BenchmarkPositions.MOVEMENT.create();
+        GameState flyingState = BenchmarkPositions.FLYING.create();
+
+        placeActionController = new PlaceActionController(placementState);
+        phaseTwoMoveController = new PhaseTwoMoveController(movementState);
+        phaseThreeMoveController = new PhaseThreeMoveController(flyingState);
+        removeActionController = new RemoveActionController(movementState);
+    }
+
+    /**
+     * This method benchmarks the positions a token can be placed on.
+     * @return The result, so it is not optimised away
+     */
+    @Benchmark
+    public int placeActionController() {
+        return placeActionController.getValidPositionsMask(0);
+    }
+
+    /**
+     * This method benchmarks the tokens which can slide.
+     * @return The result, so it is not optimised away
+     */
+    @Benchmark
+    public int phaseTwoMoveController() {
+        return phaseTwoMoveController.getValidPositionsMask(0);
+    }
+
+    /**
+     * This method benchmarks the tokens which can fly.
+     * @return The result, so it is not optimised away
+     */
+    @Benchmark
+    public int phaseThreeMoveController() {
+        return phaseThreeMoveController.getValidPositionsMask(0);
+    }
+
+    /**
+     * This method benchmarks the opponent's tokens which can be removed.
+     * @return The result, so it is not optimised away
+     */
+    @Benchmark
+    public int removeActionController() {
+        return removeActionController.getValidPositionsMask(0);
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Game.GameState;
+import Search.Evaluator;
+
+/**
+ * This class benchmarks the static evaluation the alpha-beta search runs at every leaf, on each kind of mid-game
+ * position.
+ * @see Evaluator
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    @Param({ "PLACEMENT", "MOVEMENT", "FLYING" })
+    public BenchmarkPositions position;
+
+    private GameState gameState;
+    private Evaluator evaluator = new Evaluator();
+    private int[] features = new int[Evaluator.NUM_FEATURES];
+
+    /**
+     * This method builds the position before the benchmarks are run.
+     */
+    @Setup
+    public void setUp() {
+        gameState = position.create();
+    }
+
+    /**
+     * This method benchmarks scoring the position for the player to move.
+     * @return The score, so that it is not optimised away
+     */
+    @Benchmark
+    public int evaluate() {
+        return evaluator.evaluate(gameState, 0, features);
+    }
+}
@@ -1,17 +1,37 @@
 package Actions;
 
-import Positions.Board;
+import Game.GameState;
 
 /**
  * This interface is used to represent a action in the game. It is implemented by the various move classes, which are
- * responsible for executing the action on the board.
- * @see Board
+ * responsible for executing the action on the game state.
+ * @see GameState
  */
 public interface Action {
     /**
-     * This method is used to execute the action on the board.
-     * @param board The board on which the action is to be executed
+     * This method is used to execute the action on the game state.
+     * @param gameState The game state on which the action is to be executed
      */
-    public abstract void execute(Board board);
+    public abstract void execute(GameState gameState);
+
+    /**
+     * This method is used to reverse the action on the game state. It must only be called through GameState.undo,
+     * directly after the action has been applied with GameState.apply.
+     * @param gameState The game state on which the action was executed
+     */
+    public abstract void undo(GameState gameState);
+
+    /**
+     * This method is used to get the position the action starts from.
+     * @return The index of the start position, or -1 if the action only involves one position
+     */
+    public abstract int getPositionIndexStart();
+
+    /**
+     * This method is used to get the position the action ends on, i.e. the position a token is placed on, moved to
+     * or removed from.
+     * @return The index of the end position
+     */
+    public abstract int getPositionIndexEnd();
 
 }
@@ -2,6 +2,7 @@ package Actions;
 
 import java.util.ArrayList;
 
+import Game.GameState;
 import Positions.Board;
 
 /**
@@ -9,18 +10,19 @@ import Positions.Board;
  * executing the move on the board. It is used by the various move controllers, which are responsible for creating the move
  * action and passing it to the board to be executed.
  * @see Action
+ * @see GameState
  * @see Board
  */
 public abstract class ActionController {
 
-    private Board board;
+    private GameState gameState;
 
     /**
-     * Constructor for the MoveController class. Initialises the controller with the game board.
-     * @param _board The board on which the game is being played
+     * Constructor for the MoveController class. Initialises the controller with the game state.
+     * @param _gameState The game state of the game being played
      */
-    protected ActionController(Board _board) {
-        board = _board;
+    protected ActionController(GameState _gameState) {
+        gameState = _gameState;
     }
 
     /**
@@ -46,7 +48,15 @@ public abstract class ActionController {
      * @return The game board
      */
     public Board getBoard() {
-        return board;
+        return gameState.getBoard();
+    }
+
+    /**
+     * This method is used to get the game state.
+     * @return The game state
+     */
+    public GameState getGameState() {
+        return gameState;
     }
 
     /**
@@ -68,10 +78,20 @@ public abstract class ActionController {
     public abstract boolean legalActionsRemain(int playerIndex);
 
     /**
-     * This method returns the list of valid positions for the player excecute an action on.
+     * This method returns the list of valid positions for the player excecute an action on. The list is built from
+     * getValidPositionsMask, for callers which need a list.
      * @param playerIndex The index of the player
      * @return The list of valid positions
      */
-    public abstract ArrayList<Integer> getValidPositions(int playerIndex);
+    public ArrayList<Integer> getValidPositions(int playerIndex) {
+        return Board.maskToPositions(getValidPositionsMask(playerIndex));
+    }
+
+    /**
+     * This method returns the valid positions for the player excecute an action on without creating any objects.
+     * @param playerIndex The index of the player
+     * @return A mask where bit i is set if position i is valid
+     */
+    public abstract int getValidPositionsMask(int playerIndex);
 
 }
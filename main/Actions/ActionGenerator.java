@@ -0,0 +1,196 @@
+package Actions;
+
+import java.util.ArrayList;
+
+import Actions.Mills.RemoveTokenAction;
+import Actions.Moves.MoveAction;
+import Actions.Placements.PlaceAction;
+import Game.GameState;
+import Players.PhaseIndicator;
+import Positions.Board;
+
+/**
+ * This class generates every legal action for a player directly from a game state, without the click handling of the
+ * action controllers. If a mill has just been formed the legal actions are the removals, otherwise they depend on the
+ * player's phase: placements in phase one, slides to adjacent empty positions in phase two and flies to any empty
+ * position in phase three.
+ * <p>
+ * For searches and simulations, generateMoves writes every legal turn as a packed int into a buffer supplied by the
+ * caller instead of creating Action objects. A packed move covers the whole turn, including the removal if it forms a
+ * mill, so there is one packed move for each removable token.
+ * @see PackedMove
+ * @see GameState
+ * @see ActionController
+ */
+public class ActionGenerator {
+
+    /* The most legal turns a player can have: at most 63 placements or moves, each of which could remove any of the
+       opponent's 9 tokens */
+    public static final int MAX_MOVES = 64 * GameState.NUM_TOKENS;
+
+    /**
+     * This method generates every legal action for a player.
+     * @param gameState The game state to generate the actions for
+     * @param playerIndex The player who's turn it is
+     * @return The list of legal actions
+     */
+    public static ArrayList<Action> generateActions(GameState gameState, int playerIndex) {
+        ArrayList<Action> actions = new ArrayList<Action>();
+        Board board = gameState.getBoard();
+        int emptyPositions = board.getPositionsMask(-1);
+
+        if (board.getMillFormed()) {
+            int opponentIndex = 1 - playerIndex;
+            int removablePositions = getRemovablePositionsMask(board, opponentIndex);
+            while (removablePositions != 0) {
+                actions.add(new RemoveTokenAction(Integer.numberOfTrailingZeros(removablePositions), opponentIndex));
+                removablePositions &= removablePositions - 1;
+            }
+            return actions;
+        }
+
+        PhaseIndicator gamePhase = gameState.getGamePhase(playerIndex);
+        if (gamePhase == PhaseIndicator.PHASE_ONE) {
+            while (emptyPositions != 0) {
+                actions.add(new PlaceAction(Integer.numberOfTrailingZeros(emptyPositions), playerIndex));
+                emptyPositions &= emptyPositions - 1;
+            }
+            return actions;
+        }
+
+        int playerPositions = board.getPositionsMask(playerIndex);
+        while (playerPositions != 0) {
+            int positionIndexStart = Integer.numberOfTrailingZeros(playerPositions);
+            int destinations = emptyPositions;
+            if (gamePhase == PhaseIndicator.PHASE_TWO) {
+                destinations &= board.getAdjacencyMask(positionIndexStart);
+            }
+            while (destinations != 0) {
+                actions.add(new MoveAction(positionIndexStart, Integer.numberOfTrailingZeros(destinations), playerIndex));
+                destinations &= destinations - 1;
+            }
+            playerPositions &= playerPositions - 1;
+        }
+        return actions;
+    }
+
+    /**
+     * This method writes every legal turn for a player into a buffer as packed moves, without creating any objects.
+     * If a mill has already been formed the turns are removals on their own.
+     * @param gameState The game state to generate the moves for
+     * @param playerIndex The player who's turn it is
+     * @param moves The buffer to write the moves to, which must hold at least MAX_MOVES moves
+     * @return The number of moves written
+     */
+    public static int generateMoves(GameState gameState, int playerIndex, int[] moves) {
+        Board board = gameState.getBoard();
+        int opponentIndex = 1 - playerIndex;
+        int removablePositions = getRemovablePositionsMask(board, opponentIndex);
+        int numMoves = 0;
+
+        if (board.getMillFormed()) {
+            while (removablePositions != 0) {
+                moves[numMoves++] = PackedMove.encode(PackedMove.NONE, PackedMove.NONE, Integer.numberOfTrailingZeros(removablePositions));
+                removablePositions &= removablePositions - 1;
+            }
+            return numMoves;
+        }
+
+        int emptyPositions = board.getPositionsMask(-1);
+        int playerPositions = board.getPositionsMask(playerIndex);
+        PhaseIndicator gamePhase = gameState.getGamePhase(playerIndex);
+        if (gamePhase == PhaseIndicator.PHASE_ONE) {
+            while (emptyPositions != 0) {
+                int positionIndexEnd = Integer.numberOfTrailingZeros(emptyPositions);
+                numMoves = addMoves(board, PackedMove.NONE, positionIndexEnd, playerPositions | (1 << positionIndexEnd),
+                        removablePositions, moves, numMoves);
+                emptyPositions &= emptyPositions - 1;
+            }
+            return numMoves;
+        }
+
+        int startPositions = playerPositions;
+        while (startPositions != 0) {
+            int positionIndexStart = Integer.numberOfTrailingZeros(startPositions);
+            int destinations = emptyPositions;
+            if (gamePhase == PhaseIndicator.PHASE_TWO) {
+                destinations &= board.getAdjacencyMask(positionIndexStart);
+            }
+            while (destinations != 0) {
+                int positionIndexEnd = Integer.numberOfTrailingZeros(destinations);
+                int positionsAfter = (playerPositions & ~(1 << positionIndexStart)) | (1 << positionIndexEnd);
+                numMoves = addMoves(board, positionIndexStart, positionIndexEnd, positionsAfter, removablePositions, moves, numMoves);
+                destinations &= destinations - 1;
+            }
+            startPositions &= startPositions - 1;
+        }
+        return numMoves;
+    }
+
+    /**
+     * This method writes the packed moves for a placement or move: one move if it does not form a mill, otherwise one
+     * move for each of the opponent's tokens which can be removed.
+     * @param board The board before the placement or move
+     * @param from The position the token is moved from, or PackedMove.NONE for a placement
+     * @param to The position the token is placed or moved to
+     * @param positionsAfter The player's positions after the placement or move, as a mask
+     * @param removablePositions The opponent's tokens which can be removed, as a mask
+     * @param moves The buffer to write the moves to
+     * @param numMoves The number of moves already in the buffer
+     * @return The number of moves in the buffer after writing
+     */
+    private static int addMoves(Board board, int from, int to, int positionsAfter, int removablePositions, int[] moves, int numMoves) {
+        boolean formsMill = false;
+        int[] millMasks = board.getMillMasks();
+        for (int millIndex : board.getPositionToMillIndex()[to]) {
+            if ((positionsAfter & millMasks[millIndex]) == millMasks[millIndex]) {
+                formsMill = true;
+                break;
+            }
+        }
+        if (!formsMill || removablePositions == 0) {
+            moves[numMoves++] = PackedMove.encode(from, to, PackedMove.NONE);
+            return numMoves;
+        }
+        while (removablePositions != 0) {
+            moves[numMoves++] = PackedMove.encode(from, to, Integer.numberOfTrailingZeros(removablePositions));
+            removablePositions &= removablePositions - 1;
+        }
+        return numMoves;
+    }
+
+    /**
+     * This method converts the first part of a packed move to an Action, for players which take their turn through the
+     * action controllers. The removal, if any, is a separate action taken after the mill has been formed.
+     * @param move The packed move
+     * @param playerIndex The player making the move
+     * @return The placement, move or (for a removal on its own) removal action
+     */
+    public static Action toAction(int move, int playerIndex) {
+        int from = PackedMove.getFrom(move);
+        int to = PackedMove.getTo(move);
+        if (to == PackedMove.NONE) {
+            return new RemoveTokenAction(PackedMove.getRemove(move), 1 - playerIndex);
+        }
+        if (from == PackedMove.NONE) {
+            return new PlaceAction(to, playerIndex);
+        }
+        return new MoveAction(from, to, playerIndex);
+    }
+
+    /**
+     * This method finds the opponent's tokens which can be removed. A token in a mill can only be removed if all of the
+     * opponent's tokens are in mills.
+     * @param board The board to find the tokens on
+     * @param opponentIndex The player who's token is being removed
+     * @return A mask where bit i is set if the token on position i can be removed
+     */
+    public static int getRemovablePositionsMask(Board board, int opponentIndex) {
+        int opponentPositions = board.getPositionsMask(opponentIndex);
+        int removablePositions = opponentPositions & ~board.getTokensInMillsMask(opponentIndex);
+        if (removablePositions == 0) {
+            return opponentPositions;
+        }
+        return removablePositions;
+    }
+}
@@ -1,11 +1,10 @@
 package Actions.Mills;
 
-import java.util.ArrayList;
-
 import Actions.Action;
 import Actions.ActionController;
+import Actions.ActionGenerator;
+import Game.GameState;
 import Positions.Board;
-import Players.PlayerController;
 
 /**
  * This class handles the remove actions in the game. It is responsible for creating the remove RemoveTokenActions.  It also handles
@@ -16,33 +15,19 @@ import Players.PlayerController;
  */
 public class RemoveActionController extends ActionController {
 
-    static RemoveActionController instance = null;
-
     /**
      * Constructor for the MoveController class. Initialises the controller with the
-     * game board.
+     * game state.
      * 
-     * @param _board The board on which the game is being played
-     */
-    private RemoveActionController(Board _board) {
-        super(_board);
-    }
-
-    /**
-     * This method is used to get an instance of the RemoveActionController. It implements the singleton pattern.
-     * @param _board The board on which the game is being played
-     * @return The instance of the RemoveActionController
+     * @param _gameState The game state of the game being played
      */
-    public static RemoveActionController getInstance(Board _board) {
-        if (instance == null) {
-            instance = new RemoveActionController(_board);
-        }
-        return instance;
+    public RemoveActionController(GameState _gameState) {
+        super(_gameState);
     }
 
     @Override
     public Action getAction(int positionIndex, int positionIndexEnd, int playerIndex) {
-        return new RemoveTokenAction(positionIndexEnd);
+        return new RemoveTokenAction(positionIndexEnd, getBoard().getPositionState(positionIndexEnd));
     }
 
     /**
@@ -52,13 +37,9 @@ public class RemoveActionController extends ActionController {
      * @return True if the position is valid, false otherwise
      */
     public boolean isValidPosition(int positionIndex, int playerIndex) {
-        // returns true if the position is not the current player's token and is not empty and is not opponent's token that's forming a mill 
-        // (i.e. returns true if the position has an opponent's token on it which does not form a mill)
-
-        boolean isOnlyMills = getBoard().allTokensInMill(1 - playerIndex); // need to check for the player who's token we are removing
-        boolean positionInMill = getBoard().checkForMill(positionIndex, false);
-        int positionState = getBoard().getPositionState(positionIndex);
-        return positionState != -1 && positionState != playerIndex && (!positionInMill || isOnlyMills);
+        // returns true if the position has an opponent's token on it which does not form a mill, or is in a mill when
+        // all of the opponent's tokens are in mills
+        return (ActionGenerator.getRemovablePositionsMask(getBoard(), 1 - playerIndex) & (1 << positionIndex)) != 0;
     }
 
     @Override
@@ -70,7 +51,7 @@ public class RemoveActionController extends ActionController {
 
         /* if valid, perform the move */
         Action move = getAction(-1, positionIndex, playerIndex);
-        move.execute(getBoard());
+        move.execute(getGameState());
         return true; // turn is over, so return true
     }
 
@@ -82,8 +63,8 @@ public class RemoveActionController extends ActionController {
     @Override
     public boolean legalActionsRemain(int playerIndex) {
         // loop through players
-        for (int i = 0; i < PlayerController.getInstance().getNumberOfPlayers(); i++) {
-            if (i != playerIndex && PlayerController.getInstance().getTokensRemaining(i) > 2) {
+        for (int i = 0; i < getGameState().getNumberOfPlayers(); i++) {
+            if (i != playerIndex && getGameState().getTokensRemaining(i) > 2) {
                 return true;
             }
         }
@@ -92,22 +73,12 @@ public class RemoveActionController extends ActionController {
 
     @Override
     public void reset() {
-        instance = null;
+        // no state is kept between actions
     }
 
     @Override
-    public ArrayList<Integer> getValidPositions(int playerIndex) {
-
-        ArrayList<Integer> opponentsTokens = getBoard().findPositionsOfState(1 - playerIndex); // gets a list of positions which have the opponent's token on them
-        ArrayList<Integer> validPositions = new ArrayList<Integer>();
-        
-        // loop through the opponents tokens
-        for (int i=0; i<opponentsTokens.size(); i++) {
-            if (isValidPosition(opponentsTokens.get(i), playerIndex)) {
-                validPositions.add(opponentsTokens.get(i)); // if the i'th opponent's token is millable, add it to movable positions
-            }
-        }
-
-        return validPositions;
+    public int getValidPositionsMask(int playerIndex) {
+        // the opponent's tokens which are not in a mill, found once from the board's mill sets rather than per token
+        return ActionGenerator.getRemovablePositionsMask(getBoard(), 1 - playerIndex);
     }
 }
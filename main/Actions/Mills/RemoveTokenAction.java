@@ -1,60 +1,47 @@
 package Actions.Mills;
 
-import java.util.ArrayList;
-
 import Actions.Action;
-import Display.DisplayController;
-import Players.PhaseIndicator;
-import Players.PlayerController;
-import Positions.Board;
+import Game.GameState;
 
 /**
  * This class is used to represent a remove token action in the game. It implements the Action interface, and is responsible for
- * executing the remove token on the board. It is used by the phase remove action controller.
+ * executing the remove token on the game state. It is used by the phase remove action controller.
  * @see Action
- * @see Board
+ * @see GameState
  * @see RemoveActionController
  */
 public class RemoveTokenAction implements Action{
     private int positionIndex;
+    private int playerIndex;
 
     /**
      * Constructor for the RemoveTokenAction class. Initialises the remove token action with the given parameters.
      * @param positionIndex The index of the position from which the piece is to be removed
+     * @param playerIndex The player who's token is to be removed
      */
-    public RemoveTokenAction(int positionIndex) {
+    public RemoveTokenAction(int positionIndex, int playerIndex) {
         this.positionIndex = positionIndex;
+        this.playerIndex = playerIndex;
     }
 
     @Override
-    public  void execute(Board board) {
-        //update the board so that it no longer thinks a mill was formed
-        board.setMillFormed(false);
-
-        // update the gamestate 
-        int playerNum = board.getPositionState(positionIndex);
-        board.changePositionState(positionIndex, -1);
-
-        //decrease the number tokens the opponent has
-        int currentTokensRemaining = PlayerController.getInstance().getTokensRemaining(playerNum);
-        PlayerController.getInstance().setTokensRemaining(playerNum, currentTokensRemaining - 1);
-
-        // decrease token count on display 
-        DisplayController dispCont = DisplayController.getInstance();
-        dispCont.incrementTokensRemovedCount(playerNum);
-
-        // make the position display no token
-        dispCont.removePositionToken(positionIndex);
+    public void execute(GameState gameState) {
+        // update the gamestate, which also changes the opponent's phase if they can now fly
+        gameState.removeToken(positionIndex);
+    }
 
-        // add the removed token styline
-        dispCont.updateTokenRemovalIndicator( positionIndex );
+    @Override
+    public void undo(GameState gameState) {
+        gameState.unremoveToken(positionIndex, playerIndex);
+    }
 
-        // remove the mill's styling
-        dispCont.updateNewlyFormedMillPositions(new ArrayList<>());
+    @Override
+    public int getPositionIndexStart() {
+        return -1;
+    }
 
-        // change phase if there are no more tokens to place
-        if (PlayerController.getInstance().getTokensRemaining(playerNum) == 3 && PlayerController.getInstance().getGamePhase(playerNum) != PhaseIndicator.PHASE_ONE) {
-            PlayerController.getInstance().setGamePhase(playerNum, PhaseIndicator.PHASE_THREE);
-        }
+    @Override
+    public int getPositionIndexEnd() {
+        return positionIndex;
     }
 }
@@ -1,21 +1,16 @@
 package Actions.Moves;
 
 import Players.Player;
-import Players.PlayerController;
-import Positions.Board;
-
-import java.util.ArrayList;
-import java.util.Arrays;
 
 import Actions.Action;
-import Display.DisplayController;
+import Game.GameState;
 
 /**
  * This class is used to represent a move action in the game. It implements the Action interface, and is responsible for
- * executing the move on the board. It is used by the various move controllers, which are responsible for creating the move
- * action and passing it to the board to be executed.
+ * executing the move on the game state. It is used by the various move controllers, which are responsible for creating
+ * the move action and passing it to the game state to be executed.
  * @see Action
- * @see Board
+ * @see GameState
  * @see Player
  */
 public class MoveAction implements Action {
@@ -36,24 +31,23 @@ public class MoveAction implements Action {
     }
 
     @Override
-    public void execute(Board board) {
-    
-        // update the gamestate 
-        board.changePositionState(positionIndexStart, -1); // Remove the piece from the start position
-        board.changePositionState(positionIndexEnd, this.playerIndex);
-
-        // make the position display the correct token
-        DisplayController dispCont = DisplayController.getInstance();
-        dispCont.setPositionToken(positionIndexEnd, PlayerController.getInstance().getTokenIcon(playerIndex));
-        dispCont.removePositionToken(positionIndexStart);
+    public void execute(GameState gameState) {
+        // update the gamestate
+        gameState.moveToken(positionIndexStart, positionIndexEnd, playerIndex);
+    }
 
-        // change the positions indicators
-        dispCont.updateTokenRemovalIndicator(-1);
-        dispCont.updatePreviousMoveIndicators( new ArrayList<Integer>( Arrays.asList(positionIndexStart, positionIndexEnd) ) );
+    @Override
+    public void undo(GameState gameState) {
+        gameState.unmoveToken(positionIndexStart, positionIndexEnd, playerIndex);
+    }
 
-        board.checkForMill(positionIndexEnd, true);
+    @Override
+    public int getPositionIndexStart() {
+        return positionIndexStart;
     }
 
-    
+    @Override
+    public int getPositionIndexEnd() {
+        return positionIndexEnd;
+    }
 }
-        
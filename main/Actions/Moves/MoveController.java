@@ -4,7 +4,7 @@ import java.util.ArrayList;
 
 import Actions.Action;
 import Actions.ActionController;
-import Display.DisplayController;
+import Game.GameState;
 import Positions.Board;
 
 /**
@@ -21,14 +21,14 @@ public abstract class MoveController extends ActionController{
     //if it is another value we are selecting anew square to move to
 
     /**
-     * Constructor for the MoveController class. Initialises the controller with the game board.
-     * @param _board The board on which the game is being played
+     * Constructor for the MoveController class. Initialises the controller with the game state.
+     * @param _gameState The game state of the game being played
      */
-    protected MoveController(Board _board) {
+    protected MoveController(GameState _gameState) {
         /*
          * Standard initialiser for PhaseTwoMoveConstructor.
          */
-        super(_board);
+        super(_gameState);
     }
 
     @Override
@@ -83,17 +83,17 @@ public abstract class MoveController extends ActionController{
     public void handleTokenSelection(int positionIndex, int playerIndex) {
         if (startPosition != -1) {
             //we have already selected a token to move
-            DisplayController.getInstance().setSelected(startPosition, false);
+            notifySelected(startPosition, false);
             if (startPosition == positionIndex) {
                 // if you click on the position you've selected already, deselect it
                 startPosition = -1;
                 return;
             }
         }
-        if (findLegalDestinationsFrom(positionIndex).size() > 0) {
+        if (findLegalDestinationsMaskFrom(positionIndex) != 0) {
             // if there are any valid moves originating from the clicked position
             startPosition = positionIndex; // set start position to positionIndex
-            DisplayController.getInstance().setSelected(positionIndex, true);
+            notifySelected(positionIndex, true);
         }
     }
 
@@ -105,12 +105,12 @@ public abstract class MoveController extends ActionController{
      */
     public boolean handleMoveExecution(int positionIndex, int playerIndex) {
         //check if the position selected is free
-        if (findLegalDestinationsFrom(startPosition).contains(positionIndex)) {
+        if ((findLegalDestinationsMaskFrom(startPosition) & (1 << positionIndex)) != 0) {
            //move the piece and return true
            Action move = getAction(startPosition, positionIndex, playerIndex);
-           move.execute(getBoard());
+           move.execute(getGameState());
            
-           DisplayController.getInstance().setSelected(startPosition, false);
+           notifySelected(startPosition, false);
 
            //reset startPosition to -1
            startPosition = -1;
@@ -123,10 +123,30 @@ public abstract class MoveController extends ActionController{
 
    }
 
+    /**
+     * Tells the game state's listener, if there is one, that a token has been selected or deselected.
+     * @param positionIndex The index of the position of the token
+     * @param isSelected True if the token was selected, false if it was deselected
+     */
+    private void notifySelected(int positionIndex, boolean isSelected) {
+        if (getGameState().getListener() != null) {
+            getGameState().getListener().tokenSelected(getGameState(), positionIndex, isSelected);
+        }
+    }
+
     /**
      * Finds all the legal destinations from a given position
      * @param positionIndex The index of the position to find the legal destinations from
      * @return An ArrayList of the legal destinations
      */
-    public abstract ArrayList<Integer> findLegalDestinationsFrom(int positionIndex);
+    public ArrayList<Integer> findLegalDestinationsFrom(int positionIndex) {
+        return Board.maskToPositions(findLegalDestinationsMaskFrom(positionIndex));
+    }
+
+    /**
+     * Finds all the legal destinations from a given position without creating any objects.
+     * @param positionIndex The index of the position to find the legal destinations from
+     * @return A mask where bit i is set if position i is a legal destination
+     */
+    public abstract int findLegalDestinationsMaskFrom(int positionIndex);
 }
@@ -1,8 +1,7 @@
 package Actions.Moves;
 
-import java.util.ArrayList;
-
 import Actions.Action;
+import Game.GameState;
 import Positions.Board;
 
 /**
@@ -15,26 +14,12 @@ import Positions.Board;
  */
 public class PhaseThreeMoveController extends MoveController {
     
-    static PhaseThreeMoveController instance = null;
-    
     /**
-     * Constructor for the MoveController class. Initialises the controller with the game board.
-     * @param _board The board on which the game is being played
+     * Constructor for the MoveController class. Initialises the controller with the game state.
+     * @param _gameState The game state of the game being played
      */
-    private PhaseThreeMoveController(Board _board) {
-        super(_board);
-    }
-
-    /**
-     * This method is used to get an instance of the PhaseThreeMoveController. It implements the singleton pattern.
-     * @param _board The board on which the game is being played
-     * @return The instance of the PhaseThreeMoveController
-     */
-    public static PhaseThreeMoveController getInstance(Board _board) {
-        if (instance == null) {
-            instance = new PhaseThreeMoveController(_board);
-        }
-        return instance;
+    public PhaseThreeMoveController(GameState _gameState) {
+        super(_gameState);
     }
 
     @Override
@@ -44,9 +29,9 @@ public class PhaseThreeMoveController extends MoveController {
     }
 
     @Override
-    public ArrayList<Integer> findLegalDestinationsFrom(int positionIndex){
-        //Finding empty positions
-        return getBoard().findPositionsOfState(-1);
+    public int findLegalDestinationsMaskFrom(int positionIndex){
+        // flies are to any empty position
+        return getBoard().getPositionsMask(-1);
     }
 
     @Override
@@ -56,22 +41,22 @@ public class PhaseThreeMoveController extends MoveController {
 
     @Override
     public boolean legalActionsRemain(int playerIndex){
-        return getBoard().findPositionsOfState(playerIndex).size() > 0 && getBoard().findPositionsOfState(-1).size() > 0;
+        return getBoard().getPositionsMask(playerIndex) != 0 && getBoard().getPositionsMask(-1) != 0;
     }
 
     @Override
     public void reset() {
-        instance = null;
+        startPosition = -1;
     }
     
     @Override
-    public ArrayList<Integer> getValidPositions(int playerIndex) {
+    public int getValidPositionsMask(int playerIndex) {
 
         if (startPosition == -1) {
-            return getBoard().findPositionsOfState(playerIndex); // gets a list of positions which have the current player's token on them
+            return getBoard().getPositionsMask(playerIndex); // the positions which have the current player's token on them
         }
         else {
-            return findLegalDestinationsFrom(startPosition);     
+            return findLegalDestinationsMaskFrom(startPosition);
         }
         
     }
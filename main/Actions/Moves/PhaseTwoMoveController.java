@@ -1,7 +1,6 @@
 package Actions.Moves;
 
-import java.util.ArrayList;
-
+import Game.GameState;
 import Positions.Board;
 
 /**
@@ -13,41 +12,21 @@ import Positions.Board;
  */
 public class PhaseTwoMoveController extends MoveController {
 
-    static PhaseTwoMoveController instance = null;
-
     /**
-     * Constructor for the MoveController class. Initialises the controller with the game board.
-     * @param _board The board on which the game is being played
+     * Constructor for the MoveController class. Initialises the controller with the game state.
+     * @param _gameState The game state of the game being played
      */
-    private PhaseTwoMoveController(Board _board) {
+    public PhaseTwoMoveController(GameState _gameState) {
         /*
          * Standard initialiser for PhaseTwoMoveConstructor.
          */
-        super(_board);
-    }
-
-    /**
-     * This method is used to get an instance of the PhaseTwoMoveController. It implements the singleton pattern.
-     * @param _board The board on which the game is being played
-     * @return The instance of the PhaseTwoMoveController
-     */
-    public static PhaseTwoMoveController getInstance(Board _board) {
-        if (instance == null) {
-            instance = new PhaseTwoMoveController(_board);
-        }
-        return instance;
+        super(_gameState);
     }
 
     @Override
-    public ArrayList<Integer> findLegalDestinationsFrom(int positionIndex){
-        ArrayList<Integer> legalDestinations = new ArrayList<Integer>();
-        
-        for (Integer position : getBoard().getAdjacentPositions(positionIndex)) {
-            if (getBoard().getPositionState(position) == -1) {
-                legalDestinations.add(position);
-            }
-        }
-        return legalDestinations;
+    public int findLegalDestinationsMaskFrom(int positionIndex){
+        // slides are to adjacent empty positions
+        return getBoard().getAdjacencyMask(positionIndex) & getBoard().getPositionsMask(-1);
     }
 
     @Override
@@ -57,35 +36,39 @@ public class PhaseTwoMoveController extends MoveController {
 
     @Override
     public boolean legalActionsRemain(int playerIndex){
-        for (Integer position : getBoard().findPositionsOfState(playerIndex)) {
-            if (findLegalDestinationsFrom(position).size() > 0) {
+        int emptyPositions = getBoard().getPositionsMask(-1);
+        int playerPositions = getBoard().getPositionsMask(playerIndex);
+        while (playerPositions != 0) {
+            int position = Integer.numberOfTrailingZeros(playerPositions);
+            if ((getBoard().getAdjacencyMask(position) & emptyPositions) != 0) {
                 return true;
             }
+            playerPositions &= playerPositions - 1;
         }
         return false;
     }
 
     @Override
     public void reset() {
-        instance = null;
+        startPosition = -1;
     }
 
     @Override
-    public ArrayList<Integer> getValidPositions(int playerIndex) {
+    public int getValidPositionsMask(int playerIndex) {
 
         if (startPosition == -1) {
-            // gets a list of positions which have the current player's token on them and can be moved
-            ArrayList<Integer> possibleValidPositions = getBoard().findPositionsOfState(playerIndex);
-            ArrayList<Integer> validPositions = new ArrayList<Integer>();
-            for (Integer position : possibleValidPositions) {
-                if(findLegalDestinationsFrom(position).size() > 0) {
-                    validPositions.add(position);
+            // the positions which have the current player's token on them and can be moved
+            int validPositions = 0;
+            for (int playerPositions = getBoard().getPositionsMask(playerIndex); playerPositions != 0; playerPositions &= playerPositions - 1) {
+                int position = Integer.numberOfTrailingZeros(playerPositions);
+                if (findLegalDestinationsMaskFrom(position) != 0) {
+                    validPositions |= 1 << position;
                 }
-            } 
+            }
             return validPositions;
         }
         else {
-            return findLegalDestinationsFrom(startPosition);     
+            return findLegalDestinationsMaskFrom(startPosition);
         }
         
     }
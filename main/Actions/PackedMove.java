@@ -0,0 +1,103 @@
+package Actions;
+
+import Positions.BoardSymmetries;
+
+/**
+ * This class packs a whole turn into a single int so that a search can generate, store and apply moves without
+ * creating any objects. A packed move holds the position a token is moved from, the position it is placed or moved to
+ * and the position of the opponent's token removed if the move forms a mill, each in 5 bits. Parts of the turn which
+ * do not happen are NONE: placements have no from position, moves which do not form a mill have no removal, and a
+ * removal on its own (when the turn was interrupted after forming a mill) has neither a from nor a to position.
+ * @see ActionGenerator
+ * @see Game.GameState
+ * @see BoardSymmetries
+ */
+public class PackedMove {
+
+    public static final int NONE = 31; // a position index which is never on the board
+    private static final int POSITION_BITS = 5;
+    private static final int POSITION_MASK = (1 << POSITION_BITS) - 1;
+    private static final int FROM_SHIFT = POSITION_BITS;
+    private static final int REMOVE_SHIFT = 2 * POSITION_BITS;
+
+    /**
+     * This constructor is private since the class only has static methods.
+     */
+    private PackedMove() {
+    }
+
+    /**
+     * This method packs a move.
+     * @param from The index of the position the token is moved from, or NONE for a placement
+     * @param to The index of the position the token is placed or moved to, or NONE for a removal on its own
+     * @param remove The index of the position of the opponent's token which is removed, or NONE
+     * @return The packed move
+     */
+    public static int encode(int from, int to, int remove) {
+        return to | (from << FROM_SHIFT) | (remove << REMOVE_SHIFT);
+    }
+
+    /**
+     * This method returns the position a packed move takes a token from.
+     * @param move The packed move
+     * @return The index of the position, or NONE for a placement or a removal on its own
+     */
+    public static int getFrom(int move) {
+        return (move >>> FROM_SHIFT) & POSITION_MASK;
+    }
+
+    /**
+     * This method returns the position a packed move places or moves a token to.
+     * @param move The packed move
+     * @return The index of the position, or NONE for a removal on its own
+     */
+    public static int getTo(int move) {
+        return move & POSITION_MASK;
+    }
+
+    /**
+     * This method returns the position of the opponent's token a packed move removes.
+     * @param move The packed move
+     * @return The index of the position, or NONE if the move does not remove a token
+     */
+    public static int getRemove(int move) {
+        return (move >>> REMOVE_SHIFT) & POSITION_MASK;
+    }
+
+    /**
+     * This method applies a board symmetry to a packed move, for example to map a move found for a canonical
+     * representative back to the real board with the inverse symmetry.
+     * @param move The packed move
+     * @param symmetries The symmetries of the board layout
+     * @param symmetry The index of the symmetry to apply
+     * @return The transformed packed move
+     */
+    public static int transform(int move, BoardSymmetries symmetries, int symmetry) {
+        int from = getFrom(move);
+        int to = getTo(move);
+        int remove = getRemove(move);
+        return encode(from == NONE ? NONE : symmetries.transformPosition(from, symmetry),
+                to == NONE ? NONE : symmetries.transformPosition(to, symmetry),
+                remove == NONE ? NONE : symmetries.transformPosition(remove, symmetry));
+    }
+
+    /**
+     * This method returns a readable form of a packed move, such as "3-4x10" for a move from position 3 to position 4
+     * which removes the token on position 10.
+     * @param move The packed move
+     * @return The readable form of the move
+     */
+    public static String toString(int move) {
+        StringBuilder builder = new StringBuilder();
+        if (getFrom(move) != NONE) {
+            builder.append(getFrom(move)).append('-');
+        }
+        if (getTo(move) != NONE) {
+            builder.append(getTo(move));
+        }
+        if (getRemove(move) != NONE) {
+            builder.append('x').append(getRemove(move));
+        }
+        return builder.toString();
+    }
+}
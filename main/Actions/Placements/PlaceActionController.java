@@ -1,9 +1,8 @@
 package Actions.Placements;
 
-import java.util.ArrayList;
-
 import Actions.Action;
 import Actions.ActionController;
+import Game.GameState;
 import Positions.Board;
 
 /**
@@ -15,26 +14,12 @@ import Positions.Board;
  */
 public class PlaceActionController extends ActionController{
 
-    static PlaceActionController instance = null;
-
     /**
-     * Constructor for the MoveController class. Initialises the controller with the game board.
-     * @param _board The board on which the game is being played
+     * Constructor for the MoveController class. Initialises the controller with the game state.
+     * @param _gameState The game state of the game being played
      */
-    private PlaceActionController(Board _board) {
-        super(_board);
-    }
-
-    /**
-     * This method is used to get an instance of the PlaceActionController. It implements the singleton pattern.
-     * @param _board The board on which the game is being played
-     * @return The instance of the PlaceActionController
-     */
-    public static PlaceActionController getInstance(Board _board) {
-        if (instance == null) {
-            instance = new PlaceActionController(_board);
-        }
-        return instance;
+    public PlaceActionController(GameState _gameState) {
+        super(_gameState);
     }
 
     @Override
@@ -62,7 +47,7 @@ public class PlaceActionController extends ActionController{
         
         /* if valid, perform the move */
         Action move = getAction(-1, positionIndex, playerIndex);
-        move.execute(getBoard());
+        move.execute(getGameState());
         return true;  // turn is over, so return true
     }
 
@@ -73,16 +58,16 @@ public class PlaceActionController extends ActionController{
 
     @Override
     public boolean legalActionsRemain(int playerIndex) {
-        return getBoard().findPositionsOfState(-1).size() > 0;
+        return getBoard().getPositionsMask(-1) != 0;
     }
 
     @Override
     public void reset() {
-        instance = null;
+        // no state is kept between actions
     }
 
     @Override
-    public ArrayList<Integer> getValidPositions(int playerIndex) {
-        return getBoard().findPositionsOfState(-1); // return a list of all the empty positions
+    public int getValidPositionsMask(int playerIndex) {
+        return getBoard().getPositionsMask(-1); // all the empty positions
     }
 }
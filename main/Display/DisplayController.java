@@ -2,21 +2,28 @@ package Display;
 
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Arrays;
 import javax.swing.*;
 
 import Game.Game;
+import Game.GameState;
+import Game.GameStateListener;
 import Game.GameType;
+import Actions.PackedMove;
+import Positions.Board;
 
 import java.awt.event.*;
 
-import Players.PlayerController;
 
 /**
  * This class is used to control the display of the game. It is responsible for
  * initialising the display and updating the display when the game state
- * changes.
+ * changes. It listens to the game state so that the display is updated after
+ * each action. Each display is one window showing one game, and passes the
+ * clicks on its positions to that game.
  * 
  * @see Game
+ * @see GameStateListener
  * @see GameScreen
  * @see GameBoard
  * @see PlayerController
@@ -24,9 +31,9 @@ import Players.PlayerController;
  * @see MouseAdapter
  * @see MouseMotionListener
  */
-public class DisplayController implements MouseListener {
+public class DisplayController implements MouseListener, GameStateListener {
 
-    private static DisplayController instance;
+    private Game game; // the game shown in this window
     GameScreen screen;
     GameBoard board;
     int tokenRadius = 25;
@@ -35,8 +42,7 @@ public class DisplayController implements MouseListener {
     JLabel helperText; // text which displays help to the player
     int NUM_POS = 24;
     int NUM_TOKENS = 9;
-    ArrayList<Integer> highlightedPositions = new ArrayList<>(); // stores a list of all positions which are currently
-                                                                 // highlighted
+    int highlightedPositions = 0; // stores a mask of all positions which are currently highlighted
     ArrayList<Integer> newlyFormedMill = new ArrayList<>(); // stores a list of all positions which are in the most
                                                             // recently formed mill
     int tokenJustRemoved; // stores the position id of the position which just had its token removed (null
@@ -44,12 +50,11 @@ public class DisplayController implements MouseListener {
     ArrayList<Integer> positionsOfPreviousMove = new ArrayList<>();; // stores the initial (if applicable) and final position ids of the
                                                 // previous move/place action
     JLabel settingsButton;
-    GameType gameType;
 
     /**
-     * Private constructor called by getInstance method when instance is null
+     * Constructor for the DisplayController class. Opens a new window.
      */
-    private DisplayController() {
+    public DisplayController() {
 
         // initialise the screen and board
         screen = new GameScreen();
@@ -64,33 +69,31 @@ public class DisplayController implements MouseListener {
 
         screen.add(board);
         screen.setVisible(true);
-
-        // Choosing a game mode
-        presentGameModes();
     }
 
     /**
-     * This method is used to get the instance of the DisplayController class.
+     * This method sets the game shown in this window, which clicks are passed to.
      * 
-     * @return The instance of the DisplayController class.
+     * @param _game The game.
      */
-    public static synchronized DisplayController getInstance() {
-        if (instance == null) {
-            instance = new DisplayController();
-        }
-        return instance;
+    public void setGame(Game _game) {
+        game = _game;
     }
 
     /**
-     * This method resets the display.
+     * This method resets the display by closing its window.
      */
     public void resetDisplay() {
-        instance = null;
         screen.dispose();
     }
 
-    private void presentGameModes() {
-        String[] responses = { "Local Two Player", "AI Player" };
+    /**
+     * This method asks the user to choose a game mode for a new game.
+     * 
+     * @return The game mode chosen.
+     */
+    public GameType presentGameModes() {
+        String[] responses = { "Local Two Player", "AI Player", "Alpha-Beta AI Player", "MCTS AI Player" };
         int answer = JOptionPane.showOptionDialog(
                 null,
                 "Choose a game mode for your new game!",
@@ -101,11 +104,34 @@ public class DisplayController implements MouseListener {
                         50, -1)),
                 responses,
                 responses[0]);
-        if (answer == 0 || answer == -1) {
-            Game.setGameType(GameType.LOCAL_TWO_PLAYER);
-        } else if (answer == 1) {
-            Game.setGameType(GameType.AI_PLAYER);
+        if (answer == 1) {
+            return GameType.AI_PLAYER;
+        } else if (answer == 2) {
+            return GameType.ALPHA_BETA_PLAYER;
+        } else if (answer == 3) {
+            return GameType.MCTS_PLAYER;
         }
+        return GameType.LOCAL_TWO_PLAYER;
+    }
+
+    /**
+     * This method asks the user whether to resume the game they saved.
+     * 
+     * @return True to resume the saved game, false to start a new game.
+     */
+    public boolean presentResumeSavedGame() {
+        String[] responses = { "Resume", "New Game" };
+        int answer = JOptionPane.showOptionDialog(
+                null,
+                "You have a game in progress. Would you like to resume it?",
+                "Resume game",
+                JOptionPane.DEFAULT_OPTION,
+                0,
+                new ImageIcon(new ImageIcon("main/Display/img/nine_mens_morris.jpg").getImage().getScaledInstance(50,
+                        50, -1)),
+                responses,
+                responses[0]);
+        return answer == 0;
     }
 
     /**
@@ -148,8 +174,8 @@ public class DisplayController implements MouseListener {
         position.setToken(positionToken);
         board.add(positionToken);
         position.setIsHovering(false);
-        position.repaint(); // updates the position as soon as a token is added, not just when the mouse
-                            // leaves
+        position.requestRepaint(); // updates the position as soon as a token is added, not just when the mouse
+                                   // leaves
     }
 
     /**
@@ -164,7 +190,7 @@ public class DisplayController implements MouseListener {
         PositionButton position = board.getPositionButtons().get(positionId);
         position.setIsCurrentToken(false); // tells the PositionButton that there is no token there, so paint the button
         board.remove(position.getToken());
-        position.repaint();
+        position.requestRepaint();
     }
 
     /**
@@ -206,50 +232,44 @@ public class DisplayController implements MouseListener {
 
     /**
      * Decrements the token count displaying how many tokens each player has left to
-     * place. Player's internal
-     * count must be decremented before calling this method.
+     * place. The game state's count must be decremented before calling this method.
      * 
+     * @param gameState   The game state to read the count from.
      * @param playerIndex The player's index.
      */
-    public void decrementTokensToPlaceCount(int playerIndex) {
+    public void decrementTokensToPlaceCount(GameState gameState, int playerIndex) {
         JLabel tokenCountLabel = tokenCountComponents.get(playerIndex);
-        int tokenCount = PlayerController.getInstance().getNumTokensToPlace(playerIndex);
+        int tokenCount = gameState.getNumTokensToPlace(playerIndex);
         tokenCountLabel.setText(String.valueOf(tokenCount) + "/" + NUM_TOKENS);
     }
 
     /**
      * Increments the token count displaying how many tokens each player has had
-     * removed. Player's internal
-     * count must be decremented before calling this method.
+     * removed. The game state's count must be decremented before calling this method.
      * 
+     * @param gameState   The game state to read the count from.
      * @param playerIndex The player's index.
      */
-    public void incrementTokensRemovedCount(int playerIndex) {
+    public void incrementTokensRemovedCount(GameState gameState, int playerIndex) {
         JLabel tokenCountLabel = tokenCountComponents.get(2 + playerIndex);
-        int tokenCount = PlayerController.getInstance().getTokensRemaining(playerIndex)
-                + PlayerController.getInstance().getNumTokensToPlace(playerIndex);
+        int tokenCount = gameState.getTokensRemaining(playerIndex) + gameState.getNumTokensToPlace(playerIndex);
         tokenCountLabel.setText(String.valueOf(NUM_TOKENS - tokenCount) + "/" + NUM_TOKENS);
     }
 
     /**
-     * This method updates the highlighted positions on the board.
+     * This method updates the highlighted positions on the board. Only the
+     * positions which change are repainted.
      * 
-     * @param positionsToHighlight The positions to highlight.
+     * @param positionsToHighlight A mask of the positions to highlight.
      */
-    public void updateHighlightedPositions(ArrayList<Integer> positionsToHighlight) {
-        /* Remove highlights from old positions */
-        PositionButton position;
-        for (int positionId : highlightedPositions) {
-            position = board.getPositionButtons().get(positionId);
-            position.setIsHighlighted(false);
-            position.repaint();
-        }
-        /* Create highlights for new positions */
+    public void updateHighlightedPositions(int positionsToHighlight) {
+        int changedPositions = highlightedPositions ^ positionsToHighlight;
         highlightedPositions = positionsToHighlight;
-        for (int positionId : highlightedPositions) {
-            position = board.getPositionButtons().get(positionId);
-            position.setIsHighlighted(true);
-            position.repaint();
+        for (; changedPositions != 0; changedPositions &= changedPositions - 1) {
+            int positionId = Integer.numberOfTrailingZeros(changedPositions);
+            PositionButton position = board.getPositionButtons().get(positionId);
+            position.setIsHighlighted((positionsToHighlight & (1 << positionId)) != 0);
+            position.requestRepaint();
         }
     }
 
@@ -259,14 +279,14 @@ public class DisplayController implements MouseListener {
         for (int positionId : newlyFormedMill) {
             position = board.getPositionButtons().get(positionId);
             position.setIsInMill(false);
-            position.repaint();
+            position.requestRepaint();
         }
         /* Create styling for new positions */
         newlyFormedMill = positionsInMill;
         for (int positionId : newlyFormedMill) {
             position = board.getPositionButtons().get(positionId);
             position.setIsInMill(true);
-            position.repaint();
+            position.requestRepaint();
         }
     }
 
@@ -276,14 +296,14 @@ public class DisplayController implements MouseListener {
         for (int positionId : positionsOfPreviousMove) {
             position = board.getPositionButtons().get(positionId);
             position.setWasPreviousMove(false);
-            position.repaint();
+            position.requestRepaint();
         }
         positionsOfPreviousMove = _positionsOfPreviousMove;
         /* Create styling for new positions */
         for (int positionId : positionsOfPreviousMove) {
             position = board.getPositionButtons().get(positionId);
             position.setWasPreviousMove(true);
-            position.repaint();
+            position.requestRepaint();
         }
     }
 
@@ -299,7 +319,7 @@ public class DisplayController implements MouseListener {
         if (tokenJustRemoved != -1) {
             position = board.getPositionButtons().get(tokenJustRemoved);
             position.setWasJustRemoved(false);
-            position.repaint();
+            position.requestRepaint();
         }
 
         tokenJustRemoved = _tokenJustRemoved;
@@ -309,18 +329,133 @@ public class DisplayController implements MouseListener {
         }
         position = board.getPositionButtons().get(tokenJustRemoved);
         position.setWasJustRemoved(true);
-        position.repaint();
+        position.requestRepaint();
+
+    }
+
+    /**
+     * This method shows a whole position at once, such as when jumping to a
+     * turn of a replay. Every position's token and indicators are set without
+     * repainting anything, and then the board is repainted once, so the cost
+     * does not depend on how many moves led to the position.
+     * 
+     * @param gameState    The game state to show.
+     * @param playerToMove The player who's turn it is.
+     * @param lastMove     The move which led to the position as a PackedMove,
+     *                     or -1 for none.
+     * @param tokenIcons   Each player's token image.
+     */
+    public void showPosition(GameState gameState, int playerToMove, int lastMove, ImageIcon[] tokenIcons) {
+        Board gameBoard = gameState.getBoard();
+        ArrayList<PositionButton> positionButtons = board.getPositionButtons();
+        for (int i = 0; i < NUM_POS; i++) {
+            PositionButton position = positionButtons.get(i);
+            int state = gameBoard.getPositionState(i);
+            if (state == -1) {
+                if (position.isCurrentToken) {
+                    board.remove(position.getToken());
+                    position.setIsCurrentToken(false);
+                }
+            }
+            else if (!position.isCurrentToken) {
+                JLabel positionToken = new JLabel(tokenIcons[state]);
+                int[] tokenCoords = position.getCoords();
+                positionToken.setBounds(tokenCoords[0] - tokenRadius, tokenCoords[1] - tokenRadius, 2 * tokenRadius,
+                        2 * tokenRadius);
+                position.setToken(positionToken);
+                position.setIsCurrentToken(true);
+                board.add(positionToken);
+            }
+            else if (position.getToken().getIcon() != tokenIcons[state]) {
+                position.getToken().setIcon(tokenIcons[state]);
+            }
+            position.setIsHighlighted(false);
+            position.setIsSelected(false);
+            position.setIsInMill(false);
+            position.setWasPreviousMove(false);
+            position.setWasJustRemoved(false);
+        }
+
+        /* Indicators for the move which led to the position */
+        highlightedPositions = 0;
+        newlyFormedMill = new ArrayList<>();
+        positionsOfPreviousMove = new ArrayList<>();
+        tokenJustRemoved = -1;
+        if (lastMove != -1) {
+            if (PackedMove.getFrom(lastMove) != PackedMove.NONE) {
+                positionsOfPreviousMove.add(PackedMove.getFrom(lastMove));
+            }
+            if (PackedMove.getTo(lastMove) != PackedMove.NONE) {
+                positionsOfPreviousMove.add(PackedMove.getTo(lastMove));
+            }
+            tokenJustRemoved = PackedMove.getRemove(lastMove) == PackedMove.NONE ? -1 : PackedMove.getRemove(lastMove);
+        }
+        for (int positionId : positionsOfPreviousMove) {
+            positionButtons.get(positionId).setWasPreviousMove(true);
+        }
+        if (tokenJustRemoved != -1) {
+            positionButtons.get(tokenJustRemoved).setWasJustRemoved(true);
+        }
+
+        for (int playerIndex = 0; playerIndex < 2; playerIndex++) {
+            decrementTokensToPlaceCount(gameState, playerIndex);
+            incrementTokensRemovedCount(gameState, playerIndex);
+        }
+        changeTurnText(tokenIcons[playerToMove], "Player " + (playerToMove + 1) + "'s Turn");
+        board.repaint();
+    }
+
+    @Override
+    public void tokenPlaced(GameState gameState, int positionIndex, int playerIndex) {
+        // make the position display the correct token
+        setPositionToken(positionIndex, game.getPlayerController().getTokenIcon(playerIndex));
+        // change the positions indicators
+        updateTokenRemovalIndicator(-1);
+        updatePreviousMoveIndicators(new ArrayList<Integer>(Arrays.asList(positionIndex)));
+        // decrease the displayed counter for number of tokens to place
+        decrementTokensToPlaceCount(gameState, playerIndex);
+    }
+
+    @Override
+    public void tokenMoved(GameState gameState, int positionIndexStart, int positionIndexEnd, int playerIndex) {
+        // make the position display the correct token
+        setPositionToken(positionIndexEnd, game.getPlayerController().getTokenIcon(playerIndex));
+        removePositionToken(positionIndexStart);
+        // change the positions indicators
+        updateTokenRemovalIndicator(-1);
+        updatePreviousMoveIndicators(new ArrayList<Integer>(Arrays.asList(positionIndexStart, positionIndexEnd)));
+    }
 
+    @Override
+    public void tokenRemoved(GameState gameState, int positionIndex, int playerIndex) {
+        // decrease token count on display
+        incrementTokensRemovedCount(gameState, playerIndex);
+        // make the position display no token
+        removePositionToken(positionIndex);
+        // add the removed token styling
+        updateTokenRemovalIndicator(positionIndex);
+        // remove the mill's styling
+        updateNewlyFormedMillPositions(new ArrayList<>());
+    }
+
+    @Override
+    public void millFormed(GameState gameState, ArrayList<Integer> positionsInMill) {
+        updateNewlyFormedMillPositions(positionsInMill);
+    }
+
+    @Override
+    public void tokenSelected(GameState gameState, int positionIndex, boolean isSelected) {
+        setSelected(positionIndex, isSelected);
     }
 
     @Override
     public void mouseClicked(MouseEvent e) {
 
-        if (Game.getInstance().isInteractionDisabled()) {
-            return;
+        if (game == null || game.isInteractionDisabled()) {
+            return; // a replay has no game to pass clicks to
         }
         if (e.getSource() == settingsButton) {
-            new SettingsScreen();
+            new SettingsScreen(game);
             return;
         }
         ArrayList<PositionButton> positionButtons = board.getPositionButtons();
@@ -334,7 +469,7 @@ public class DisplayController implements MouseListener {
         }
 
         /* Perform desired action */
-        Game.getInstance().handlePositionClick(positionId);
+        game.handlePositionClick(positionId);
     }
 
     @Override
@@ -358,7 +493,7 @@ public class DisplayController implements MouseListener {
         /* Perform desired action */
         PositionButton positionButton = positionButtons.get(positionId);
         positionButton.setIsHovering(true);
-        positionButton.repaint();
+        positionButton.requestRepaint();
 
     }
 
@@ -382,7 +517,7 @@ public class DisplayController implements MouseListener {
         /* Perform desired action */
         PositionButton positionButton = positionButtons.get(positionId);
         positionButton.setIsHovering(false);
-        positionButton.repaint();
+        positionButton.requestRepaint();
     }
 
     @Override
@@ -403,6 +538,6 @@ public class DisplayController implements MouseListener {
         ArrayList<PositionButton> positionButtons = board.getPositionButtons();
         PositionButton positionButton = positionButtons.get(positionId);
         positionButton.setIsSelected(isSelected);
-        positionButton.repaint();
+        positionButton.requestRepaint();
     }
 }
@@ -5,6 +5,13 @@ import javax.swing.*;
 import java.util.ArrayList;
 
 
+/**
+ * This class is the panel which draws the board and holds its positions, tokens and labels. Changes to the positions
+ * and tokens do not repaint them straight away: each change marks the area it affects as dirty, and the union of the
+ * dirty areas is repainted once, after the event which made the changes has finished. A turn which clears and sets
+ * the indicators of many positions is then drawn in one paint pass.
+ * @see PositionButton
+ */
 public class GameBoard extends JPanel {
 
         /* Attributes dealing with creating the board */
@@ -26,7 +33,12 @@ public class GameBoard extends JPanel {
         JLabel p1CountRemoved;
         JLabel p2CountRemoved;
 
+        /* Attributes dealing with batching repaints */
+        Rectangle dirtyRegion = null; // the union of the areas to repaint, or null if nothing has changed
+        boolean isRepaintScheduled = false;
+
         /* Attributes dealing with the turn information */
+        JPanel turnTextPanel;
         JLabel turnText;
         JLabel helperText;
 
@@ -82,7 +94,7 @@ public class GameBoard extends JPanel {
          * @return an ArrayList of the JLabels that display the turn information
          */
         public ArrayList<JLabel> initialiseTurnText() {
-                JPanel turnTextPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, boardLength/32, boardLength/32));
+                turnTextPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, boardLength/32, boardLength/32));
                 /* Adding the token image */
                 JLabel p1Token = new JLabel();
                 p1Token.setIcon(new ImageIcon(p1TokenImgPath));
@@ -274,6 +286,43 @@ public class GameBoard extends JPanel {
 
         }
 
+        /**
+         * This method marks a component on the board as needing to be repainted.
+         * @param component the component, which must be on the board
+         */
+        public void markDirty(Component component) {
+                markDirty(SwingUtilities.convertRectangle(component.getParent(), component.getBounds(), this));
+        }
+
+        /**
+         * This method marks an area of the board as needing to be repainted. The first area marked in an event
+         * schedules a repaint of the union of every area marked before it runs.
+         * @param region the area, in the board's coordinates
+         */
+        public void markDirty(Rectangle region) {
+                if (dirtyRegion == null) {
+                        dirtyRegion = new Rectangle(region);
+                }
+                else {
+                        dirtyRegion.add(region);
+                }
+                if (!isRepaintScheduled) {
+                        isRepaintScheduled = true;
+                        SwingUtilities.invokeLater(this::repaintDirtyRegion);
+                }
+        }
+
+        /**
+         * This method repaints the dirty area of the board in one pass.
+         */
+        void repaintDirtyRegion() {
+                isRepaintScheduled = false;
+                if (dirtyRegion != null) {
+                        repaint(dirtyRegion);
+                        dirtyRegion = null;
+                }
+        }
+
         /**
          * This method returns the ArrayList of PositionButtons that are on the board.
          * @return the ArrayList of PositionButtons that are on the board
@@ -283,6 +332,14 @@ public class GameBoard extends JPanel {
         }
 
 
+        /**
+         * This method places the controls for stepping through a replay after the turn information.
+         * @param controls the panel holding the replay controls
+         */
+        public void initialiseReplayControls(JComponent controls) {
+                turnTextPanel.add(controls);
+        }
+
         public JLabel initialiseSettingsButton(){
                 JLabel settingsButton = new SettingsButton();
                 this.add(settingsButton);
@@ -5,8 +5,10 @@ import java.awt.*;
 
 /**
  * This class is represents a position on the board. It handles the display of
- * the position as well as clicks from the user.
+ * the position as well as clicks from the user. Changes to how the position
+ * looks are repainted through requestRepaint, so that the board can batch them.
  * 
+ * @see GameBoard
  * @see JLabel
  */
 public class PositionButton extends JLabel {
@@ -92,6 +94,19 @@ public class PositionButton extends JLabel {
 
     }
 
+    /**
+     * Asks for the position to be repainted. On the board the repaint is
+     * batched with the rest of the changes made in the same event.
+     */
+    public void requestRepaint() {
+        if (getParent() instanceof GameBoard) {
+            ((GameBoard) getParent()).markDirty(this);
+        }
+        else {
+            repaint();
+        }
+    }
+
     @Override
     public boolean contains(int x, int y) {
         /* Controls which part of the button is clickable. */
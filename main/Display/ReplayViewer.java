@@ -0,0 +1,147 @@
+package Display;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import javax.swing.*;
+
+import Actions.PackedMove;
+import Game.GameState;
+import Records.GameLogReader;
+import Records.GameRecord;
+import Records.GameReplay;
+
+/**
+ * This class is a window which replays a recorded game. The slider, the
+ * buttons and the arrow keys jump to any turn: the game state for the turn is
+ * rebuilt without a display from the nearest snapshot, and then the whole board
+ * is shown with one repaint, so scrubbing through a long game is instant.
+ * <p>
+ * Usage: ReplayViewer FILE [GAME]
+ * <p>
+ * Shows a game from a game log, where GAME is the index of the game in the
+ * log, from 0, and the last game in the log is shown by default.
+ *
+ * @see GameReplay
+ * @see DisplayController#showPosition
+ */
+public class ReplayViewer {
+
+    private DisplayController displayController;
+    private GameReplay replay;
+    private ImageIcon[] tokenIcons;
+    private JSlider slider;
+
+    /**
+     * Constructor for the ReplayViewer class. Opens a new window showing the
+     * start of the game.
+     *
+     * @param game The game to replay
+     */
+    public ReplayViewer(GameRecord game) {
+        replay = new GameReplay(game);
+        displayController = new DisplayController();
+        displayController.screen.setTitle("Nine Men's Morris - " + game.getPlayer(0) + " vs " + game.getPlayer(1));
+        GameBoard board = displayController.board;
+        tokenIcons = new ImageIcon[] { new ImageIcon(board.p1TokenImgPath), new ImageIcon(board.p2TokenImgPath) };
+
+        slider = new JSlider(0, replay.getNumMoves(), 0);
+        slider.setFocusable(false); // the arrow keys are bound for the whole window
+        slider.addChangeListener(e -> showTurn(slider.getValue()));
+        JPanel controls = new JPanel();
+        controls.add(createButton("|<", () -> slider.setValue(0)));
+        controls.add(createButton("<", () -> slider.setValue(slider.getValue() - 1)));
+        controls.add(slider);
+        controls.add(createButton(">", () -> slider.setValue(slider.getValue() + 1)));
+        controls.add(createButton(">|", () -> slider.setValue(replay.getNumMoves())));
+        board.initialiseReplayControls(controls);
+        bindKey(board, KeyEvent.VK_HOME, () -> slider.setValue(0));
+        bindKey(board, KeyEvent.VK_LEFT, () -> slider.setValue(slider.getValue() - 1));
+        bindKey(board, KeyEvent.VK_RIGHT, () -> slider.setValue(slider.getValue() + 1));
+        bindKey(board, KeyEvent.VK_END, () -> slider.setValue(replay.getNumMoves()));
+
+        showTurn(0);
+        board.revalidate();
+    }
+
+    /**
+     * This method opens a replay window for a game from a game log.
+     *
+     * @param args The log file, and optionally the index of the game
+     * @throws IOException If the log cannot be read or does not have the game
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException("Usage: ReplayViewer FILE [GAME]");
+        }
+        int gameIndex = args.length == 2 ? Integer.parseInt(args[1]) : -1;
+        GameRecord game = null;
+        boolean found = false;
+        try (GameLogReader reader = new GameLogReader(new File(args[0]))) {
+            int i = 0;
+            for (GameRecord next = reader.next(); next != null && !found; next = reader.next()) {
+                game = next;
+                found = i++ == gameIndex;
+            }
+        }
+        if (game == null || (gameIndex != -1 && !found)) {
+            throw new IOException(args[0] + " does not have game " + Math.max(gameIndex, 0));
+        }
+        GameRecord chosenGame = game;
+        SwingUtilities.invokeLater(() -> new ReplayViewer(chosenGame));
+    }
+
+    /**
+     * This method shows the board after a number of turns.
+     *
+     * @param numTurns The number of turns played
+     */
+    private void showTurn(int numTurns) {
+        GameRecord game = replay.getGame();
+        GameState gameState = replay.getGameState(numTurns);
+        int lastMove = numTurns == 0 ? -1 : game.getMove(numTurns - 1);
+        displayController.showPosition(gameState, GameReplay.getPlayerToMove(numTurns), lastMove, tokenIcons);
+
+        String text = "<html>Turn " + numTurns + " of " + replay.getNumMoves();
+        if (lastMove != -1) {
+            text += "<br>Player " + (GameReplay.getPlayerToMove(numTurns - 1) + 1) + ": " + PackedMove.toString(lastMove);
+        }
+        if (numTurns == replay.getNumMoves()) {
+            text += "<br>" + (game.getWinner() == GameRecord.DRAW ? "Drawn" : "Player " + (game.getWinner() + 1) + " won");
+        }
+        displayController.changeHelperText(text + "</html>");
+    }
+
+    /**
+     * This method creates a button which runs an action when clicked.
+     *
+     * @param text   The button's text
+     * @param action The action to run
+     * @return The button
+     */
+    private static JButton createButton(String text, Runnable action) {
+        JButton button = new JButton(text);
+        button.setFocusable(false); // leave the arrow keys to the board
+        button.addActionListener(e -> action.run());
+        return button;
+    }
+
+    /**
+     * This method runs an action when a key is pressed anywhere in the window.
+     *
+     * @param component A component in the window
+     * @param keyCode   The key
+     * @param action    The action to run
+     */
+    private static void bindKey(JComponent component, int keyCode, Runnable action) {
+        String name = "replay" + keyCode;
+        component.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        component.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+}
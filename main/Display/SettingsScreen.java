@@ -6,7 +6,7 @@ import Game.Game;
 
 public class SettingsScreen extends JFrame {
     
-    SettingsScreen(){
+    SettingsScreen(Game game){
 		String[] responses = {"Cancel","Confirm"};
 		int answer = JOptionPane.showOptionDialog(
 				null,
@@ -21,7 +21,7 @@ public class SettingsScreen extends JFrame {
             return;
         }
         else if (answer == 1) {
-            Game.getInstance().resetGame();
+            game.resetGame();
         }
     }
 }
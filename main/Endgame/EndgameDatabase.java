@@ -0,0 +1,294 @@
+package Endgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import Actions.ActionGenerator;
+import Game.GameState;
+import Players.PhaseIndicator;
+import Positions.BoardSymmetries;
+
+/**
+ * This class is a database of the game theoretic values of positions in the moving phases of the game, built offline
+ * by retrograde analysis with EndgameGenerator. It is split into subspaces by the number of tokens each player has,
+ * and each subspace is an EndgameTable with one value per position, indexed by an EndgameIndex. Tables loaded from
+ * disk are memory-mapped, so loading is instant and the tables are not held on the heap.
+ * <p>
+ * A value of DRAW means neither player can force a win. Any other value is one more than the number of turns until
+ * the game ends with best play, where the winner ends the game as quickly as they can and the loser delays it as long
+ * as they can. An odd number of turns means the player to move wins and an even number means they lose. Tables which
+ * only store win, draw or loss give WIN_WITHOUT_DISTANCE or LOSS_WITHOUT_DISTANCE instead, which keep the same parity.
+ * <p>
+ * The database is only read after it has been loaded, so it can be shared by any number of searches and threads.
+ * @see EndgameGenerator
+ * @see EndgameIndex
+ * @see EndgameTable
+ */
+public class EndgameDatabase {
+
+    public static final int MIN_TOKENS = 3;
+    public static final int MAX_TOKENS = GameState.NUM_TOKENS;
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = 0;
+    public static final int WIN_WITHOUT_DISTANCE = 0x100;
+    public static final int LOSS_WITHOUT_DISTANCE = 0x101;
+    public static final int NO_MOVE = -1;
+    public static final File DEFAULT_DIRECTORY = new File("endgame");
+    private static final int MAX_DISTANCE = 254;
+
+    private EndgameTable[][] tables = new EndgameTable[MAX_TOKENS + 1][MAX_TOKENS + 1];
+
+    /**
+     * This method looks up the value of a game state for the player who's turn it is. Only game states where both
+     * players have placed all of their tokens, no mill is waiting for a removal and each player flies exactly when
+     * they have three tokens are in the database.
+     * @param gameState The game state to look up
+     * @param playerIndex The player who's turn it is
+     * @return The value of the game state, or NOT_FOUND if it is not in the database
+     */
+    public int probe(GameState gameState, int playerIndex) {
+        if (gameState.getBoard().getMillFormed()) {
+            return NOT_FOUND;
+        }
+        for (int i = 0; i < 2; i++) {
+            if (gameState.getNumTokensToPlace(i) != 0
+                    || (gameState.getGamePhase(i) == PhaseIndicator.PHASE_THREE) != (gameState.getTokensRemaining(i) == MIN_TOKENS)) {
+                return NOT_FOUND;
+            }
+        }
+        return probe(gameState.getBoard().getPositionsMask(playerIndex), gameState.getBoard().getPositionsMask(1 - playerIndex));
+    }
+
+    /**
+     * This method looks up the value of a position for the player to move.
+     * @param moverMask The positions of the player to move's tokens, as a mask
+     * @param opponentMask The positions of their opponent's tokens, as a mask
+     * @return The value of the position, or NOT_FOUND if it is not in the database
+     */
+    public int probe(int moverMask, int opponentMask) {
+        int numTokensToMove = Integer.bitCount(moverMask);
+        int numOpponentTokens = Integer.bitCount(opponentMask);
+        if (numTokensToMove < MIN_TOKENS && numOpponentTokens >= MIN_TOKENS) {
+            return encode(0); // the player to move has already lost
+        }
+        if (!hasSubspace(numTokensToMove, numOpponentTokens)) {
+            return NOT_FOUND;
+        }
+        return tables[numTokensToMove][numOpponentTokens].probe(moverMask, opponentMask);
+    }
+
+    /**
+     * This method finds the best whole turn for a player from the database, by looking up the position after each of
+     * their legal moves. It prefers the quickest win, then a draw, then the slowest loss. The game state passed in is
+     * restored before returning.
+     * @param gameState The game state to move from
+     * @param playerIndex The player who's turn it is
+     * @return The best move as a PackedMove, or NO_MOVE if the player has no legal moves, a position after one of
+     * their moves is not in the database, or the best move wins or loses in a table without distances
+     */
+    public int findBestMove(GameState gameState, int playerIndex) {
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+        int numMoves = ActionGenerator.generateMoves(gameState, playerIndex, moves);
+        int bestMove = NO_MOVE;
+        int bestValue = NOT_FOUND;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < numMoves; i++) {
+            int value = probeMove(gameState, playerIndex, moves[i]);
+            if (value == NOT_FOUND) {
+                return NO_MOVE;
+            }
+            int rank = rankMove(value);
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = moves[i];
+                bestValue = value;
+            }
+        }
+        if (bestValue != DRAW && !hasDistance(bestValue)) {
+            return NO_MOVE; // any winning move could be chosen, which may never end the game, so leave it to a search
+        }
+        return bestMove;
+    }
+
+    /**
+     * This method removes every move which does not reach the best result a player can force, so that a search only
+     * chooses between moves which are known to win, or to draw. The order of the remaining moves is kept.
+     * @param gameState The game state to move from, which is restored before returning
+     * @param playerIndex The player who's turn it is
+     * @param moves The packed moves, which are filtered in place
+     * @param numMoves The number of moves
+     * @return The number of moves left, which is numMoves if a position after one of them is not in the database
+     */
+    public int filterMoves(GameState gameState, int playerIndex, int[] moves, int numMoves) {
+        int[] results = new int[numMoves];
+        int bestResult = Integer.MIN_VALUE;
+        for (int i = 0; i < numMoves; i++) {
+            int value = probeMove(gameState, playerIndex, moves[i]);
+            if (value == NOT_FOUND) {
+                return numMoves;
+            }
+            results[i] = isLoss(value) ? 1 : isWin(value) ? -1 : 0;
+            bestResult = Math.max(bestResult, results[i]);
+        }
+        int numBestMoves = 0;
+        for (int i = 0; i < numMoves; i++) {
+            if (results[i] == bestResult) {
+                moves[numBestMoves++] = moves[i];
+            }
+        }
+        return numBestMoves;
+    }
+
+    /**
+     * This method ranks a move for the player making it, from the value of the position after it for their opponent.
+     * @param value The value of the position after the move
+     * @return The rank, which is higher for better moves
+     */
+    private static int rankMove(int value) {
+        if (isLoss(value)) {
+            return hasDistance(value) ? 2 * MAX_DISTANCE - getDistance(value) : 1;
+        }
+        if (isWin(value)) {
+            return hasDistance(value) ? -2 * MAX_DISTANCE + getDistance(value) : -1;
+        }
+        return 0;
+    }
+
+    /**
+     * This method looks up the value of the game state after a move, for the opponent of the player making it. The
+     * game state passed in is restored before returning.
+     * @param gameState The game state to move from
+     * @param playerIndex The player making the move
+     * @param move The move as a PackedMove
+     * @return The value of the game state after the move for the opponent, or NOT_FOUND if it is not in the database
+     */
+    public int probeMove(GameState gameState, int playerIndex, int move) {
+        gameState.applyMove(move, playerIndex);
+        int value = gameState.getTokensRemaining(1 - playerIndex) < MIN_TOKENS ? encode(0) : probe(gameState, 1 - playerIndex);
+        gameState.undoMove(move, playerIndex);
+        return value;
+    }
+
+    /**
+     * This method checks whether a value is a win for the player to move.
+     * @param value The value from probe
+     * @return True if the player to move can force a win, false otherwise
+     */
+    public static boolean isWin(int value) {
+        return value > 0 && (value & 1) == 0;
+    }
+
+    /**
+     * This method checks whether a value is a loss for the player to move.
+     * @param value The value from probe
+     * @return True if the opponent can force a win, false otherwise
+     */
+    public static boolean isLoss(int value) {
+        return value > 0 && (value & 1) == 1;
+    }
+
+    /**
+     * This method checks whether a value says how many turns until the game ends.
+     * @param value The value from probe
+     * @return True if the value is a win or a loss from a distance to win table, false otherwise
+     */
+    public static boolean hasDistance(int value) {
+        return value > 0 && value <= MAX_DISTANCE + 1;
+    }
+
+    /**
+     * This method returns the number of turns until the game ends with best play.
+     * @param value The value from probe, which must be a win or a loss with a distance
+     * @return The number of turns
+     */
+    public static int getDistance(int value) {
+        return value - 1;
+    }
+
+    /**
+     * This method encodes the number of turns until the game ends as a value.
+     * @param distance The number of turns, which is odd for a win and even for a loss
+     * @return The value
+     */
+    static int encode(int distance) {
+        if (distance > MAX_DISTANCE) {
+            throw new IllegalStateException("Distance to win " + distance + " does not fit in a byte");
+        }
+        return distance + 1;
+    }
+
+    /**
+     * This method checks whether the database has a subspace.
+     * @param numTokensToMove The number of tokens the player to move has
+     * @param numOpponentTokens The number of tokens their opponent has
+     * @return True if the subspace has been loaded or generated, false otherwise
+     */
+    public boolean hasSubspace(int numTokensToMove, int numOpponentTokens) {
+        return numTokensToMove >= MIN_TOKENS && numTokensToMove <= MAX_TOKENS
+                && numOpponentTokens >= MIN_TOKENS && numOpponentTokens <= MAX_TOKENS
+                && tables[numTokensToMove][numOpponentTokens] != null;
+    }
+
+    /**
+     * This method adds a solved subspace to the database.
+     * @param index The index of the subspace
+     * @param subspaceValues The value of each position in the subspace, by index, as distances to win
+     */
+    void addSubspace(EndgameIndex index, byte[] subspaceValues) {
+        tables[index.getNumTokensToMove()][index.getNumOpponentTokens()] = new EndgameTable(index.getSymmetries(), index.getNumTokensToMove(),
+                index.getNumOpponentTokens(), EndgameTable.Format.DISTANCE_TO_WIN, ByteBuffer.wrap(subspaceValues), index);
+    }
+
+    /**
+     * This method writes each subspace of the database to its own table file in a directory.
+     * @param directory The directory to write to, which is created if it does not exist
+     * @param format The format to write the tables in
+     * @throws IOException If a file cannot be written
+     */
+    public void save(File directory, EndgameTable.Format format) throws IOException {
+        directory.mkdirs();
+        for (int numTokensToMove = MIN_TOKENS; numTokensToMove <= MAX_TOKENS; numTokensToMove++) {
+            for (int numOpponentTokens = MIN_TOKENS; numOpponentTokens <= MAX_TOKENS; numOpponentTokens++) {
+                if (hasSubspace(numTokensToMove, numOpponentTokens)) {
+                    tables[numTokensToMove][numOpponentTokens].write(new File(directory, getFileName(numTokensToMove, numOpponentTokens)), format);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method memory-maps every table file in a directory written by save.
+     * @param directory The directory to read from
+     * @return The database, which is empty if the directory has no table files
+     * @throws IOException If a file cannot be read, is not a table file for its subspace, or was solved for a
+     * different board layout
+     */
+    public static EndgameDatabase load(File directory) throws IOException {
+        EndgameDatabase database = new EndgameDatabase();
+        for (int numTokensToMove = MIN_TOKENS; numTokensToMove <= MAX_TOKENS; numTokensToMove++) {
+            for (int numOpponentTokens = MIN_TOKENS; numOpponentTokens <= MAX_TOKENS; numOpponentTokens++) {
+                File file = new File(directory, getFileName(numTokensToMove, numOpponentTokens));
+                if (!file.isFile()) {
+                    continue;
+                }
+                EndgameTable table = EndgameTable.map(file, BoardSymmetries.DEFAULT);
+                if (table.getNumTokensToMove() != numTokensToMove || table.getNumOpponentTokens() != numOpponentTokens) {
+                    throw new IOException(file + " is not the endgame table for " + numTokensToMove + "v" + numOpponentTokens);
+                }
+                database.tables[numTokensToMove][numOpponentTokens] = table;
+            }
+        }
+        return database;
+    }
+
+    /**
+     * This method returns the name of the file a subspace is saved to.
+     * @param numTokensToMove The number of tokens the player to move has
+     * @param numOpponentTokens The number of tokens their opponent has
+     * @return The file name
+     */
+    private static String getFileName(int numTokensToMove, int numOpponentTokens) {
+        return "endgame_" + numTokensToMove + "v" + numOpponentTokens + ".bin";
+    }
+}
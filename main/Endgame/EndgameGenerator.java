@@ -0,0 +1,379 @@
+package Endgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import Positions.Board;
+import Positions.BoardSymmetries;
+
+/**
+ * This class builds the endgame database offline by retrograde analysis. Each subspace is solved together with the
+ * subspace where the players' token counts are swapped, since a move which does not form a mill passes the turn into
+ * it. A move which forms a mill removes one of the opponent's tokens and leads into a subspace with fewer tokens, so
+ * subspaces are solved in order of their total number of tokens and those values are looked up from the database.
+ * <p>
+ * Solving a pair of subspaces starts by finding every position which is already decided: the player to move cannot
+ * move and has lost, or can form a mill and reach a solved position. Then, one turn at a time, the positions one turn
+ * before each newly decided position are found by unmoving the opponent's tokens. A position is a win as soon as one
+ * of its moves leads to a loss for the opponent, and a loss once every one of its moves leads to a win for the
+ * opponent, which is tracked by counting down its undecided moves. Positions which are never decided are draws.
+ * Positions and moves related by a symmetry are only counted once.
+ * <p>
+ * Usage: EndgameGenerator [--max-tokens N] [--output DIRECTORY] [--format dtw|wdl]
+ * <p>
+ * Every subspace where both players have between three and N tokens is built, and written to the output directory as
+ * one table file per subspace, with a distance to win byte per position (dtw, the default) or 2 bits of win, draw or
+ * loss per position (wdl).
+ * @see EndgameDatabase
+ * @see EndgameIndex
+ * @see EndgameTable
+ */
+public class EndgameGenerator {
+
+    private static final int ALL_POSITIONS = (1 << 24) - 1;
+    private static final int CANNOT_LOSE = 0xFF; // move counter for positions with a move which is known to draw
+    private static final int MAX_CHILDREN = 256;
+
+    private EndgameDatabase database = new EndgameDatabase();
+    private BoardSymmetries symmetries = BoardSymmetries.DEFAULT;
+    private int[] adjacencyMasks = new int[24];
+    private int[] millMasks;
+    private int[][] millMasksAtPosition = new int[24][]; // the masks of the mills each position is a part of
+    private int[] children = new int[MAX_CHILDREN];
+
+    /**
+     * This class holds one subspace while it is being solved.
+     */
+    private static class Subspace {
+        EndgameIndex index;
+        byte[] values;
+        byte[] undecidedMoves; // the number of distinct moves which have not been found to lose, or CANNOT_LOSE
+        byte[] slowestCaptureLoss; // the most turns to lose after a move which forms a mill
+        long numCanonical = 0;
+
+        Subspace(EndgameIndex _index) {
+            index = _index;
+            values = new byte[(int) index.getSize()];
+            undecidedMoves = new byte[values.length];
+            slowestCaptureLoss = new byte[values.length];
+        }
+    }
+
+    /**
+     * Constructor for the EndgameGenerator class, using the default board layout.
+     */
+    public EndgameGenerator() {
+        Board board = new Board(symmetries.getLayoutMillList());
+        millMasks = board.getMillMasks();
+        for (int i = 0; i < 24; i++) {
+            adjacencyMasks[i] = board.getAdjacencyMask(i);
+            int[] millIndices = board.getPositionToMillIndex()[i];
+            millMasksAtPosition[i] = new int[millIndices.length];
+            for (int j = 0; j < millIndices.length; j++) {
+                millMasksAtPosition[i][j] = millMasks[millIndices[j]];
+            }
+        }
+    }
+
+    /**
+     * This method runs the generator from the command line.
+     * @param args The options, as described in the class comment
+     * @throws IOException If the database cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int maxTokens = 4;
+        File outputDirectory = EndgameDatabase.DEFAULT_DIRECTORY;
+        EndgameTable.Format format = EndgameTable.Format.DISTANCE_TO_WIN;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--max-tokens": maxTokens = Integer.parseInt(value); break;
+                case "--output": outputDirectory = new File(value); break;
+                case "--format": format = parseFormat(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (maxTokens < EndgameDatabase.MIN_TOKENS || maxTokens > EndgameDatabase.MAX_TOKENS) {
+            throw new IllegalArgumentException("--max-tokens must be between " + EndgameDatabase.MIN_TOKENS + " and " + EndgameDatabase.MAX_TOKENS);
+        }
+
+        long startTime = System.nanoTime();
+        EndgameDatabase database = new EndgameGenerator().generate(maxTokens);
+        database.save(outputDirectory, format);
+        System.out.println("Wrote endgame database to " + outputDirectory + " in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+    }
+
+    /**
+     * This method parses the name of a table format.
+     * @param name "dtw" for distance to win or "wdl" for win, draw or loss
+     * @return The format
+     */
+    private static EndgameTable.Format parseFormat(String name) {
+        switch (name) {
+            case "dtw": return EndgameTable.Format.DISTANCE_TO_WIN;
+            case "wdl": return EndgameTable.Format.WIN_DRAW_LOSS;
+            default: throw new IllegalArgumentException("Unknown table format " + name);
+        }
+    }
+
+    /**
+     * This method builds every subspace where both players have between three and a maximum number of tokens.
+     * @param maxTokens The maximum number of tokens
+     * @return The database
+     */
+    public EndgameDatabase generate(int maxTokens) {
+        for (int totalTokens = 2 * EndgameDatabase.MIN_TOKENS; totalTokens <= 2 * maxTokens; totalTokens++) {
+            for (int numTokens = totalTokens - EndgameDatabase.MIN_TOKENS; numTokens >= (totalTokens + 1) / 2; numTokens--) {
+                if (numTokens <= maxTokens) {
+                    solve(numTokens, totalTokens - numTokens);
+                }
+            }
+        }
+        return database;
+    }
+
+    /**
+     * This method solves a subspace together with the subspace where the token counts are swapped, and adds them to the
+     * database.
+     * @param numTokens The number of tokens one player has
+     * @param numOtherTokens The number of tokens the other player has, which is at most numTokens
+     */
+    private void solve(int numTokens, int numOtherTokens) {
+        long startTime = System.nanoTime();
+        Subspace[] subspaces;
+        if (numTokens == numOtherTokens) {
+            subspaces = new Subspace[] { new Subspace(new EndgameIndex(numTokens, numOtherTokens, symmetries)) };
+        }
+        else {
+            subspaces = new Subspace[] { new Subspace(new EndgameIndex(numTokens, numOtherTokens, symmetries)),
+                                         new Subspace(new EndgameIndex(numOtherTokens, numTokens, symmetries)) };
+        }
+
+        int slowestDecided = 0;
+        for (int s = 0; s < subspaces.length; s++) {
+            slowestDecided = Math.max(slowestDecided, initialise(subspaces[s], subspaces[subspaces.length - 1 - s]));
+        }
+        for (int distance = 0; distance <= slowestDecided; distance++) {
+            int value = EndgameDatabase.encode(distance);
+            for (int s = 0; s < subspaces.length; s++) {
+                Subspace subspace = subspaces[s];
+                for (int i = 0; i < subspace.values.length; i++) {
+                    if ((subspace.values[i] & 0xFF) == value) {
+                        slowestDecided = Math.max(slowestDecided, decidePredecessors(subspace, i, distance, subspaces[subspaces.length - 1 - s]));
+                    }
+                }
+            }
+        }
+
+        for (Subspace subspace : subspaces) {
+            database.addSubspace(subspace.index, subspace.values);
+            long wins = 0;
+            long losses = 0;
+            for (byte value : subspace.values) {
+                if (EndgameDatabase.isWin(value & 0xFF)) {
+                    wins++;
+                }
+                else if (EndgameDatabase.isLoss(value & 0xFF)) {
+                    losses++;
+                }
+            }
+            System.out.println(String.format("%dv%d: %d positions (%d indices), W %d / D %d / L %d, longest win %d turns",
+                    subspace.index.getNumTokensToMove(), subspace.index.getNumOpponentTokens(), subspace.numCanonical,
+                    subspace.index.getSize(), wins, subspace.numCanonical - wins - losses, losses, slowestDecided));
+        }
+        System.out.println(String.format("Solved %dv%d in %d ms", numTokens, numOtherTokens, (System.nanoTime() - startTime) / 1000000));
+    }
+
+    /**
+     * This method finds the value of every position in a subspace which can be decided without the subspace it passes
+     * the turn into, and counts the distinct moves of every other position.
+     * @param subspace The subspace to initialise
+     * @param nextSubspace The subspace a move which does not form a mill leads into
+     * @return The most turns until the game ends of any decided position
+     */
+    private int initialise(Subspace subspace, Subspace nextSubspace) {
+        int numTokensToMove = subspace.index.getNumTokensToMove();
+        int numOpponentTokens = subspace.index.getNumOpponentTokens();
+        boolean flying = numTokensToMove == EndgameDatabase.MIN_TOKENS;
+        int slowestDecided = 0;
+
+        for (int i = 0; i < subspace.values.length; i++) {
+            if (!subspace.index.isCanonical(i)) {
+                subspace.undecidedMoves[i] = (byte) CANNOT_LOSE; // never looked up, so never decided
+                continue;
+            }
+            subspace.numCanonical++;
+            int moverMask = subspace.index.getMoverMask(i);
+            int opponentMask = subspace.index.getOpponentMask(i);
+            int emptyPositions = ALL_POSITIONS & ~(moverMask | opponentMask);
+            int removablePositions = opponentMask & ~getTokensInMillsMask(opponentMask);
+            if (removablePositions == 0) {
+                removablePositions = opponentMask;
+            }
+
+            int numMoves = 0;
+            int numChildren = 0;
+            int quickestWin = Integer.MAX_VALUE;
+            int slowestLoss = 0;
+            boolean canDraw = false;
+            for (int startPositions = moverMask; startPositions != 0; startPositions &= startPositions - 1) {
+                int from = Integer.numberOfTrailingZeros(startPositions);
+                int destinations = emptyPositions & (flying ? ALL_POSITIONS : adjacencyMasks[from]);
+                for (; destinations != 0; destinations &= destinations - 1) {
+                    int to = Integer.numberOfTrailingZeros(destinations);
+                    int moverMaskAfter = (moverMask & ~(1 << from)) | (1 << to);
+                    if (!formsMill(moverMaskAfter, to)) {
+                        children[numChildren++] = nextSubspace.index.getIndex(opponentMask, moverMaskAfter);
+                        numMoves++;
+                        continue;
+                    }
+                    for (int removals = removablePositions; removals != 0; removals &= removals - 1) {
+                        numMoves++;
+                        if (numOpponentTokens == EndgameDatabase.MIN_TOKENS) {
+                            quickestWin = 1; // the opponent is left with two tokens
+                            continue;
+                        }
+                        int value = database.probe(opponentMask & ~Integer.lowestOneBit(removals), moverMaskAfter);
+                        if (value == EndgameDatabase.NOT_FOUND) {
+                            throw new IllegalStateException("Subspace " + (numOpponentTokens - 1) + "v" + numTokensToMove + " has not been solved");
+                        }
+                        if (EndgameDatabase.isLoss(value)) {
+                            quickestWin = Math.min(quickestWin, EndgameDatabase.getDistance(value) + 1);
+                        }
+                        else if (EndgameDatabase.isWin(value)) {
+                            slowestLoss = Math.max(slowestLoss, EndgameDatabase.getDistance(value) + 1);
+                        }
+                        else {
+                            canDraw = true;
+                        }
+                    }
+                }
+            }
+
+            int numDistinctChildren = countDistinct(children, numChildren);
+            subspace.undecidedMoves[i] = (byte) (canDraw ? CANNOT_LOSE : numDistinctChildren);
+            subspace.slowestCaptureLoss[i] = (byte) slowestLoss;
+            int distance = -1;
+            if (numMoves == 0) {
+                distance = 0; // a player who cannot move has lost
+            }
+            else if (quickestWin != Integer.MAX_VALUE) {
+                distance = quickestWin; // may be beaten by a quicker win without forming a mill
+            }
+            else if (numDistinctChildren == 0 && !canDraw) {
+                distance = slowestLoss; // every move forms a mill and loses
+            }
+            if (distance >= 0) {
+                subspace.values[i] = (byte) EndgameDatabase.encode(distance);
+                slowestDecided = Math.max(slowestDecided, distance);
+            }
+        }
+        return slowestDecided;
+    }
+
+    /**
+     * This method finds the positions one turn before a decided position, by unmoving each of the opponent's tokens
+     * which is not in a mill, and decides them if they can be decided.
+     * @param subspace The subspace of the decided position
+     * @param index The index of the decided position
+     * @param distance The number of turns until the game ends from the decided position
+     * @param previousSubspace The subspace of the positions one turn before
+     * @return The most turns until the game ends of any position decided
+     */
+    private int decidePredecessors(Subspace subspace, int index, int distance, Subspace previousSubspace) {
+        int moverMask = subspace.index.getMoverMask(index);
+        int opponentMask = subspace.index.getOpponentMask(index);
+        int emptyPositions = ALL_POSITIONS & ~(moverMask | opponentMask);
+        boolean opponentFlying = subspace.index.getNumOpponentTokens() == EndgameDatabase.MIN_TOKENS;
+
+        int numPredecessors = 0;
+        for (int endPositions = opponentMask; endPositions != 0; endPositions &= endPositions - 1) {
+            int to = Integer.numberOfTrailingZeros(endPositions);
+            if (formsMill(opponentMask, to)) {
+                continue; // moving this token here would have formed a mill and removed a token
+            }
+            int starts = emptyPositions & (opponentFlying ? ALL_POSITIONS : adjacencyMasks[to]);
+            for (; starts != 0; starts &= starts - 1) {
+                int opponentMaskBefore = (opponentMask & ~(1 << to)) | Integer.lowestOneBit(starts);
+                children[numPredecessors++] = previousSubspace.index.getIndex(opponentMaskBefore, moverMask);
+            }
+        }
+        numPredecessors = countDistinct(children, numPredecessors);
+
+        int slowestDecided = 0;
+        boolean decidedIsLoss = distance % 2 == 0;
+        for (int i = 0; i < numPredecessors; i++) {
+            int predecessor = children[i];
+            int value = previousSubspace.values[predecessor] & 0xFF;
+            if (decidedIsLoss) {
+                // the predecessor can move into a loss for the opponent
+                if (value == EndgameDatabase.DRAW || (EndgameDatabase.isWin(value) && EndgameDatabase.getDistance(value) > distance + 1)) {
+                    previousSubspace.values[predecessor] = (byte) EndgameDatabase.encode(distance + 1);
+                    slowestDecided = distance + 1;
+                }
+            }
+            else if (value == EndgameDatabase.DRAW && (previousSubspace.undecidedMoves[predecessor] & 0xFF) != CANNOT_LOSE) {
+                int undecidedMoves = (previousSubspace.undecidedMoves[predecessor] & 0xFF) - 1;
+                previousSubspace.undecidedMoves[predecessor] = (byte) undecidedMoves;
+                if (undecidedMoves == 0) {
+                    // every move leads to a win for the opponent, so lose as slowly as possible
+                    int lossDistance = Math.max(distance + 1, previousSubspace.slowestCaptureLoss[predecessor] & 0xFF);
+                    previousSubspace.values[predecessor] = (byte) EndgameDatabase.encode(lossDistance);
+                    slowestDecided = Math.max(slowestDecided, lossDistance);
+                }
+            }
+        }
+        return slowestDecided;
+    }
+
+    /**
+     * This method checks whether a token forms a mill.
+     * @param playerMask The positions of the player's tokens, including the token, as a mask
+     * @param positionIndex The position of the token
+     * @return True if the token is part of a mill, false otherwise
+     */
+    private boolean formsMill(int playerMask, int positionIndex) {
+        for (int millMask : millMasksAtPosition[positionIndex]) {
+            if ((playerMask & millMask) == millMask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method finds a player's tokens which are part of a mill.
+     * @param playerMask The positions of the player's tokens, as a mask
+     * @return The positions of the tokens in mills, as a mask
+     */
+    private int getTokensInMillsMask(int playerMask) {
+        int tokensInMills = 0;
+        for (int millMask : millMasks) {
+            if ((playerMask & millMask) == millMask) {
+                tokensInMills |= millMask;
+            }
+        }
+        return tokensInMills;
+    }
+
+    /**
+     * This method sorts the start of an array and moves its distinct values to the front.
+     * @param array The array
+     * @param length The number of values at the start of the array
+     * @return The number of distinct values
+     */
+    private static int countDistinct(int[] array, int length) {
+        Arrays.sort(array, 0, length);
+        int numDistinct = 0;
+        for (int i = 0; i < length; i++) {
+            if (numDistinct == 0 || array[i] != array[numDistinct - 1]) {
+                array[numDistinct++] = array[i];
+            }
+        }
+        return numDistinct;
+    }
+}
@@ -0,0 +1,223 @@
+package Endgame;
+
+import java.util.Arrays;
+
+import Positions.BoardSymmetries;
+
+/**
+ * This class is a perfect hash over the positions of one subspace of the endgame database, where the player to move has
+ * a fixed number of tokens and their opponent has a fixed number of tokens. Every position in the subspace has its own
+ * index between 0 and getSize() - 1, so the database can store one value per position in a flat array.
+ * <p>
+ * The index is reduced by the symmetries of the board layout, of which the default layout has 16. The player to move's
+ * tokens are first transformed to the smallest set of positions in their orbit, which is given a dense rank among all
+ * such sets. The opponent's tokens, transformed by the same symmetry, are then ranked among the remaining empty
+ * positions with the combinatorial number system. If more than one symmetry gives the smallest set, the one which gives
+ * the opponent's tokens the smallest rank is used, so every position maps to exactly one canonical index.
+ * @see BoardSymmetries
+ * @see EndgameDatabase
+ */
+public class EndgameIndex {
+
+    private static final int NUM_POSITIONS = 24;
+    private static final int[][] BINOMIALS = new int[NUM_POSITIONS + 1][NUM_POSITIONS + 1];
+
+    static {
+        for (int n = 0; n <= NUM_POSITIONS; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+            }
+        }
+    }
+
+    private BoardSymmetries symmetries;
+    private int numTokensToMove;
+    private int numOpponentTokens;
+    private int[] moverRankToDenseRank; // -1 for sets which are not the smallest in their orbit
+    private int[] denseRankToMoverMask;
+    private int numOpponentArrangements;
+    private long size;
+
+    /**
+     * Constructor for the EndgameIndex class.
+     * @param _numTokensToMove The number of tokens the player to move has
+     * @param _numOpponentTokens The number of tokens their opponent has
+     * @param _symmetries The symmetries of the board layout
+     */
+    public EndgameIndex(int _numTokensToMove, int _numOpponentTokens, BoardSymmetries _symmetries) {
+        symmetries = _symmetries;
+        numTokensToMove = _numTokensToMove;
+        numOpponentTokens = _numOpponentTokens;
+        numOpponentArrangements = BINOMIALS[NUM_POSITIONS - numTokensToMove][numOpponentTokens];
+
+        int numMoverSets = BINOMIALS[NUM_POSITIONS][numTokensToMove];
+        moverRankToDenseRank = new int[numMoverSets];
+        int[] denseMasks = new int[numMoverSets];
+        int numCanonicalSets = 0;
+        for (int rank = 0; rank < numMoverSets; rank++) {
+            int mask = unrank(rank, numTokensToMove);
+            int smallestRank = rank;
+            for (int s = 1; s < symmetries.getNumSymmetries(); s++) {
+                smallestRank = Math.min(smallestRank, rank(symmetries.transform(mask, s)));
+            }
+            if (smallestRank == rank) {
+                denseMasks[numCanonicalSets] = mask;
+                moverRankToDenseRank[rank] = numCanonicalSets++;
+            }
+            else {
+                moverRankToDenseRank[rank] = -1;
+            }
+        }
+        denseRankToMoverMask = Arrays.copyOf(denseMasks, numCanonicalSets);
+        size = (long) numCanonicalSets * numOpponentArrangements;
+    }
+
+    /**
+     * This method finds the canonical index of a position.
+     * @param moverMask The positions of the player to move's tokens, as a mask
+     * @param opponentMask The positions of their opponent's tokens, as a mask
+     * @return The index of the position
+     */
+    public int getIndex(int moverMask, int opponentMask) {
+        int smallestMoverRank = Integer.MAX_VALUE;
+        int smallestOpponentRank = Integer.MAX_VALUE;
+        for (int s = 0; s < symmetries.getNumSymmetries(); s++) {
+            int transformedMover = symmetries.transform(moverMask, s);
+            int moverRank = rank(transformedMover);
+            if (moverRank > smallestMoverRank) {
+                continue;
+            }
+            int opponentRank = rankAmongEmpty(symmetries.transform(opponentMask, s), transformedMover);
+            if (moverRank < smallestMoverRank || opponentRank < smallestOpponentRank) {
+                smallestMoverRank = moverRank;
+                smallestOpponentRank = opponentRank;
+            }
+        }
+        return moverRankToDenseRank[smallestMoverRank] * numOpponentArrangements + smallestOpponentRank;
+    }
+
+    /**
+     * This method checks whether an index is the canonical index of its position. Indices which are not canonical are
+     * never returned by getIndex, so the database does not need to solve them.
+     * @param index The index
+     * @return True if the index is canonical, false otherwise
+     */
+    public boolean isCanonical(int index) {
+        return getIndex(getMoverMask(index), getOpponentMask(index)) == index;
+    }
+
+    /**
+     * This method finds the positions of the player to move's tokens in the position with an index.
+     * @param index The index
+     * @return The positions of the player to move's tokens, as a mask
+     */
+    public int getMoverMask(int index) {
+        return denseRankToMoverMask[index / numOpponentArrangements];
+    }
+
+    /**
+     * This method finds the positions of the opponent's tokens in the position with an index.
+     * @param index The index
+     * @return The positions of the opponent's tokens, as a mask
+     */
+    public int getOpponentMask(int index) {
+        int compressedMask = unrank(index % numOpponentArrangements, numOpponentTokens);
+        int emptyPositions = ~getMoverMask(index) & ((1 << NUM_POSITIONS) - 1);
+
+        // spread the bits of the compressed mask over the positions not taken by the player to move
+        int opponentMask = 0;
+        while (compressedMask != 0) {
+            int bit = Integer.numberOfTrailingZeros(compressedMask);
+            int positionIndex = emptyPositions;
+            for (int i = 0; i < bit; i++) {
+                positionIndex &= positionIndex - 1;
+            }
+            opponentMask |= Integer.lowestOneBit(positionIndex);
+            compressedMask &= compressedMask - 1;
+        }
+        return opponentMask;
+    }
+
+    /**
+     * This method ranks a set of positions among all sets of the same size in the combinatorial number system.
+     * @param mask The positions, as a mask
+     * @return The rank of the set
+     */
+    private static int rank(int mask) {
+        int rank = 0;
+        for (int i = 1; mask != 0; i++) {
+            rank += BINOMIALS[Integer.numberOfTrailingZeros(mask)][i];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    /**
+     * This method ranks a set of positions among all sets of the same size which avoid the positions taken by the
+     * player to move, by ranking the set as if those positions were removed from the board.
+     * @param mask The positions, as a mask
+     * @param moverMask The positions taken by the player to move, as a mask
+     * @return The rank of the set
+     */
+    private static int rankAmongEmpty(int mask, int moverMask) {
+        int rank = 0;
+        for (int i = 1; mask != 0; i++) {
+            int bit = Integer.numberOfTrailingZeros(mask);
+            rank += BINOMIALS[bit - Integer.bitCount(moverMask & ((1 << bit) - 1))][i];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    /**
+     * This method finds the set of positions with a rank in the combinatorial number system.
+     * @param rank The rank of the set
+     * @param numPositions The number of positions in the set
+     * @return The positions, as a mask
+     */
+    private static int unrank(int rank, int numPositions) {
+        int mask = 0;
+        int bit = NUM_POSITIONS;
+        for (int i = numPositions; i > 0; i--) {
+            do {
+                bit--;
+            } while (BINOMIALS[bit][i] > rank);
+            rank -= BINOMIALS[bit][i];
+            mask |= 1 << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Getter for the number of indices in the subspace, including the indices which are not canonical.
+     * @return The number of indices
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Getter for the symmetries the index is reduced by.
+     * @return The symmetries of the board layout
+     */
+    public BoardSymmetries getSymmetries() {
+        return symmetries;
+    }
+
+    /**
+     * Getter for the number of tokens the player to move has.
+     * @return The number of tokens
+     */
+    public int getNumTokensToMove() {
+        return numTokensToMove;
+    }
+
+    /**
+     * Getter for the number of tokens the opponent has.
+     * @return The number of tokens
+     */
+    public int getNumOpponentTokens() {
+        return numOpponentTokens;
+    }
+}
@@ -0,0 +1,260 @@
+package Endgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import Positions.BoardSymmetries;
+
+/**
+ * This class is the table of values for one subspace of the endgame database, together with its on-disk format.
+ * Tables read from disk are memory-mapped rather than copied onto the heap, so opening a table is instant whatever its
+ * size, and each probe reads one byte from the page cache. The index of the subspace is only built the first time the
+ * table is probed.
+ * <p>
+ * A table file is a header followed by the values, one per index of the subspace. All numbers are big-endian.
+ * <pre>
+ * offset  size  field
+ *      0     4  magic number "NMME"
+ *      4     4  format version
+ *      8     4  header length, where the values start
+ *     12     1  format: 0 for a distance to win byte per position, 1 for 2 bits of win, draw or loss per position
+ *     13     1  number of tokens the player to move has
+ *     14     1  number of tokens their opponent has
+ *     15     1  number of mills in the board layout
+ *     16     8  number of positions (indices) in the table
+ *     24        for each mill: 1 byte number of positions, then 1 byte per position
+ *               padding to a multiple of 8 bytes
+ * </pre>
+ * The mill list identifies the board layout the table was solved for, and a table is refused if it does not match the
+ * layout being played on. In the 2 bit format four positions are packed into each byte, lowest bits first, as 0 for a
+ * draw, 1 for a win and 2 for a loss, which is a quarter of the size but cannot say how quickly a win can be forced.
+ * @see EndgameDatabase
+ * @see EndgameIndex
+ */
+public class EndgameTable {
+
+    /**
+     * The ways a table can store the value of each position.
+     */
+    public enum Format {
+        DISTANCE_TO_WIN,
+        WIN_DRAW_LOSS
+    }
+
+    private static final int FILE_MAGIC = 0x4e4d4d45; // "NMME"
+    private static final int FILE_VERSION = 2;
+    private static final int FIXED_HEADER_LENGTH = 24;
+    private static final int WIN_CODE = 1;
+    private static final int LOSS_CODE = 2;
+
+    private BoardSymmetries symmetries;
+    private int numTokensToMove;
+    private int numOpponentTokens;
+    private Format format;
+    private ByteBuffer data;
+    private volatile EndgameIndex index;
+
+    /**
+     * Constructor for the EndgameTable class.
+     * @param _symmetries The symmetries of the board layout the table was solved for
+     * @param _numTokensToMove The number of tokens the player to move has
+     * @param _numOpponentTokens The number of tokens their opponent has
+     * @param _format The format of the values
+     * @param _data The values, which are only read with absolute gets so the buffer can be shared between threads
+     * @param _index The index of the subspace, or null to build it when the table is first probed
+     */
+    EndgameTable(BoardSymmetries _symmetries, int _numTokensToMove, int _numOpponentTokens, Format _format, ByteBuffer _data, EndgameIndex _index) {
+        symmetries = _symmetries;
+        numTokensToMove = _numTokensToMove;
+        numOpponentTokens = _numOpponentTokens;
+        format = _format;
+        data = _data;
+        index = _index;
+    }
+
+    /**
+     * This method looks up the value of a position in the table.
+     * @param moverMask The positions of the player to move's tokens, as a mask
+     * @param opponentMask The positions of their opponent's tokens, as a mask
+     * @return The value of the position, as described in EndgameDatabase
+     */
+    public int probe(int moverMask, int opponentMask) {
+        int positionIndex = getIndex().getIndex(moverMask, opponentMask);
+        if (format == Format.DISTANCE_TO_WIN) {
+            return data.get(positionIndex) & 0xFF;
+        }
+        int code = (data.get(positionIndex >>> 2) >>> (2 * (positionIndex & 3))) & 3;
+        if (code == WIN_CODE) {
+            return EndgameDatabase.WIN_WITHOUT_DISTANCE;
+        }
+        if (code == LOSS_CODE) {
+            return EndgameDatabase.LOSS_WITHOUT_DISTANCE;
+        }
+        return EndgameDatabase.DRAW;
+    }
+
+    /**
+     * Getter for the index of the subspace, which is built the first time it is needed.
+     * @return The index
+     */
+    EndgameIndex getIndex() {
+        EndgameIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                if (index == null) {
+                    index = new EndgameIndex(numTokensToMove, numOpponentTokens, symmetries);
+                }
+                result = index;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method writes the table to a file. A table in the distance to win format can be written in either format.
+     * @param file The file to write to
+     * @param fileFormat The format to write the values in
+     * @throws IOException If the file cannot be written
+     */
+    public void write(File file, Format fileFormat) throws IOException {
+        if (format != fileFormat && format != Format.DISTANCE_TO_WIN) {
+            throw new IllegalArgumentException("A " + format + " table cannot be written as " + fileFormat);
+        }
+        long numPositions = getIndex().getSize();
+        int[][] millList = symmetries.getLayoutMillList();
+        int headerLength = FIXED_HEADER_LENGTH;
+        for (int[] mill : millList) {
+            headerLength += 1 + mill.length;
+        }
+        headerLength = (headerLength + 7) & ~7;
+
+        ByteBuffer header = ByteBuffer.allocate(headerLength);
+        header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(headerLength);
+        header.put((byte) fileFormat.ordinal()).put((byte) numTokensToMove).put((byte) numOpponentTokens).put((byte) millList.length);
+        header.putLong(numPositions);
+        for (int[] mill : millList) {
+            header.put((byte) mill.length);
+            for (int positionIndex : mill) {
+                header.put((byte) positionIndex);
+            }
+        }
+        header.rewind();
+
+        ByteBuffer values = data.duplicate();
+        values.clear();
+        if (fileFormat != format) {
+            // pack four positions into each byte
+            byte[] packed = new byte[(int) ((numPositions + 3) / 4)];
+            for (int i = 0; i < numPositions; i++) {
+                int value = data.get(i) & 0xFF;
+                int code = EndgameDatabase.isWin(value) ? WIN_CODE : EndgameDatabase.isLoss(value) ? LOSS_CODE : 0;
+                packed[i >>> 2] |= code << (2 * (i & 3));
+            }
+            values = ByteBuffer.wrap(packed);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (values.hasRemaining()) {
+                channel.write(values);
+            }
+        }
+    }
+
+    /**
+     * This method memory-maps a table file. The file can be closed and the table is still readable.
+     * @param file The file to map
+     * @param symmetries The symmetries of the board layout being played on, which the table must have been solved for
+     * @return The table
+     * @throws IOException If the file cannot be read, is not a table file, or is for a different board layout
+     */
+    public static EndgameTable map(File file, BoardSymmetries symmetries) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer start = readFully(channel, 0, 12);
+            if (start.getInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not an endgame table file");
+            }
+            if (start.getInt() != FILE_VERSION) {
+                throw new IOException(file + " has an unsupported endgame table version");
+            }
+            int headerLength = start.getInt();
+            ByteBuffer header = readFully(channel, 0, headerLength);
+            header.position(12);
+            int formatOrdinal = header.get();
+            if (formatOrdinal < 0 || formatOrdinal >= Format.values().length) {
+                throw new IOException(file + " has an unknown endgame table format");
+            }
+            Format format = Format.values()[formatOrdinal];
+            int numTokensToMove = header.get();
+            int numOpponentTokens = header.get();
+            int[][] fileMillList = new int[header.get()][];
+            long numPositions = header.getLong();
+            for (int i = 0; i < fileMillList.length; i++) {
+                fileMillList[i] = new int[header.get()];
+                for (int j = 0; j < fileMillList[i].length; j++) {
+                    fileMillList[i][j] = header.get();
+                }
+            }
+            if (!Arrays.deepEquals(fileMillList, symmetries.getLayoutMillList())) {
+                throw new IOException(file + " was solved for a different board layout");
+            }
+
+            long dataLength = format == Format.DISTANCE_TO_WIN ? numPositions : (numPositions + 3) / 4;
+            if (channel.size() != headerLength + dataLength) {
+                throw new IOException(file + " is truncated");
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, headerLength, dataLength);
+            return new EndgameTable(symmetries, numTokensToMove, numOpponentTokens, format, data, null);
+        }
+    }
+
+    /**
+     * This method reads part of a file into a new buffer.
+     * @param channel The file
+     * @param position The offset in the file to read from
+     * @param length The number of bytes to read
+     * @return The buffer, ready to be read from
+     * @throws IOException If the file ends before length bytes have been read
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of endgame table file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Getter for the number of tokens the player to move has.
+     * @return The number of tokens
+     */
+    public int getNumTokensToMove() {
+        return numTokensToMove;
+    }
+
+    /**
+     * Getter for the number of tokens the opponent has.
+     * @return The number of tokens
+     */
+    public int getNumOpponentTokens() {
+        return numOpponentTokens;
+    }
+
+    /**
+     * Getter for the format of the values.
+     * @return The format
+     */
+    public Format getFormat() {
+        return format;
+    }
+}
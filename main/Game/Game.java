@@ -1,7 +1,10 @@
 package Game;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import Actions.*;
@@ -12,73 +15,155 @@ import Actions.Placements.PlaceActionController;
 import Display.DisplayController;
 import Players.*;
 import Positions.Board;
+import Records.GameLogWriter;
+import Records.GameRecord;
 
 /**
- * This class is the main class for the game. It is a singleton class, and is
- * responsible for initialising the game and
- * managing the game state. It also contains the main game loop, which is
- * responsible for running the game.
+ * This class is the main class for the game. Each instance is a session for one
+ * game, which owns its board, game state, action controllers and players, so
+ * any number of games can run in one JVM. It is responsible for initialising
+ * the game and managing the game state. It also contains the main game loop,
+ * which is responsible for running the game.
+ * <p>
+ * A game is confined to one thread: all of its methods must be called from the
+ * thread that runs it, which for a game with a display is the Event Dispatch
+ * Thread. A game without a display can be driven headlessly through
+ * handlePositionClick.
+ * <p>
+ * Every turn is recorded as a PackedMove, worked out from the tokens which left
+ * and arrived during the turn, and a finished game with a display is appended
+ * to the game log. A game with a display is also saved after every turn, so
+ * that it can be resumed if its window is closed before the game ends.
+ * 
+ * @see GameSnapshot
  * 
  * @see DisplayController
+ * @see GameState
  * @see Board
  * @see Player
  * @see ActionController
  */
 public class Game {
 
-    private static Game instance = null;
-    private DisplayController displayController = null;
+    private DisplayController displayController = null; // null for a game without a display
     private HashMap<PhaseIndicator, ActionController> moveControllerMap = new HashMap<PhaseIndicator, ActionController>(); // used to fetch the appropriate move controller given the current player's phase
     private ActionController currentActionController = null; // the action controller relevant to the current player's game phase
     private Board board = null;
+    private GameState gameState = null;
     private String[] tokenImgPathList = new String[] { "main/Display/img/copper panelled circle.png", "main/Display/img/cyan circle.png" };
     private int NUM_PLAYERS = 2;
     private int currentPlayer = -1; // the player who's turn it is
     private PlayerController playerController = null;
-    private static GameType gameType;
+    private GeneratesActionController generatesActionController = null;
+    private RemoveActionController removeActionController = null;
+    private AiExecutor aiExecutor = null;
+    private GameType gameType;
     private boolean disableInteractions;
+    private File gameLogFile = GameLogWriter.DEFAULT_FILE;
+    private long startTimeMs = System.currentTimeMillis();
+    private ArrayList<Integer> moves = new ArrayList<Integer>(); // the turns played so far, as PackedMoves
+    private int[] turnStartMasks = new int[2]; // each player's tokens at the start of the current turn
+    private File saveFile = GameSnapshot.DEFAULT_FILE;
+    private boolean resumed = false; // true if the game was resumed from a snapshot, which does not have its earlier turns
 
     /**
      * Constructor for the Game class. Initialises the game state.
+     * 
+     * @param _gameType          The type of game, which decides the players
+     * @param _displayController The display to show the game on, or null to run
+     *                           the game without a display
+     */
+    public Game(GameType _gameType, DisplayController _displayController) {
+        this(_gameType, _displayController, null);
+    }
+
+    /**
+     * Constructor for the Game class which resumes a saved game.
+     * 
+     * @param snapshot           The saved game
+     * @param _displayController The display to show the game on, or null to run
+     *                           the game without a display
+     */
+    public Game(GameSnapshot snapshot, DisplayController _displayController) {
+        this(snapshot.getGameType(), _displayController, snapshot);
+    }
+
+    /**
+     * Constructor for the Game class. Initialises the game state, either for a
+     * new game or from a saved game.
+     * 
+     * @param _gameType          The type of game, which decides the players
+     * @param _displayController The display to show the game on, or null
+     * @param snapshot           The saved game to resume, or null for a new game
      */
-    private Game() {
-        /* Initialise display */
-        displayController = DisplayController.getInstance();
-
-        /* The default layout is a list of all the mills on the board for a regular game of nine men's morris. Each mill is an ordered list of the positions in the mill. */
-        int[][] defaultLayout = new int[][] { {0,1,2}, {0,9,21}, {1,4,7}, {2,14,23}, {3,4,5}, {3,10,18}, {5,13,20}, {6,7,8}, {6,11,15}, {8,12,17}, {9,10,11}, {12,13,14}, {15,16,17}, {16,19,22}, {18,19,20}, {21,22,23} };
-        /* Initialise board with the default layout */
-        board = new Board(defaultLayout);
+    private Game(GameType _gameType, DisplayController _displayController, GameSnapshot snapshot) {
+        gameType = _gameType;
+        displayController = _displayController;
+        aiExecutor = new AiExecutor();
+
+        /* Initialise board with the default layout, or the saved position */
+        if (snapshot == null) {
+            board = new Board(Board.DEFAULT_LAYOUT);
+            gameState = new GameState(board, NUM_PLAYERS);
+        }
+        else {
+            gameState = snapshot.createGameState();
+            board = gameState.getBoard();
+            resumed = true;
+        }
+        gameState.setListener(displayController);
         disableInteractions = false;
         /* Initialise players */
         initialisePlayers();
+        if (snapshot != null) {
+            currentPlayer = snapshot.getCurrentPlayer();
+        }
+        startTurnRecord();
 
         /* Initialise moveControllerMap */
-        moveControllerMap.put(PhaseIndicator.PHASE_ONE, PlaceActionController.getInstance(board));
-        moveControllerMap.put(PhaseIndicator.PHASE_TWO, PhaseTwoMoveController.getInstance(board));
-        moveControllerMap.put(PhaseIndicator.PHASE_THREE, PhaseThreeMoveController.getInstance(board));
-        currentActionController = moveControllerMap.get(playerController.getGamePhase(currentPlayer)); // sets the move controller to be relevant for player 1
-        displayController.changeHelperText(currentActionController.getHelperTextBase());
-        /* Update the display to display the current player's valid moves */
-        ArrayList<Integer> validPositions = currentActionController.getValidPositions(currentPlayer);
-        displayController.updateHighlightedPositions(validPositions);
-
+        moveControllerMap.put(PhaseIndicator.PHASE_ONE, new PlaceActionController(gameState));
+        moveControllerMap.put(PhaseIndicator.PHASE_TWO, new PhaseTwoMoveController(gameState));
+        moveControllerMap.put(PhaseIndicator.PHASE_THREE, new PhaseThreeMoveController(gameState));
+        removeActionController = new RemoveActionController(gameState);
+        currentActionController = moveControllerMap.get(gameState.getGamePhase(currentPlayer)); // sets the move controller to be relevant for player 1
+        if (board.getMillFormed()) {
+            currentActionController = removeActionController; // the game was saved before a removal
+        }
+        if (displayController != null) {
+            displayController.setGame(this);
+            if (snapshot != null) {
+                ImageIcon[] tokenIcons = { playerController.getTokenIcon(0), playerController.getTokenIcon(1) };
+                displayController.showPosition(gameState, currentPlayer, -1, tokenIcons);
+            }
+            displayController.changeHelperText(currentActionController.getHelperTextBase());
+            /* Update the display to display the current player's valid moves */
+            displayController.updateHighlightedPositions(currentActionController.getValidPositionsMask(currentPlayer));
+        }
+        if (snapshot != null && generatesActionController.checkPlayerGeratesAction(playerController.getPlayerById(currentPlayer))) {
+            setInteractionDisabled(true);
+            checkMoveGenerator(); // it is the AI's turn in the saved game
+        }
     }
 
     /**
-     * Returns the singleton instance of the Game class.
+     * Opens a new window and starts a game in it. If a game was saved before
+     * its window was closed, the user can resume it, otherwise they are asked
+     * for the game mode.
      * 
-     * @return The singleton instance of the Game class
+     * @return The new game
      */
-    public static synchronized Game getInstance() {
-        if (instance == null) {
-                instance = new Game();
+    public static Game startWindowedGame() {
+        DisplayController displayController = new DisplayController();
+        if (GameSnapshot.DEFAULT_FILE.isFile() && displayController.presentResumeSavedGame()) {
+            try {
+                return new Game(GameSnapshot.load(GameSnapshot.DEFAULT_FILE), displayController);
+            }
+            catch (IOException e) {
+                System.out.println("Could not load the saved game: " + e.getMessage());
+            }
         }
-        return instance;
-    }
-
-    public static void setGameType(GameType gameType) {
-        Game.gameType = gameType;
+        GameType gameType = displayController.presentGameModes();
+        return new Game(gameType, displayController);
     }
 
     /**
@@ -87,17 +172,17 @@ public class Game {
      * @return True if the game has ended, false otherwise
      */
     public void checkEndCondition() {
-        // if (playerController.findWinner() == -1) { // if there is no winner currently
+        // if (gameState.findWinner() == -1) { // if there is no winner currently
         for (int i = 0; i < NUM_PLAYERS; i++) {
-            if (playerController.getTokensRemaining(i) < 3 && playerController.getGamePhase(i) != PhaseIndicator.PHASE_ONE) { // if a player has < 3 tokens remaining and is not in the first phase
-                playerController.setPlayerLost(i, true); // set the player to have lost
+            if (gameState.getTokensRemaining(i) < 3 && gameState.getGamePhase(i) != PhaseIndicator.PHASE_ONE) { // if a player has < 3 tokens remaining and is not in the first phase
+                gameState.setPlayerLost(i, true); // set the player to have lost
             }
         }
         if (!currentActionController.legalActionsRemain(currentPlayer)) { // if the current player has legal actions remaining
-            playerController.setPlayerLost(currentPlayer, true); // set the player to have lost
+            gameState.setPlayerLost(currentPlayer, true); // set the player to have lost
         }
-        if (playerController.findWinner() != -1) { // if there is a winner now that all the conditions have been checked
-            endGame(playerController.findWinner());
+        if (gameState.findWinner() != -1) { // if there is a winner now that all the conditions have been checked
+            endGame(gameState.findWinner());
         }
     }
 
@@ -105,8 +190,9 @@ public class Game {
      * Initises the player instances and adds them to the player controller based in the game type.
      */
     private void initialisePlayers() {
-        playerController = PlayerController.getInstance(); 
-        switch(Game.gameType) {
+        generatesActionController = new GeneratesActionController(this);
+        playerController = new PlayerController(generatesActionController);
+        switch(gameType) {
             
             case LOCAL_TWO_PLAYER:     
                 playerController.addHumanPlayer(tokenImgPathList[0]);
@@ -116,6 +202,14 @@ public class Game {
                 playerController.addHumanPlayer(tokenImgPathList[0]);
                 playerController.addAiPlayer(tokenImgPathList[1]);
                 break;
+            case ALPHA_BETA_PLAYER:
+                playerController.addHumanPlayer(tokenImgPathList[0]);
+                playerController.addAlphaBetaPlayer(tokenImgPathList[1], AlphaBetaPlayer.DEFAULT_SEARCH_TIME_MS, AlphaBetaPlayer.DEFAULT_NUM_THREADS);
+                break;
+            case MCTS_PLAYER:
+                playerController.addHumanPlayer(tokenImgPathList[0]);
+                playerController.addMctsPlayer(tokenImgPathList[1], MctsPlayer.DEFAULT_SEARCH_TIME_MS, MctsPlayer.DEFAULT_NUM_THREADS);
+                break;
             default:
                 System.out.println("Invalid game type");
             }
@@ -130,7 +224,7 @@ public class Game {
      */
     public int getNextPlayer() {
         int currentPlayerId = (currentPlayer + 1) % NUM_PLAYERS;
-        while (PlayerController.getInstance().hasPlayerLost(currentPlayer)) {
+        while (gameState.hasPlayerLost(currentPlayer)) {
             currentPlayerId = (currentPlayerId + 1) % NUM_PLAYERS;
         }
         return currentPlayerId;
@@ -140,7 +234,7 @@ public class Game {
      * Checks if a player implements the GeneratesMove interface and if so, calls the generateMove method.
      */
     public void checkMoveGenerator() {
-        GeneratesActionController.getInstance().generateAction(playerController.getPlayerById(currentPlayer), currentActionController);
+        generatesActionController.generateAction(playerController.getPlayerById(currentPlayer), currentActionController);
     }
 
     /**
@@ -150,14 +244,16 @@ public class Game {
     public void endTurn() {
         /* ran at the conclusion of each turn, sets up the next turn */
         if (!board.getMillFormed()) {
+            recordTurn();
             currentPlayer = getNextPlayer(); // sets the next player
-            if (GeneratesActionController.getInstance().checkPlayerGeratesAction(playerController.getPlayerById(currentPlayer))) {
+            startTurnRecord();
+            if (generatesActionController.checkPlayerGeratesAction(playerController.getPlayerById(currentPlayer))) {
                 setInteractionDisabled(true);
             }
             else {
                 setInteractionDisabled(false);
             }
-            currentActionController = moveControllerMap.get(playerController.getGamePhase(currentPlayer)); // sets the
+            currentActionController = moveControllerMap.get(gameState.getGamePhase(currentPlayer)); // sets the
                                                                                                            // game
                                                                                                            // controller
                                                                                                            // to be
@@ -167,14 +263,21 @@ public class Game {
                                                                                                            // player's
                                                                                                            // phase
             int playerNum = currentPlayer + 1; // playerId (zero indexed) -> playerNum (not zero indexed)
-            displayController.changeTurnText(playerController.getTokenIcon(currentPlayer),
-                    "Player " + playerNum + "'s Turn");
+            if (displayController != null) {
+                displayController.changeTurnText(playerController.getTokenIcon(currentPlayer),
+                        "Player " + playerNum + "'s Turn");
+            }
+            saveGame();
             checkEndCondition();
+            if (gameState.findWinner() != -1) {
+                return; // the game is over, and a windowed game has already been replaced by a new one
+            }
         } else {
             // let the current player remove one of the opponents tokens
-            currentActionController = RemoveActionController.getInstance(board);
+            currentActionController = removeActionController;
+            saveGame();
         }
-        if(!GeneratesActionController.getInstance().checkPlayerGeratesAction(PlayerController.getInstance().getPlayerById(currentPlayer))) {
+        if(displayController != null && !generatesActionController.checkPlayerGeratesAction(playerController.getPlayerById(currentPlayer))) {
             // do not update the helper text for the AI's turn, only for human players
             displayController.changeHelperText(currentActionController.getHelperTextBase());
         }
@@ -182,6 +285,75 @@ public class Game {
         checkMoveGenerator(); // checks whether the next turn's player generates moves, if they do generate a move
     }
 
+    /**
+     * Remembers where each player's tokens are at the start of the current
+     * player's turn.
+     */
+    private void startTurnRecord() {
+        turnStartMasks[0] = board.getPositionsMask(0);
+        turnStartMasks[1] = board.getPositionsMask(1);
+    }
+
+    /**
+     * Records the current player's finished turn, including any removal, by
+     * comparing the board with the start of the turn.
+     */
+    private void recordTurn() {
+        int moverMask = board.getPositionsMask(currentPlayer);
+        int opponentMask = board.getPositionsMask(1 - currentPlayer);
+        int from = turnStartMasks[currentPlayer] & ~moverMask;
+        int to = moverMask & ~turnStartMasks[currentPlayer];
+        int remove = turnStartMasks[1 - currentPlayer] & ~opponentMask;
+        moves.add(PackedMove.encode(from == 0 ? PackedMove.NONE : Integer.numberOfTrailingZeros(from),
+                to == 0 ? PackedMove.NONE : Integer.numberOfTrailingZeros(to),
+                remove == 0 ? PackedMove.NONE : Integer.numberOfTrailingZeros(remove)));
+    }
+
+    /**
+     * Saves a game with a display, so that it can be resumed if its window is
+     * closed. A game which cannot be saved is reported but does not stop play.
+     */
+    private void saveGame() {
+        if (displayController == null) {
+            return;
+        }
+        try {
+            GameSnapshot.capture(gameType, gameState, currentPlayer).save(saveFile);
+        }
+        catch (IOException e) {
+            System.out.println("Could not save the game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the saved game of a game with a display, once it is finished with.
+     */
+    private void deleteSavedGame() {
+        if (displayController != null) {
+            saveFile.delete();
+        }
+    }
+
+    /**
+     * Appends the finished game to the game log on a background thread, which
+     * keeps the log open between games. A game which cannot be logged is
+     * reported but does not stop play. A resumed game is not logged, since the
+     * turns before it was saved are not known.
+     * 
+     * @param winner The player who won
+     */
+    private void logGame(int winner) {
+        if (resumed) {
+            return;
+        }
+        String[] players = new String[NUM_PLAYERS];
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            players[i] = playerController.getPlayerById(i).getClass().getSimpleName();
+        }
+        GameRecord record = new GameRecord(players, GameRecord.getLayoutId(board.getLayoutMillList()), startTimeMs, winner, getMoves());
+        GameLogWriter.appendInBackground(gameLogFile, record); // not on the Event Dispatch Thread
+    }
+
     /**
      * Returns true if the current player has any moves remaining, false otherwise.
      * 
@@ -200,14 +372,16 @@ public class Game {
         boolean turnOver = currentActionController.handlePositionInteraction(positionId, currentPlayer);
         if (turnOver) { // if the turn is over
             endTurn();
+            if (gameState.findWinner() != -1) {
+                return true; // the game is over, so there is nothing left to highlight
+            }
         }
         // if not, wait for this method to be called again
         /* Update the display to display the current player's valid moves */
-        ArrayList<Integer> validPositions = currentActionController.getValidPositions(currentPlayer);
-        if (Game.getInstance().isInteractionDisabled()) {
-            validPositions = new ArrayList<Integer>();
+        if (displayController != null) {
+            int validPositions = isInteractionDisabled() ? 0 : currentActionController.getValidPositionsMask(currentPlayer);
+            displayController.updateHighlightedPositions(validPositions);
         }
-        displayController.updateHighlightedPositions(validPositions);
 
         return turnOver;
     }
@@ -216,10 +390,15 @@ public class Game {
      * Ends the game.
      */
     public void endGame(int winner) {
+        if (displayController == null) {
+            return; // the winner is recorded in the game state
+        }
+        deleteSavedGame();
+        logGame(winner);
         String[] responses = { "Play Again" };
         String losingQuote = LosingQuotes.getRandomQuote();
         String endGameText = "Player " + (winner + 1) + " has won this match!"; 
-        if (GeneratesActionController.getInstance().checkPlayerGeratesAction(PlayerController.getInstance().getPlayerById(winner))) {
+        if (generatesActionController.checkPlayerGeratesAction(playerController.getPlayerById(winner))) {
             // if the winner was an AI player
             endGameText += "\n\n" + losingQuote;
         }
@@ -242,18 +421,71 @@ public class Game {
     }
 
     /**
-     * Resets the game.
+     * Resets the game. This game is finished with, and a game with a display is
+     * replaced by a new game in a new window.
      */
     public void resetGame() {
-        displayController.resetDisplay();
+        aiExecutor.cancelAll(); // stop any AI which is still thinking about this game
+        deleteSavedGame();
         playerController.reset();
         for (HashMap.Entry<PhaseIndicator, ActionController> pair : moveControllerMap.entrySet()) {
             pair.getValue().reset(); // loops through the action controllers in the HashMap and resets them
         };
-        RemoveActionController.getInstance(board).reset();
+        removeActionController.reset();
         currentPlayer = 0;
-        instance = null;
-        Game.getInstance();
+        if (displayController != null) {
+            displayController.resetDisplay();
+            startWindowedGame();
+        }
+    }
+
+    /**
+     * Returns the turns played so far.
+     * 
+     * @return The turns as PackedMoves, in order, with player 0 moving first
+     */
+    public int[] getMoves() {
+        int[] result = new int[moves.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = moves.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the game state of the current game.
+     * 
+     * @return The game state of the current game
+     */
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Returns the player controller of the current game.
+     * 
+     * @return The player controller of the current game
+     */
+    public PlayerController getPlayerController() {
+        return playerController;
+    }
+
+    /**
+     * Returns the executor which runs the thinking of this game's AI players.
+     * 
+     * @return The AI executor of the current game
+     */
+    public AiExecutor getAiExecutor() {
+        return aiExecutor;
+    }
+
+    /**
+     * Returns the player who's turn it is.
+     * 
+     * @return The index of the current player
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
     }
 
     /**
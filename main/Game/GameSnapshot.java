@@ -0,0 +1,176 @@
+package Game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import Players.PhaseIndicator;
+import Positions.Board;
+
+/**
+ * This class is a snapshot of a game in progress, for saving a game and resuming it later. It holds everything needed
+ * to carry on from the start of a turn: the game type, which decides the players, the player who's turn it is, where
+ * every token is, each player's counters, phase and loss status, and whether the player must remove a token because
+ * they have just formed a mill. The turns which led to the position are not kept.
+ * <p>
+ * A snapshot is always SIZE bytes, so taking one after every turn costs next to nothing.
+ * <pre>
+ * offset  size  field
+ *      0     4  magic number "NMMS"
+ *      4     1  format version
+ *      5     1  game type, as the ordinal of GameType
+ *      6     1  the player who's turn it is
+ *      7     1  flags: bit 0 if a mill was formed and a token must be removed, bits 1 and 2 if player 0 or 1 has lost
+ *      8     3  player 0's tokens as a mask of positions, big-endian
+ *     11     3  player 1's tokens
+ *     14     3  player 0's tokens to place, tokens on the board and phase, as the ordinal of PhaseIndicator
+ *     17     3  player 1's tokens to place, tokens on the board and phase
+ * </pre>
+ * @see Game
+ * @see GameState
+ */
+public class GameSnapshot {
+
+    public static final int SIZE = 20;
+    public static final File DEFAULT_FILE = new File("savegame.bin");
+    private static final int FILE_MAGIC = 0x4e4d4d53; // "NMMS"
+    private static final int FILE_VERSION = 1;
+    private static final int NUM_PLAYERS = 2;
+    private static final int MILL_FORMED_FLAG = 1;
+
+    private byte[] data;
+
+    /**
+     * Constructor for the GameSnapshot class.
+     * @param _data The encoded snapshot, SIZE bytes long
+     */
+    private GameSnapshot(byte[] _data) {
+        data = _data;
+    }
+
+    /**
+     * This method takes a snapshot of a game at the start of a turn, or before a removal.
+     * @param gameType The type of game, which decides the players
+     * @param gameState The game state
+     * @param currentPlayer The player who's turn it is
+     * @return The snapshot
+     */
+    public static GameSnapshot capture(GameType gameType, GameState gameState, int currentPlayer) {
+        Board board = gameState.getBoard();
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putInt(FILE_MAGIC).put((byte) FILE_VERSION).put((byte) gameType.ordinal()).put((byte) currentPlayer);
+        int flags = board.getMillFormed() ? MILL_FORMED_FLAG : 0;
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            if (gameState.hasPlayerLost(i)) {
+                flags |= 2 << i;
+            }
+        }
+        buffer.put((byte) flags);
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            int mask = board.getPositionsMask(i);
+            buffer.put((byte) (mask >>> 16)).put((byte) (mask >>> 8)).put((byte) mask);
+        }
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            buffer.put((byte) gameState.getNumTokensToPlace(i)).put((byte) gameState.getTokensRemaining(i))
+                    .put((byte) gameState.getGamePhase(i).ordinal());
+        }
+        return new GameSnapshot(buffer.array());
+    }
+
+    /**
+     * This method rebuilds the game state from the snapshot.
+     * @return A new game state on the default board layout, without a listener
+     */
+    public GameState createGameState() {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        Board board = new Board(Board.DEFAULT_LAYOUT);
+        GameState gameState = new GameState(board, NUM_PLAYERS);
+        int flags = buffer.get(7);
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            int mask = getMask(i);
+            for (int positions = mask; positions != 0; positions &= positions - 1) {
+                board.changePositionState(Integer.numberOfTrailingZeros(positions), i);
+            }
+            int offset = 14 + 3 * i;
+            gameState.restorePlayer(i, buffer.get(offset), buffer.get(offset + 1), PhaseIndicator.values()[buffer.get(offset + 2)],
+                    (flags & (2 << i)) != 0);
+        }
+        board.setMillFormed((flags & MILL_FORMED_FLAG) != 0);
+        return gameState;
+    }
+
+    /**
+     * Getter for the type of game, which decides the players.
+     * @return The game type
+     */
+    public GameType getGameType() {
+        return GameType.values()[data[5]];
+    }
+
+    /**
+     * Getter for the player who's turn it is.
+     * @return The index of the player
+     */
+    public int getCurrentPlayer() {
+        return data[6];
+    }
+
+    /**
+     * This method returns a player's tokens.
+     * @param playerIndex The player
+     * @return The positions of the player's tokens, as a mask
+     */
+    private int getMask(int playerIndex) {
+        int offset = 8 + 3 * playerIndex;
+        return ((data[offset] & 0xFF) << 16) | ((data[offset + 1] & 0xFF) << 8) | (data[offset + 2] & 0xFF);
+    }
+
+    /**
+     * This method saves the snapshot to a file. The snapshot is written to a temporary file which then replaces the
+     * file, so a crash while saving leaves the previous snapshot intact.
+     * @param file The file to write to
+     * @throws IOException If the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        Files.write(temporaryFile.toPath(), data);
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * This method loads a snapshot from a file, checking that it describes a position which can be played on.
+     * @param file The file to read
+     * @return The snapshot
+     * @throws IOException If the file cannot be read or is not a valid snapshot
+     */
+    public static GameSnapshot load(File file) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length != SIZE || buffer.getInt() != FILE_MAGIC) {
+            throw new IOException(file + " is not a saved game");
+        }
+        if (buffer.get() != FILE_VERSION) {
+            throw new IOException(file + " has an unsupported saved game version");
+        }
+        GameSnapshot snapshot = new GameSnapshot(data);
+        int gameType = data[5];
+        int currentPlayer = data[6];
+        boolean valid = gameType >= 0 && gameType < GameType.values().length && currentPlayer >= 0 && currentPlayer < NUM_PLAYERS
+                && (data[7] & ~7) == 0 && (snapshot.getMask(0) & snapshot.getMask(1)) == 0;
+        for (int i = 0; i < NUM_PLAYERS && valid; i++) {
+            int offset = 14 + 3 * i;
+            int numTokensToPlace = data[offset];
+            int tokensRemaining = data[offset + 1];
+            int phase = data[offset + 2];
+            valid = Integer.bitCount(snapshot.getMask(i)) == tokensRemaining
+                    && numTokensToPlace >= 0 && numTokensToPlace + tokensRemaining <= GameState.NUM_TOKENS
+                    && phase >= 0 && phase < PhaseIndicator.values().length;
+        }
+        if (!valid) {
+            throw new IOException(file + " is not a valid saved game");
+        }
+        return snapshot;
+    }
+}
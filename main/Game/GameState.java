@@ -0,0 +1,408 @@
+package Game;
+
+import java.util.Arrays;
+
+import Actions.Action;
+import Actions.PackedMove;
+import Players.PhaseIndicator;
+import Positions.Board;
+import Positions.Zobrist;
+
+/**
+ * This class is the headless rules engine for the game. It owns the board along with each player's token counters,
+ * game phase and loss status, and applies the rules of the game (placing, moving and removing tokens, forming mills and
+ * changing phases) without any dependency on the display. Display updates are delivered through an optional
+ * GameStateListener, so the rules can run without a window.
+ * <p>
+ * Actions can also be applied and undone in place with apply and undo, which restore the board, the token counters,
+ * the phases and the mill formed flag exactly. This lets a search explore a line of play on one copy of the game state.
+ * Whole turns packed into an int can be applied and undone the same way with applyMove and undoMove, which create no
+ * objects.
+ * @see Board
+ * @see Action
+ * @see GameStateListener
+ * @see PhaseIndicator
+ */
+public class GameState {
+
+    public static final int NUM_TOKENS = 9; // the number of tokens each player starts with
+    private static final PhaseIndicator[] PHASES = PhaseIndicator.values(); // values() returns a new array on every call
+
+    private Board board;
+    private int numPlayers;
+    private int[] numTokensToPlace;
+    private int[] tokensRemaining; // the number of tokens each player has on the board
+    private PhaseIndicator[] gamePhases;
+    private boolean[] hasLost;
+    private GameStateListener listener = null;
+    private int[] undoStack = new int[64]; // one packed record of the mill formed flag and phases per applied action
+    private int undoStackSize = 0;
+
+    /**
+     * Constructor for the GameState class. Initialises every player with all of their tokens still to place.
+     * @param _board The board on which the game is being played
+     * @param _numPlayers The number of players in the game
+     */
+    public GameState(Board _board, int _numPlayers) {
+        board = _board;
+        numPlayers = _numPlayers;
+        numTokensToPlace = new int[numPlayers];
+        tokensRemaining = new int[numPlayers];
+        gamePhases = new PhaseIndicator[numPlayers];
+        hasLost = new boolean[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            numTokensToPlace[i] = NUM_TOKENS;
+            gamePhases[i] = PhaseIndicator.PHASE_ONE;
+        }
+    }
+
+    /**
+     * Copy constructor for the GameState class. The copy has no listener, so it can be searched without updating
+     * the display.
+     * @param other The game state to copy
+     */
+    public GameState(GameState other) {
+        board = new Board(other.board);
+        numPlayers = other.numPlayers;
+        numTokensToPlace = other.numTokensToPlace.clone();
+        tokensRemaining = other.tokensRemaining.clone();
+        gamePhases = other.gamePhases.clone();
+        hasLost = other.hasLost.clone();
+    }
+
+    /**
+     * Applies an action so that it can later be reversed with undo. Actions must be undone in the reverse order to
+     * which they were applied.
+     * @param action The action to apply
+     */
+    public void apply(Action action) {
+        pushUndoRecord();
+        action.execute(this);
+    }
+
+    /**
+     * Reverses the most recently applied action, restoring the board, token counters, phases and mill formed flag to
+     * what they were before it was applied.
+     * @param action The action to undo, which must be the most recently applied action
+     */
+    public void undo(Action action) {
+        action.undo(this);
+        popUndoRecord();
+    }
+
+    /**
+     * Applies a whole turn packed into an int so that it can later be reversed with undoMove. If the turn forms a mill
+     * without removing a token, because the opponent had none which could be removed, the turn ends without one.
+     * @param move The packed move to apply
+     * @param playerIndex The player making the move
+     * @see PackedMove
+     */
+    public void applyMove(int move, int playerIndex) {
+        pushUndoRecord();
+        int from = PackedMove.getFrom(move);
+        int to = PackedMove.getTo(move);
+        int remove = PackedMove.getRemove(move);
+        if (to != PackedMove.NONE) {
+            if (from == PackedMove.NONE) {
+                placeToken(to, playerIndex);
+            }
+            else {
+                moveToken(from, to, playerIndex);
+            }
+        }
+        if (remove != PackedMove.NONE) {
+            removeToken(remove);
+        }
+        else {
+            board.setMillFormed(false);
+        }
+    }
+
+    /**
+     * Reverses the most recently applied packed move.
+     * @param move The packed move to undo, which must be the most recently applied move
+     * @param playerIndex The player who made the move
+     */
+    public void undoMove(int move, int playerIndex) {
+        int from = PackedMove.getFrom(move);
+        int to = PackedMove.getTo(move);
+        int remove = PackedMove.getRemove(move);
+        if (remove != PackedMove.NONE) {
+            unremoveToken(remove, 1 - playerIndex);
+        }
+        if (to != PackedMove.NONE) {
+            if (from == PackedMove.NONE) {
+                unplaceToken(to, playerIndex);
+            }
+            else {
+                unmoveToken(from, to, playerIndex);
+            }
+        }
+        popUndoRecord();
+    }
+
+    /**
+     * Saves the mill formed flag and phases, which the actions themselves do not know how to restore.
+     */
+    private void pushUndoRecord() {
+        if (undoStackSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, 2 * undoStack.length);
+        }
+        int undoRecord = board.getMillFormed() ? 1 : 0;
+        for (int i = 0; i < numPlayers; i++) {
+            undoRecord |= gamePhases[i].ordinal() << (1 + 2 * i);
+        }
+        undoStack[undoStackSize++] = undoRecord;
+    }
+
+    /**
+     * Restores the mill formed flag and phases saved by the matching pushUndoRecord.
+     */
+    private void popUndoRecord() {
+        int undoRecord = undoStack[--undoStackSize];
+        board.setMillFormed((undoRecord & 1) != 0);
+        for (int i = 0; i < numPlayers; i++) {
+            gamePhases[i] = PHASES[(undoRecord >>> (1 + 2 * i)) & 3];
+        }
+    }
+
+    /**
+     * Places a token for a player, moving them to phase two once they have no tokens left to place.
+     * @param positionIndex The index of the position to place the token on
+     * @param playerIndex The player who is placing the token
+     */
+    public void placeToken(int positionIndex, int playerIndex) {
+        board.changePositionState(positionIndex, playerIndex);
+        numTokensToPlace[playerIndex] -= 1;
+        tokensRemaining[playerIndex] += 1;
+
+        // change phase if there are no more tokens to place
+        if (numTokensToPlace[playerIndex] == 0) {
+            gamePhases[playerIndex] = PhaseIndicator.PHASE_TWO;
+        }
+        if (listener != null) {
+            listener.tokenPlaced(this, positionIndex, playerIndex);
+        }
+        checkForNewMill(positionIndex);
+    }
+
+    /**
+     * Moves (slides or flies) a player's token from one position to another.
+     * @param positionIndexStart The index of the position from which the token is to be moved
+     * @param positionIndexEnd The index of the position to which the token is to be moved
+     * @param playerIndex The player who is moving the token
+     */
+    public void moveToken(int positionIndexStart, int positionIndexEnd, int playerIndex) {
+        board.changePositionState(positionIndexStart, -1);
+        board.changePositionState(positionIndexEnd, playerIndex);
+        if (listener != null) {
+            listener.tokenMoved(this, positionIndexStart, positionIndexEnd, playerIndex);
+        }
+        checkForNewMill(positionIndexEnd);
+    }
+
+    /**
+     * Removes a token from the board after a mill has been formed, moving its owner to phase three if they are left
+     * with three tokens.
+     * @param positionIndex The index of the position from which the token is to be removed
+     */
+    public void removeToken(int positionIndex) {
+        // update the board so that it no longer thinks a mill was formed
+        board.setMillFormed(false);
+
+        int playerIndex = board.getPositionState(positionIndex);
+        board.changePositionState(positionIndex, -1);
+        tokensRemaining[playerIndex] -= 1;
+
+        // change phase if the player can now fly
+        if (tokensRemaining[playerIndex] == 3 && gamePhases[playerIndex] != PhaseIndicator.PHASE_ONE) {
+            gamePhases[playerIndex] = PhaseIndicator.PHASE_THREE;
+        }
+        if (listener != null) {
+            listener.tokenRemoved(this, positionIndex, playerIndex);
+        }
+    }
+
+    /**
+     * Reverses placeToken on the board and token counters. The phase and mill formed flag are restored by undo.
+     * @param positionIndex The index of the position the token was placed on
+     * @param playerIndex The player who placed the token
+     */
+    public void unplaceToken(int positionIndex, int playerIndex) {
+        board.changePositionState(positionIndex, -1);
+        numTokensToPlace[playerIndex] += 1;
+        tokensRemaining[playerIndex] -= 1;
+    }
+
+    /**
+     * Reverses moveToken on the board. The mill formed flag is restored by undo.
+     * @param positionIndexStart The index of the position the token was moved from
+     * @param positionIndexEnd The index of the position the token was moved to
+     * @param playerIndex The player who moved the token
+     */
+    public void unmoveToken(int positionIndexStart, int positionIndexEnd, int playerIndex) {
+        board.changePositionState(positionIndexEnd, -1);
+        board.changePositionState(positionIndexStart, playerIndex);
+    }
+
+    /**
+     * Reverses removeToken on the board and token counters. The phase and mill formed flag are restored by undo.
+     * @param positionIndex The index of the position the token was removed from
+     * @param playerIndex The player who's token was removed
+     */
+    public void unremoveToken(int positionIndex, int playerIndex) {
+        board.changePositionState(positionIndex, playerIndex);
+        tokensRemaining[playerIndex] += 1;
+    }
+
+    /**
+     * Checks whether the token on a position has just formed a mill, and if so flags the board so that the player
+     * removes one of their opponent's tokens.
+     * @param positionIndex The index of the position the token was just placed or moved onto
+     * @return True if a mill was formed, false otherwise
+     */
+    private boolean checkForNewMill(int positionIndex) {
+        int millMask = board.findFormedMill(positionIndex);
+        if (millMask == 0) {
+            return false;
+        }
+        board.setMillFormed(true);
+        if (listener != null) {
+            listener.millFormed(this, Board.maskToPositions(millMask));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the Zobrist hash of the game state, made up of the board's incrementally updated hash of its positions
+     * and mill formed flag, together with each player's tokens to place and whether they can fly. The player to move
+     * is not part of the game state, so callers that need it in the hash XOR in Zobrist.playerToMoveKey.
+     * @return The hash of the game state
+     */
+    public long getHash() {
+        long hash = board.getHash();
+        for (int i = 0; i < numPlayers; i++) {
+            hash ^= Zobrist.tokensToPlaceKey(i, numTokensToPlace[i]);
+            if (gamePhases[i] == PhaseIndicator.PHASE_THREE) {
+                hash ^= Zobrist.flyingKey(i);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Getter for the board.
+     * @return The board on which the game is being played
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Getter for the number of players.
+     * @return The number of players in the game
+     */
+    public int getNumberOfPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Getter for the number of tokens a player has left to place.
+     * @param playerIndex The index of the player
+     * @return The number of tokens the player has left to place
+     */
+    public int getNumTokensToPlace(int playerIndex) {
+        return numTokensToPlace[playerIndex];
+    }
+
+    /**
+     * Getter for the number of tokens a player has on the board.
+     * @param playerIndex The index of the player
+     * @return The number of tokens the player has on the board
+     */
+    public int getTokensRemaining(int playerIndex) {
+        return tokensRemaining[playerIndex];
+    }
+
+    /**
+     * Getter for the phase of a player.
+     * @param playerIndex The index of the player
+     * @return The phase of the player
+     */
+    public PhaseIndicator getGamePhase(int playerIndex) {
+        return gamePhases[playerIndex];
+    }
+
+    /**
+     * Getter for a player's loss status.
+     * @param playerIndex The index of the player
+     * @return True if the player has lost, false otherwise
+     */
+    public boolean hasPlayerLost(int playerIndex) {
+        return hasLost[playerIndex];
+    }
+
+    /**
+     * Setter for a player's loss status.
+     * @param playerIndex The index of the player
+     * @param _hasLost True if the player has lost, false otherwise
+     */
+    public void setPlayerLost(int playerIndex, boolean _hasLost) {
+        hasLost[playerIndex] = _hasLost;
+    }
+
+    /**
+     * Sets all of a player's counters at once, such as when restoring a saved game. The board must already hold the
+     * player's tokens.
+     * @param playerIndex The index of the player
+     * @param _numTokensToPlace The number of tokens the player has left to place
+     * @param _tokensRemaining The number of tokens the player has on the board
+     * @param _gamePhase The phase of the player
+     * @param _hasLost True if the player has lost, false otherwise
+     */
+    void restorePlayer(int playerIndex, int _numTokensToPlace, int _tokensRemaining, PhaseIndicator _gamePhase, boolean _hasLost) {
+        numTokensToPlace[playerIndex] = _numTokensToPlace;
+        tokensRemaining[playerIndex] = _tokensRemaining;
+        gamePhases[playerIndex] = _gamePhase;
+        hasLost[playerIndex] = _hasLost;
+    }
+
+    /**
+     * This method returns -1 if there is no winner, otherwise it returns the player number of the winner.
+     * @return The player number of the winner or -1 if there is no winner.
+     */
+    public int findWinner() {
+        boolean foundLoser = false;
+        for (int i = 0; i < numPlayers; i++) {
+            if (hasLost[i]) {
+                foundLoser = true;
+                break;
+            }
+        }
+        if (!foundLoser) {
+            return -1;
+        }
+        for (int i = 0; i < numPlayers; i++) { // this loop is only run if a player has lost the game
+            if (!hasLost[i]) {                 // if the i'th player hasn't lost the game, they've won
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Getter for the listener which is notified of changes to the game state.
+     * @return The listener, or null if there is none
+     */
+    public GameStateListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Setter for the listener which is notified of changes to the game state.
+     * @param _listener The listener, or null to run without one
+     */
+    public void setListener(GameStateListener _listener) {
+        listener = _listener;
+    }
+}
@@ -0,0 +1,51 @@
+package Game;
+
+import java.util.ArrayList;
+
+/**
+ * This interface is used to observe changes to the game state, such as to update the display after each action. The
+ * game state calls it after it has been updated, so the listener can read the new state from it.
+ * @see GameState
+ */
+public interface GameStateListener {
+    /**
+     * This method is called after a token has been placed.
+     * @param gameState The game state which was changed
+     * @param positionIndex The index of the position the token was placed on
+     * @param playerIndex The player who placed the token
+     */
+    public void tokenPlaced(GameState gameState, int positionIndex, int playerIndex);
+
+    /**
+     * This method is called after a token has been moved.
+     * @param gameState The game state which was changed
+     * @param positionIndexStart The index of the position the token was moved from
+     * @param positionIndexEnd The index of the position the token was moved to
+     * @param playerIndex The player who moved the token
+     */
+    public void tokenMoved(GameState gameState, int positionIndexStart, int positionIndexEnd, int playerIndex);
+
+    /**
+     * This method is called after a token has been removed.
+     * @param gameState The game state which was changed
+     * @param positionIndex The index of the position the token was removed from
+     * @param playerIndex The player who's token was removed
+     */
+    public void tokenRemoved(GameState gameState, int positionIndex, int playerIndex);
+
+    /**
+     * This method is called after a mill has been formed.
+     * @param gameState The game state which was changed
+     * @param positionsInMill The positions in the mill which was formed
+     */
+    public void millFormed(GameState gameState, ArrayList<Integer> positionsInMill);
+
+    /**
+     * This method is called when a player selects or deselects one of their tokens to move. The selection is not part
+     * of the game state, so it is reported by the move controllers rather than the game state itself.
+     * @param gameState The game state the token is on
+     * @param positionIndex The index of the position of the token
+     * @param isSelected True if the token was selected, false if it was deselected
+     */
+    public void tokenSelected(GameState gameState, int positionIndex, boolean isSelected);
+}
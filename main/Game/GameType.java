@@ -5,5 +5,7 @@ package Game;
  */
 public enum GameType {
     LOCAL_TWO_PLAYER, 
-    AI_PLAYER
+    AI_PLAYER,
+    ALPHA_BETA_PLAYER,
+    MCTS_PLAYER
 }
@@ -9,7 +9,6 @@ public class Main {
      * @param args Command line arguments
      */
     public static void main(String[] args) {
-        Game.getInstance();
-    
+        Game.startWindowedGame();
     }
 }
@@ -0,0 +1,236 @@
+package Opening;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import Actions.PackedMove;
+import Game.GameState;
+import Positions.BoardSymmetries;
+
+/**
+ * This class is a book of the best placements for the first turns of the game, built offline by OpeningBookGenerator
+ * with deep searches. Each entry is keyed by the canonical representative of a position, so one entry covers every
+ * position related to it by a symmetry, and holds the best whole turn for the canonical board. A move is looked up by
+ * finding the symmetry which takes the board to its canonical representative and mapping the stored move back with
+ * the inverse symmetry.
+ * <p>
+ * A book file is a header followed by the keys in ascending order and then the moves in the same order. All numbers
+ * are big-endian. The file is memory-mapped and probed with a binary search over the keys, so loading is instant.
+ * <pre>
+ * offset  size  field
+ *      0     4  magic number "NMMO"
+ *      4     4  format version
+ *      8     4  header length, where the keys start
+ *     12     4  number of entries
+ *     16     1  number of mills in the board layout
+ *     17        for each mill: 1 byte number of positions, then 1 byte per position
+ *               padding to a multiple of 8 bytes
+ *               8 bytes per entry: the key
+ *               2 bytes per entry: the move as a PackedMove
+ * </pre>
+ * A key holds the canonical board's mask for the player to move in bits 24 to 47 and their opponent's mask in bits 0
+ * to 23, with the number of tokens the player to move has left to place in bits 52 to 55 and their opponent's in bits
+ * 48 to 51, so the player to move does not need to be stored. As with endgame tables, the mill list identifies the
+ * board layout the book was built for.
+ * @see OpeningBookGenerator
+ * @see BoardSymmetries
+ */
+public class OpeningBook {
+
+    public static final int NO_MOVE = -1;
+    public static final File DEFAULT_FILE = new File("opening.book");
+    private static final int FILE_MAGIC = 0x4e4d4d4f; // "NMMO"
+    private static final int FILE_VERSION = 1;
+    private static final int FIXED_HEADER_LENGTH = 17;
+
+    private BoardSymmetries symmetries;
+    private int numEntries;
+    private ByteBuffer keys;
+    private ByteBuffer moves;
+
+    /**
+     * Constructor for the OpeningBook class.
+     * @param _symmetries The symmetries of the board layout the book was built for
+     * @param _numEntries The number of entries
+     * @param _keys The keys in ascending order, 8 bytes each, which are only read with absolute gets
+     * @param _moves The moves in the same order, 2 bytes each, which are only read with absolute gets
+     */
+    private OpeningBook(BoardSymmetries _symmetries, int _numEntries, ByteBuffer _keys, ByteBuffer _moves) {
+        symmetries = _symmetries;
+        numEntries = _numEntries;
+        keys = _keys;
+        moves = _moves;
+    }
+
+    /**
+     * This method checks whether a game state can be in a book: the player to move still has tokens to place and no
+     * mill is waiting for a removal.
+     * @param gameState The game state
+     * @param playerIndex The player who's turn it is
+     * @return True if the game state can be in a book, false otherwise
+     */
+    public static boolean isBookPosition(GameState gameState, int playerIndex) {
+        return !gameState.getBoard().getMillFormed() && gameState.getNumTokensToPlace(playerIndex) > 0;
+    }
+
+    /**
+     * This method finds the symmetry which takes a game state to its canonical representative.
+     * @param symmetries The symmetries of the board layout
+     * @param gameState The game state
+     * @param playerIndex The player who's turn it is
+     * @return The index of the symmetry
+     */
+    static int getCanonicalSymmetry(BoardSymmetries symmetries, GameState gameState, int playerIndex) {
+        return symmetries.getCanonicalSymmetry(gameState.getBoard().getPositionsMask(playerIndex),
+                gameState.getBoard().getPositionsMask(1 - playerIndex));
+    }
+
+    /**
+     * This method returns the book key of a game state.
+     * @param symmetries The symmetries of the board layout
+     * @param symmetry The symmetry which takes the game state to its canonical representative
+     * @param gameState The game state
+     * @param playerIndex The player who's turn it is
+     * @return The key, as described in the class comment
+     */
+    static long getKey(BoardSymmetries symmetries, int symmetry, GameState gameState, int playerIndex) {
+        long moverMask = symmetries.transform(gameState.getBoard().getPositionsMask(playerIndex), symmetry);
+        long opponentMask = symmetries.transform(gameState.getBoard().getPositionsMask(1 - playerIndex), symmetry);
+        return ((long) gameState.getNumTokensToPlace(playerIndex) << 52) | ((long) gameState.getNumTokensToPlace(1 - playerIndex) << 48)
+                | (moverMask << 24) | opponentMask;
+    }
+
+    /**
+     * This method looks up the best whole turn for a player in the book.
+     * @param gameState The game state to move from, which is not modified
+     * @param playerIndex The player who's turn it is
+     * @return The best move as a PackedMove, or NO_MOVE if the game state is not in the book
+     */
+    public int findMove(GameState gameState, int playerIndex) {
+        if (!isBookPosition(gameState, playerIndex)) {
+            return NO_MOVE;
+        }
+        int symmetry = getCanonicalSymmetry(symmetries, gameState, playerIndex);
+        long key = getKey(symmetries, symmetry, gameState, playerIndex);
+
+        int low = 0;
+        int high = numEntries - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = keys.getLong(8 * middle);
+            if (middleKey < key) {
+                low = middle + 1;
+            }
+            else if (middleKey > key) {
+                high = middle - 1;
+            }
+            else {
+                int canonicalMove = moves.getShort(2 * middle) & 0xFFFF;
+                return PackedMove.transform(canonicalMove, symmetries, symmetries.getInverse(symmetry));
+            }
+        }
+        return NO_MOVE;
+    }
+
+    /**
+     * This method writes a book to a file.
+     * @param file The file to write to
+     * @param symmetries The symmetries of the board layout the book was built for
+     * @param bookKeys The keys in ascending order
+     * @param bookMoves The move for the canonical representative of each key, as a PackedMove
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(File file, BoardSymmetries symmetries, long[] bookKeys, int[] bookMoves) throws IOException {
+        int[][] millList = symmetries.getLayoutMillList();
+        int headerLength = FIXED_HEADER_LENGTH;
+        for (int[] mill : millList) {
+            headerLength += 1 + mill.length;
+        }
+        headerLength = (headerLength + 7) & ~7;
+
+        ByteBuffer buffer = ByteBuffer.allocate(headerLength + 10 * bookKeys.length);
+        buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(headerLength).putInt(bookKeys.length);
+        buffer.put((byte) millList.length);
+        for (int[] mill : millList) {
+            buffer.put((byte) mill.length);
+            for (int positionIndex : mill) {
+                buffer.put((byte) positionIndex);
+            }
+        }
+        buffer.position(headerLength);
+        for (long key : bookKeys) {
+            buffer.putLong(key);
+        }
+        for (int move : bookMoves) {
+            buffer.putShort((short) move);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * This method memory-maps a book file for the default board layout.
+     * @param file The file to map
+     * @return The book
+     * @throws IOException If the file cannot be read, is not a book file, or is for a different board layout
+     */
+    public static OpeningBook load(File file) throws IOException {
+        return load(file, BoardSymmetries.DEFAULT);
+    }
+
+    /**
+     * This method memory-maps a book file.
+     * @param file The file to map
+     * @param symmetries The symmetries of the board layout being played on, which the book must have been built for
+     * @return The book
+     * @throws IOException If the file cannot be read, is not a book file, or is for a different board layout
+     */
+    public static OpeningBook load(File file, BoardSymmetries symmetries) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.limit() < FIXED_HEADER_LENGTH || data.getInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not an opening book file");
+            }
+            if (data.getInt() != FILE_VERSION) {
+                throw new IOException(file + " has an unsupported opening book version");
+            }
+            int headerLength = data.getInt();
+            int numEntries = data.getInt();
+            if (data.limit() != headerLength + 10L * numEntries) {
+                throw new IOException(file + " is truncated");
+            }
+            int[][] fileMillList = new int[data.get()][];
+            for (int i = 0; i < fileMillList.length; i++) {
+                fileMillList[i] = new int[data.get()];
+                for (int j = 0; j < fileMillList[i].length; j++) {
+                    fileMillList[i][j] = data.get();
+                }
+            }
+            if (!Arrays.deepEquals(fileMillList, symmetries.getLayoutMillList())) {
+                throw new IOException(file + " was built for a different board layout");
+            }
+
+            ByteBuffer bookKeys = data.duplicate().position(headerLength).limit(headerLength + 8 * numEntries).slice();
+            ByteBuffer bookMoves = data.duplicate().position(headerLength + 8 * numEntries).slice();
+            return new OpeningBook(symmetries, numEntries, bookKeys, bookMoves);
+        }
+    }
+
+    /**
+     * Getter for the number of entries in the book.
+     * @return The number of canonical positions the book has a move for
+     */
+    public int getNumEntries() {
+        return numEntries;
+    }
+}
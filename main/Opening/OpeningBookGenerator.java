@@ -0,0 +1,182 @@
+package Opening;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Actions.ActionGenerator;
+import Actions.PackedMove;
+import Game.GameState;
+import Positions.Board;
+import Positions.BoardSymmetries;
+import Search.AlphaBetaSearch;
+
+/**
+ * This class builds the opening book offline. Every position reachable in the first few turns of the game is found by
+ * playing every legal move from the empty board, keeping one representative of each set of positions related by a
+ * symmetry, and each one is given a deep alpha-beta search on a thread pool. Each thread has its own single-threaded
+ * search and transposition table, so positions are searched independently and in parallel.
+ * <p>
+ * Usage: OpeningBookGenerator [--plies N] [--time-ms T] [--depth D] [--threads N] [--output FILE]
+ * <p>
+ * Positions before each of the first N turns (4 by default) are searched for T milliseconds (1000 by default) or to
+ * depth D, whichever comes first, and the book is written to the output file.
+ * @see OpeningBook
+ * @see AlphaBetaSearch
+ */
+public class OpeningBookGenerator {
+
+    private BoardSymmetries symmetries = BoardSymmetries.DEFAULT;
+    private int numPlies = 4;
+    private long searchTimeMs = 1000;
+    private int depth = AlphaBetaSearch.MAX_DEPTH;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+    private File outputFile = OpeningBook.DEFAULT_FILE;
+    private ThreadLocal<AlphaBetaSearch> searches = ThreadLocal.withInitial(() -> new AlphaBetaSearch(AlphaBetaSearch.DEFAULT_TRANSPOSITION_TABLE_SIZE_MB, 1));
+
+    /**
+     * This class is one position to search, as the player to move sees it.
+     */
+    private static class BookPosition {
+        GameState gameState;
+        int playerIndex;
+        int symmetry;
+        long key;
+
+        BookPosition(GameState _gameState, int _playerIndex, int _symmetry, long _key) {
+            gameState = _gameState;
+            playerIndex = _playerIndex;
+            symmetry = _symmetry;
+            key = _key;
+        }
+    }
+
+    /**
+     * This method runs the generator from the command line.
+     * @param args The options, as described in the class comment
+     * @throws IOException If the book cannot be written
+     * @throws InterruptedException If interrupted while waiting for the searches to finish
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        OpeningBookGenerator generator = new OpeningBookGenerator();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--plies": generator.numPlies = Integer.parseInt(value); break;
+                case "--time-ms": generator.searchTimeMs = Long.parseLong(value); break;
+                case "--depth": generator.depth = Integer.parseInt(value); break;
+                case "--threads": generator.numThreads = Integer.parseInt(value); break;
+                case "--output": generator.outputFile = new File(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (generator.numPlies < 1 || generator.numPlies > 2 * GameState.NUM_TOKENS) {
+            throw new IllegalArgumentException("--plies must be between 1 and " + 2 * GameState.NUM_TOKENS);
+        }
+
+        long startTime = System.nanoTime();
+        generator.generate();
+        System.out.println("Wrote opening book to " + generator.outputFile + " in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+    }
+
+    /**
+     * This method finds the positions, searches each of them and writes the book.
+     * @throws IOException If the book cannot be written
+     * @throws InterruptedException If interrupted while waiting for the searches to finish
+     */
+    public void generate() throws IOException, InterruptedException {
+        ArrayList<BookPosition> positions = findPositions();
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        ArrayList<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for (BookPosition position : positions) {
+            results.add(threadPool.submit(() -> searches.get().findBestMove(position.gameState, position.playerIndex, searchTimeMs, depth)));
+        }
+
+        TreeMap<Long, Integer> entries = new TreeMap<Long, Integer>();
+        try {
+            for (int i = 0; i < positions.size(); i++) {
+                BookPosition position = positions.get(i);
+                int move = results.get(i).get();
+                if (move != AlphaBetaSearch.NO_MOVE) {
+                    entries.put(position.key, PackedMove.transform(move, symmetries, position.symmetry));
+                }
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A search failed", e.getCause());
+        }
+        finally {
+            threadPool.shutdownNow();
+        }
+
+        long[] bookKeys = new long[entries.size()];
+        int[] bookMoves = new int[entries.size()];
+        int i = 0;
+        for (Long key : entries.keySet()) {
+            bookKeys[i] = key;
+            bookMoves[i] = entries.get(key);
+            i++;
+        }
+        OpeningBook.write(outputFile, symmetries, bookKeys, bookMoves);
+    }
+
+    /**
+     * This method finds one representative of every position before each of the first turns, by playing every legal
+     * move from the positions before the previous turn.
+     * @return The positions, in order of turn
+     */
+    private ArrayList<BookPosition> findPositions() {
+        ArrayList<BookPosition> positions = new ArrayList<BookPosition>();
+        HashSet<Long> seenKeys = new HashSet<Long>();
+        ArrayList<BookPosition> frontier = new ArrayList<BookPosition>();
+        frontier.add(createPosition(new GameState(new Board(symmetries.getLayoutMillList()), 2), 0));
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+
+        for (int ply = 0; ply < numPlies; ply++) {
+            System.out.println("Turn " + (ply + 1) + ": " + frontier.size() + " positions");
+            positions.addAll(frontier);
+            if (ply + 1 == numPlies) {
+                break;
+            }
+            ArrayList<BookPosition> nextFrontier = new ArrayList<BookPosition>();
+            for (BookPosition position : frontier) {
+                int numMoves = ActionGenerator.generateMoves(position.gameState, position.playerIndex, moves);
+                for (int i = 0; i < numMoves; i++) {
+                    GameState child = new GameState(position.gameState);
+                    child.applyMove(moves[i], position.playerIndex);
+                    int nextPlayerIndex = 1 - position.playerIndex;
+                    if (!OpeningBook.isBookPosition(child, nextPlayerIndex)) {
+                        continue;
+                    }
+                    BookPosition childPosition = createPosition(child, nextPlayerIndex);
+                    if (seenKeys.add(childPosition.key)) {
+                        nextFrontier.add(childPosition);
+                    }
+                }
+            }
+            frontier = nextFrontier;
+        }
+        return positions;
+    }
+
+    /**
+     * This method creates a position to search, finding its canonical symmetry and key.
+     * @param gameState The game state
+     * @param playerIndex The player who's turn it is
+     * @return The position
+     */
+    private BookPosition createPosition(GameState gameState, int playerIndex) {
+        int symmetry = OpeningBook.getCanonicalSymmetry(symmetries, gameState, playerIndex);
+        return new BookPosition(gameState, playerIndex, symmetry, OpeningBook.getKey(symmetries, symmetry, gameState, playerIndex));
+    }
+}
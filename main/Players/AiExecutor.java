@@ -0,0 +1,103 @@
+package Players;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * This class runs the thinking of the AI players on background threads so that the Event Dispatch Thread is never
+ * blocked while an AI chooses its action. Each piece of thinking returns a CompletableFuture of its result, and only
+ * the final result is handed back to the Event Dispatch Thread. If the thinking fails, the failure is handed back
+ * instead, so that the player can still make a move rather than leaving the game waiting. Each game has its own
+ * AiExecutor, so all of a game's pending thinking can be cancelled when it is reset, after which any results that were
+ * already on their way are dropped. The background threads themselves are shared by every game.
+ * @see AiPlayer
+ * @see AlphaBetaPlayer
+ */
+public class AiExecutor {
+    private static final ExecutorService THREAD_POOL = createThreadPool(); // thread safe, so it can be shared by every game
+    private Set<CompletableFuture<?>> pendingFutures;
+    private volatile int generation; // incremented on cancellation, so that results from before it are dropped
+
+    /**
+     * This constructor is used to create an AiExecutor object for a game.
+     */
+    public AiExecutor() {
+        pendingFutures = ConcurrentHashMap.newKeySet();
+        generation = 0;
+    }
+
+    /**
+     * This method creates the pool of background threads shared by every game.
+     * @return The thread pool.
+     */
+    private static ExecutorService createThreadPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ai-thinker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true); // never keep the application open after the window is closed
+            return thread;
+        });
+    }
+
+    /**
+     * This method runs a piece of thinking on a background thread and passes its result, or the exception it threw, to
+     * the Event Dispatch Thread. Nothing is passed on if the thinking has been cancelled in the meantime.
+     * @param thinking The thinking to run, which must not touch the display or the live game state.
+     * @param delayMs The time to wait before starting the thinking, in milliseconds.
+     * @param onEventDispatchThread The action to perform with the result on the Event Dispatch Thread.
+     * @param onFailure The action to perform on the Event Dispatch Thread if the thinking throws an exception.
+     * @return The future result of the thinking.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> thinking, long delayMs, Consumer<T> onEventDispatchThread,
+            Consumer<Throwable> onFailure) {
+        int submittedGeneration = generation;
+        Executor executor = THREAD_POOL;
+        if (delayMs > 0) {
+            executor = CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, THREAD_POOL);
+        }
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(thinking, executor);
+        pendingFutures.add(future);
+        future.whenComplete((result, exception) -> {
+            pendingFutures.remove(future);
+            if (future.isCancelled()) {
+                return;
+            }
+            Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+            SwingUtilities.invokeLater(() -> {
+                if (generation != submittedGeneration) {
+                    return;
+                }
+                if (cause != null) {
+                    onFailure.accept(cause);
+                }
+                else {
+                    onEventDispatchThread.accept(result);
+                }
+            });
+        });
+        return future;
+    }
+
+    /**
+     * This method cancels all pending thinking. Results which have already been computed but not yet delivered to the
+     * Event Dispatch Thread are dropped.
+     */
+    public void cancelAll() {
+        generation++;
+        for (CompletableFuture<?> future : pendingFutures) {
+            future.cancel(true);
+        }
+        pendingFutures.clear();
+    }
+}
@@ -1,19 +1,30 @@
 package Players;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 
-import javax.swing.SwingUtilities;
-
 import Actions.ActionController;
+import Actions.PackedMove;
+import Actions.Mills.RemoveActionController;
+import Actions.Moves.PhaseThreeMoveController;
+import Actions.Moves.PhaseTwoMoveController;
+import Actions.Placements.PlaceActionController;
 import Game.Game;
+import Game.GameState;
+import Opening.OpeningBook;
 import Positions.Board;
 
 /**
  * This class is used to represent an AI player in the game. It extends the Player class, and is responsible for
- * storing the player's number and token image path.
+ * storing the player's number and token image path. If an opening book has been built in the default file, its
+ * placements are played before any heuristics are tried. The clicks for a turn are chosen in the background on the
+ * AiExecutor, on a copy of the game state with its own action controller, and only the clicks are made on the Event
+ * Dispatch Thread.
+ * @see AiExecutor
  * @see Player
  * @see GeneratesAction
+ * @see OpeningBook
  */
 public class AiPlayer extends Player implements GeneratesAction {
 
@@ -21,7 +32,9 @@ public class AiPlayer extends Player implements GeneratesAction {
     ActionController currentActionController;
     ArrayList<Integer> legalPositionsList;
     ArrayList<Integer> searchedPositions;
+    GameState gameState;
     Board board;
+    OpeningBook openingBook = null;
 
     /**
      * This constructor creates a new AI player with the given player number and token image path.
@@ -30,22 +43,73 @@ public class AiPlayer extends Player implements GeneratesAction {
      */
     public AiPlayer(int playerNum, String tokenImgPath) {
         super(playerNum, tokenImgPath);
-        GeneratesActionController.getInstance().addActionGenerator(this);
+        if (OpeningBook.DEFAULT_FILE.isFile()) {
+            try {
+                openingBook = OpeningBook.load(OpeningBook.DEFAULT_FILE);
+            }
+            catch (IOException e) {
+                System.out.println("Could not load the opening book: " + e.getMessage());
+            }
+        }
     }
 
     @Override
-    public void generateAction(ActionController actionController) {
-        currentActionController = actionController;
-        board = currentActionController.getBoard();
-        
-        SwingUtilities.invokeLater(() -> {
-            new Sleep(TIMEOUT_LENGTH);
-            boolean turnOver = false;
-            while (!turnOver) {
-                legalPositionsList = currentActionController.getValidPositions(getPlayerNumber());
-                turnOver = Game.getInstance().handlePositionClick(chooseAction());
+    public void generateAction(Game game, ActionController actionController) {
+        GameState gameStateCopy = new GameState(actionController.getGameState()); // the live game state is only used on the Event Dispatch Thread
+        game.getAiExecutor().submit(() -> chooseClicks(gameStateCopy), TIMEOUT_LENGTH, clicks -> {
+            for (int position : clicks) {
+                game.handlePositionClick(position);
             }
-        });        
+        }, exception -> playFallbackAction(game, actionController, exception));
+    }
+
+    /**
+     * This method choses every click the AI will make in its turn, by making them on a copy of the game state.
+     * @param gameStateCopy a copy of the game state at the start of the turn, which is changed by the clicks
+     * @return the positions to click, in order, the last of which ends the turn
+     */
+    private ArrayList<Integer> chooseClicks(GameState gameStateCopy) {
+        ActionController actionController = createActionController(gameStateCopy);
+        ArrayList<Integer> clicks = new ArrayList<Integer>();
+        boolean turnOver = false;
+        while (!turnOver) {
+            int position = chooseAction(actionController);
+            clicks.add(position);
+            turnOver = actionController.handlePositionInteraction(position, getPlayerNumber());
+        }
+        return clicks;
+    }
+
+    /**
+     * This method creates an action controller for the AI's turn in a game state, the same as the game would use.
+     * @param gameState the game state
+     * @return the action controller for a removal if a mill has just been formed, or for the AI's phase otherwise
+     */
+    private ActionController createActionController(GameState gameState) {
+        if (gameState.getBoard().getMillFormed()) {
+            return new RemoveActionController(gameState);
+        }
+        switch (gameState.getGamePhase(getPlayerNumber())) {
+            case PHASE_ONE:
+                return new PlaceActionController(gameState);
+            case PHASE_TWO:
+                return new PhaseTwoMoveController(gameState);
+            default:
+                return new PhaseThreeMoveController(gameState);
+        }
+    }
+
+    /**
+     * This method choses the position that the AI will click next for the given action controller, without clicking it.
+     * @param actionController the action controller for the AI's current phase
+     * @return the position that the AI will take the action on
+     */
+    public int chooseAction(ActionController actionController) {
+        currentActionController = actionController;
+        gameState = currentActionController.getGameState();
+        board = gameState.getBoard();
+        legalPositionsList = currentActionController.getValidPositions(getPlayerNumber());
+        return chooseAction();
     }
 
     /**
@@ -56,53 +120,43 @@ public class AiPlayer extends Player implements GeneratesAction {
         int positionChoice = -1;
         int[][] layoutMillList = board.getLayoutMillList();
 
+        if (openingBook != null) {
+            int move = openingBook.findMove(gameState, getPlayerNumber());
+            if (move != OpeningBook.NO_MOVE && legalPositionsList.contains(PackedMove.getTo(move))) {
+                return PackedMove.getTo(move);
+            }
+        }
+
         if (board.getPositionState(legalPositionsList.get(0))  == -1 || board.getPositionState(legalPositionsList.get(0))  == getPlayerNumber()){
-            for (int[] mill : layoutMillList) {
-                boolean potentialMill = true; // can this be a mill
-                int emptyPosition = -1; // which position is the empty position
-    
-                for (int millPosition : mill) {
-                    if(board.getPositionState(millPosition) == -1){
-                        if (emptyPosition != -1){
-                            potentialMill = false;
-                            break;
-                        }
-                        emptyPosition = millPosition;
-                    }
-                    else if (board.getPositionState(millPosition) != getPlayerNumber()){ 
-                        potentialMill = false;
-                        break;
-                    }
+            // the board tracks the mills which are one token away from being formed, so only those are looked at
+            for (long openTwoMills = board.getOpenTwoMills(getPlayerNumber()); openTwoMills != 0; openTwoMills &= openTwoMills - 1) {
+                int millIndex = Long.numberOfTrailingZeros(openTwoMills);
+                int[] mill = layoutMillList[millIndex];
+                int emptyPosition = Integer.numberOfTrailingZeros(board.getMillMasks()[millIndex] & board.getPositionsMask(-1)); // which position is the empty position
+                if (legalPositionsList.contains(emptyPosition)){
+                    positionChoice = emptyPosition;
+                    break; // best move is the make a mill
                 }
-                if (emptyPosition == -1){
-                    potentialMill = false;
+                else if (findPieceToMoveTo(emptyPosition, mill) != -1) {
+                    positionChoice = findPieceToMoveTo(emptyPosition, mill);
+                    break;
                 }
-                if (potentialMill){
-                    if (legalPositionsList.contains(emptyPosition)){
-                        positionChoice = emptyPosition;
-                        break; // best move is the make a mill
-                    }
-                    else if (findPieceToMoveTo(emptyPosition, mill) != -1) {
-                        positionChoice = findPieceToMoveTo(emptyPosition, mill);
-                        break;
-                    }
-                    else if (getTokensRemaining() == 3 && board.getPositionState(legalPositionsList.get(0)) == getPlayerNumber()){
-                        ArrayList<Integer> piecesInPotentialMill = new ArrayList<Integer>();
-                        for (int millPosition : mill) {
-                            if (legalPositionsList.contains(millPosition)){
-                                piecesInPotentialMill.add(millPosition);
-                            }
+                else if (gameState.getTokensRemaining(getPlayerNumber()) == 3 && board.getPositionState(legalPositionsList.get(0)) == getPlayerNumber()){
+                    ArrayList<Integer> piecesInPotentialMill = new ArrayList<Integer>();
+                    for (int millPosition : mill) {
+                        if (legalPositionsList.contains(millPosition)){
+                            piecesInPotentialMill.add(millPosition);
                         }
-                        for (Integer legalPosition : legalPositionsList) {
-                            if (! piecesInPotentialMill.contains(legalPosition)){
-                                positionChoice = legalPosition;
-                                break;
-                            }
-                        }
-                        if (positionChoice != -1){
+                    }
+                    for (Integer legalPosition : legalPositionsList) {
+                        if (! piecesInPotentialMill.contains(legalPosition)){
+                            positionChoice = legalPosition;
                             break;
                         }
                     }
+                    if (positionChoice != -1){
+                        break;
+                    }
                 }
             }
         }
@@ -132,7 +186,7 @@ public class AiPlayer extends Player implements GeneratesAction {
     private int findPieceToMoveTo(int targetPosition, int[] potentialMill){
         int[][] layoutMillList = board.getLayoutMillList();
         ArrayList<int[]> millsContainingTarget = new ArrayList<int[]>();
-        for (Integer millIndex : getPositionToMillIndex(layoutMillList).get(targetPosition)) {
+        for (int millIndex : board.getPositionToMillIndex()[targetPosition]) {
             if (layoutMillList[millIndex] != potentialMill){
                 millsContainingTarget.add(layoutMillList[millIndex]);
             }
@@ -193,15 +247,15 @@ public class AiPlayer extends Player implements GeneratesAction {
         }
 
         int[][] layoutMillList = board.getLayoutMillList();
-        ArrayList<ArrayList<Integer>> positionToMillIndex = getPositionToMillIndex(layoutMillList);
+        int[][] positionToMillIndex = board.getPositionToMillIndex();
         ArrayList<Integer> goodHeuristicMoves = new ArrayList<Integer>();
         
         Integer legalPositionIndex = 0;
         for (Integer legalPosition : legalPositionsList) {
-            ArrayList<Integer> millsToBeExamined = positionToMillIndex.get(legalPosition);
+            int[] millsToBeExamined = positionToMillIndex[legalPosition];
             Integer actionScore = 0;
             
-            for (Integer indexOfMillToBeExamined : millsToBeExamined) {
+            for (int indexOfMillToBeExamined : millsToBeExamined) {
                 int[] futureStateMill = {-1, -1, -1};
                 int[] currentStateMill = {-1, -1, -1};
                 int[] millBeingExamined = layoutMillList[indexOfMillToBeExamined];
@@ -235,7 +289,7 @@ public class AiPlayer extends Player implements GeneratesAction {
                     }
                     ArrayList<Integer> emptyAdjacentPositions = new ArrayList<Integer>();
                     ArrayList<Integer> notEmptyAdjacentPositions = new ArrayList<Integer>();
-                    for (Integer adjacentPosition : board.getAdjacentPositions(legalPosition)) {
+                    for (int adjacentPosition : board.getAdjacencies(legalPosition)) {
                         if (board.getPositionState(adjacentPosition) == -1){
                             emptyAdjacentPositions.add(adjacentPosition);
                         }
@@ -330,7 +384,7 @@ public class AiPlayer extends Player implements GeneratesAction {
             if (emptyCount == 1){
                 heuristicScore += 100;
                 if (emptyCount == 1){
-                    if (getNumTokensToPlace() > 0){
+                    if (gameState.getNumTokensToPlace(getPlayerNumber()) > 0){
                         Integer positionOfOpen = millOfPositions[emptyIndex];
                         ArrayList<Integer> positionsAdjacentToBlocker = board.getAdjacentPositions(positionOfOpen);
                         for (Integer millPosition : millOfPositions) {
@@ -355,7 +409,7 @@ public class AiPlayer extends Player implements GeneratesAction {
         else if (playerCount == 0){
             heuristicScore -= 70*opponentCount;
             if (emptyCount == 1){
-                if (getNumTokensToPlace() > 0){
+                if (gameState.getNumTokensToPlace(getPlayerNumber()) > 0){
                     Integer positionOfOpen = millOfPositions[emptyIndex];
                     ArrayList<Integer> positionsAdjacentToBlocker = board.getAdjacentPositions(positionOfOpen);
                     for (Integer millPosition : millOfPositions) {
@@ -380,7 +434,7 @@ public class AiPlayer extends Player implements GeneratesAction {
         else if (playerCount == 1 && opponentCount > 0){
             heuristicScore += 50*opponentCount;
             if (emptyCount == 0){
-                if (getNumTokensToPlace() > 0){
+                if (gameState.getNumTokensToPlace(getPlayerNumber()) > 0){
                     Integer positionOfBlocker = millOfPositions[playerIndex];
                     ArrayList<Integer> positionsAdjacentToBlocker = board.getAdjacentPositions(positionOfBlocker);
                     for (Integer millPosition : millOfPositions) {
@@ -435,19 +489,19 @@ public class AiPlayer extends Player implements GeneratesAction {
      */
     private ArrayList<Integer> getShortestPathToCreateMillRecursive(Integer startPosition, Integer positionThatIsNowOpen, Integer positionThatIsNowPlayer, Integer playerNumber, ArrayList<Integer> currentPath, Integer depth){
         int[][] layoutMillList = board.getLayoutMillList();
-        ArrayList<ArrayList<Integer>> positionToMillIndex = getPositionToMillIndex(layoutMillList);
+        int[][] positionToMillIndex = board.getPositionToMillIndex();
         boolean millFound = false;
-        ArrayList<Integer> adjacentPositions = board.getAdjacentPositions(startPosition);
+        int[] adjacentPositions = board.getAdjacencies(startPosition);
         ArrayList<Integer> adjacentEmptyUnexaminedPositions = new ArrayList<Integer>();
         currentPath.add(startPosition);
 
-        for (Integer adjacentPosition : adjacentPositions) {
+        for (int adjacentPosition : adjacentPositions) {
             if ((board.getPositionState(adjacentPosition) == -1 || adjacentPosition == positionThatIsNowOpen) && adjacentPosition != positionThatIsNowPlayer){
                 if (!searchedPositions.contains(adjacentPosition)){
                     adjacentEmptyUnexaminedPositions.add(adjacentPosition);
                 }
-                ArrayList<Integer> millsToBeExamined = positionToMillIndex.get(adjacentPosition);
-                for (Integer indexOfMillToBeExamined : millsToBeExamined) {
+                int[] millsToBeExamined = positionToMillIndex[adjacentPosition];
+                for (int indexOfMillToBeExamined : millsToBeExamined) {
                     int[] millToBeExamined = layoutMillList[indexOfMillToBeExamined];
                     int emptyCount = 0;
                     int opponentCount = 0;
@@ -483,24 +537,4 @@ public class AiPlayer extends Player implements GeneratesAction {
         }
         return bestPath;
     }
-
-    /**
-     * This method gets the position to mill index, which is a list of lists that contains the index of the mill that each position is in
-     * @param layoutMillList the layout mill list
-     * @return the position to mill index
-     */
-    private ArrayList<ArrayList<Integer>> getPositionToMillIndex(int[][] layoutMillList){
-        ArrayList<ArrayList<Integer>> positionToMillIndex = new ArrayList<ArrayList<Integer>>();
-        for (int i = 0; i < board.numberOfPositions(); i++) {
-            positionToMillIndex.add(new ArrayList<Integer>());
-        }
-        Integer millIndex = 0;
-        for (int[] mill : layoutMillList) {
-            for (int millPosition : mill) {
-                positionToMillIndex.get(millPosition).add(millIndex);
-            }
-            millIndex++;
-        }
-        return positionToMillIndex;
-    }
 }
@@ -0,0 +1,137 @@
+package Players;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import Actions.Action;
+import Actions.ActionController;
+import Endgame.EndgameDatabase;
+import Game.Game;
+import Game.GameState;
+import Opening.OpeningBook;
+import Search.AlphaBetaSearch;
+import Search.Evaluator;
+
+/**
+ * This class is used to represent an AI player which chooses its actions with an iterative deepening alpha-beta
+ * search. It extends the Player class, and searches for a configurable amount of time on each turn with a configurable
+ * number of threads. The search runs in the background on the AiExecutor, on a copy of the game state, and only the
+ * chosen action is passed back to the Event Dispatch Thread. If an endgame database has been generated in the default
+ * directory, the search plays the positions in it perfectly, and if an opening book has been built in the default file,
+ * its placements are played without searching. The evaluation weights are read from the default weights file if it
+ * exists.
+ * @see AiExecutor
+ * @see Player
+ * @see GeneratesAction
+ * @see AlphaBetaSearch
+ * @see EndgameDatabase
+ * @see OpeningBook
+ * @see Evaluator
+ */
+public class AlphaBetaPlayer extends Player implements GeneratesAction {
+
+    public static final int DEFAULT_SEARCH_TIME_MS = 1000;
+    public static final int DEFAULT_TRANSPOSITION_TABLE_SIZE_MB = 64;
+    public static final int DEFAULT_NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    private int searchTimeMs;
+    private AlphaBetaSearch search;
+    private CompletableFuture<Action> pendingAction;
+
+    /**
+     * This constructor creates a new alpha-beta player with the given player number, token image path, time budget,
+     * transposition table size and number of search threads.
+     * @param playerNum the player number of the AI player
+     * @param tokenImgPath the token image path of the AI player
+     * @param _searchTimeMs the time budget for each search in milliseconds
+     * @param transpositionTableSizeMb the memory to use for the search's transposition table in megabytes
+     * @param numThreads the number of threads to search with
+     */
+    public AlphaBetaPlayer(int playerNum, String tokenImgPath, int _searchTimeMs, int transpositionTableSizeMb, int numThreads) {
+        super(playerNum, tokenImgPath);
+        searchTimeMs = _searchTimeMs;
+        search = new AlphaBetaSearch(transpositionTableSizeMb, numThreads);
+        if (EndgameDatabase.DEFAULT_DIRECTORY.isDirectory()) {
+            try {
+                search.setEndgameDatabase(EndgameDatabase.load(EndgameDatabase.DEFAULT_DIRECTORY));
+            }
+            catch (IOException e) {
+                System.out.println("Could not load the endgame database: " + e.getMessage());
+            }
+        }
+        if (Evaluator.DEFAULT_FILE.isFile()) {
+            try {
+                search.setEvaluator(Evaluator.load(Evaluator.DEFAULT_FILE));
+            }
+            catch (IOException e) {
+                System.out.println("Could not load the evaluation weights: " + e.getMessage());
+            }
+        }
+        if (OpeningBook.DEFAULT_FILE.isFile()) {
+            try {
+                search.setOpeningBook(OpeningBook.load(OpeningBook.DEFAULT_FILE));
+            }
+            catch (IOException e) {
+                System.out.println("Could not load the opening book: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void generateAction(Game game, ActionController actionController) {
+        GameState gameState = new GameState(actionController.getGameState()); // the live game state is only used on the Event Dispatch Thread
+        int playerNumber = getPlayerNumber();
+
+        pendingAction = game.getAiExecutor().submit(() -> search.findBestAction(gameState, playerNumber, searchTimeMs), 0, action -> {
+            if (action == null) {
+                return; // no legal actions, so the game is over
+            }
+            if (search.isOpeningBookHit()) {
+                System.out.println("Opening book move in " + search.getSearchTimeMs() + " ms");
+            }
+            else if (search.isEndgameDatabaseHit()) {
+                System.out.println("Endgame database move in " + search.getSearchTimeMs() + " ms");
+            }
+            else {
+                System.out.println("Alpha-beta search (" + search.getNumThreads() + " threads): depth " + search.getDepthReached() + ", " + search.getNodesSearched()
+                        + " nodes in " + search.getSearchTimeMs() + " ms (" + search.getNodesPerSecond() + " nodes/s), "
+                        + Math.round(100 * search.getTranspositionTable().getHitRate()) + "% transposition table hits");
+            }
+
+            // perform the action through the same clicks a human player would make
+            if (action.getPositionIndexStart() != -1) {
+                game.handlePositionClick(action.getPositionIndexStart());
+            }
+            game.handlePositionClick(action.getPositionIndexEnd());
+        }, exception -> playFallbackAction(game, actionController, exception));
+        pendingAction.whenComplete((action, exception) -> {
+            if (exception instanceof CancellationException) {
+                search.stop(); // cancelling the future does not interrupt a search which has already started
+            }
+        });
+    }
+
+    /**
+     * Getter for the action the player is currently searching for.
+     * @return The future chosen action, or null if the player has not searched yet
+     */
+    public CompletableFuture<Action> getPendingAction() {
+        return pendingAction;
+    }
+
+    /**
+     * Getter for the time budget of each search.
+     * @return the time budget in milliseconds
+     */
+    public int getSearchTimeMs() {
+        return searchTimeMs;
+    }
+
+    /**
+     * Setter for the time budget of each search.
+     * @param _searchTimeMs the time budget in milliseconds
+     */
+    public void setSearchTimeMs(int _searchTimeMs) {
+        searchTimeMs = _searchTimeMs;
+    }
+}
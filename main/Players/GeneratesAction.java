@@ -1,6 +1,7 @@
 package Players;
 
 import Actions.ActionController;
+import Game.Game;
 
 /**
  * This interface is used to represent a player that can generate an action.
@@ -8,7 +9,8 @@ import Actions.ActionController;
 public interface GeneratesAction {
     /**
      * This method is used to generate a action for the player.
+     * @param game The game the player is playing in, which the action is performed on.
      * @param actionController The action controller that is used to execute the action.
      */
-    public void generateAction(ActionController actionController);
+    public void generateAction(Game game, ActionController actionController);
 }
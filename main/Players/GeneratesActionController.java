@@ -3,32 +3,24 @@ package Players;
 import java.util.ArrayList;
 
 import Actions.ActionController;
+import Game.Game;
 
 /**
- * This class manages all the players that can generate an action.
+ * This class manages all the players that can generate an action in one game.
  */
 public class GeneratesActionController {
-    private static GeneratesActionController instance;
+    private Game game;
     private ArrayList<GeneratesAction> actionGenerators;
 
     /**
      * This constructor is used to create a GeneratesActionController object.
+     * @param _game The game the players are playing in.
      */
-    private GeneratesActionController() {
+    public GeneratesActionController(Game _game) {
+        game = _game;
         actionGenerators = new ArrayList<GeneratesAction>();
     }
 
-    /**
-     * This method is used to get the instance of the GeneratesActionController.
-     * @return The instance of the GeneratesActionController.
-     */
-    public static GeneratesActionController getInstance() {
-        if (instance == null) {
-            instance = new GeneratesActionController();
-        }
-        return instance;
-    }
-
     /**
      * This method is used to add a action generator to the list of action generators.
      * @param actionGenerator The action generator to add to the list.
@@ -46,7 +38,7 @@ public class GeneratesActionController {
         // get the player from the list and generate a move
         if (checkPlayerGeratesAction(player)) {
             int moveGenerator_index = actionGenerators.indexOf(player);
-            actionGenerators.get(moveGenerator_index).generateAction(actionController);
+            actionGenerators.get(moveGenerator_index).generateAction(game, actionController);
         }
 
     }
@@ -0,0 +1,116 @@
+package Players;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import Actions.Action;
+import Actions.ActionController;
+import Game.Game;
+import Game.GameState;
+import Search.MonteCarloTreeSearch;
+
+/**
+ * This class is used to represent an AI player which chooses its actions with a Monte Carlo tree search. It extends
+ * the Player class, and searches on each turn until either a time budget or a rollout budget runs out, with a
+ * configurable number of threads. Like the alpha-beta player, the search runs in the background on the AiExecutor on a
+ * copy of the game state, and only the chosen action is passed back to the Event Dispatch Thread.
+ * @see AiExecutor
+ * @see Player
+ * @see GeneratesAction
+ * @see MonteCarloTreeSearch
+ */
+public class MctsPlayer extends Player implements GeneratesAction {
+
+    public static final int DEFAULT_SEARCH_TIME_MS = 1000;
+    public static final long DEFAULT_MAX_ROLLOUTS = MonteCarloTreeSearch.NO_ITERATION_LIMIT;
+    public static final int DEFAULT_NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    private int searchTimeMs;
+    private long maxRollouts;
+    private MonteCarloTreeSearch search;
+    private CompletableFuture<Action> pendingAction;
+
+    /**
+     * This constructor creates a new MCTS player with the given player number, token image path, budgets, number of
+     * search threads and rollout policy.
+     * @param playerNum the player number of the AI player
+     * @param tokenImgPath the token image path of the AI player
+     * @param _searchTimeMs the time budget for each search in milliseconds
+     * @param _maxRollouts the rollout budget for each search over all threads, or
+     * MonteCarloTreeSearch.NO_ITERATION_LIMIT
+     * @param numThreads the number of threads to search with
+     * @param rolloutPolicy the way rollouts choose their moves
+     */
+    public MctsPlayer(int playerNum, String tokenImgPath, int _searchTimeMs, long _maxRollouts, int numThreads,
+            MonteCarloTreeSearch.RolloutPolicy rolloutPolicy) {
+        super(playerNum, tokenImgPath);
+        searchTimeMs = _searchTimeMs;
+        maxRollouts = _maxRollouts;
+        search = new MonteCarloTreeSearch(numThreads, rolloutPolicy, System.nanoTime());
+    }
+
+    @Override
+    public void generateAction(Game game, ActionController actionController) {
+        GameState gameState = new GameState(actionController.getGameState()); // the live game state is only used on the Event Dispatch Thread
+        int playerNumber = getPlayerNumber();
+
+        pendingAction = game.getAiExecutor().submit(() -> search.findBestAction(gameState, playerNumber, searchTimeMs, maxRollouts), 0, action -> {
+            if (action == null) {
+                return; // no legal actions, so the game is over
+            }
+            System.out.println("MCTS (" + search.getNumThreads() + " threads): " + search.getRollouts() + " rollouts in "
+                    + search.getSearchTimeMs() + " ms (" + search.getRolloutsPerSecond() + " rollouts/s), "
+                    + Math.round(100 * search.getBestWinRate()) + "% expected score");
+
+            // perform the action through the same clicks a human player would make
+            if (action.getPositionIndexStart() != -1) {
+                game.handlePositionClick(action.getPositionIndexStart());
+            }
+            game.handlePositionClick(action.getPositionIndexEnd());
+        }, exception -> playFallbackAction(game, actionController, exception));
+        pendingAction.whenComplete((action, exception) -> {
+            if (exception instanceof CancellationException) {
+                search.stop(); // cancelling the future does not interrupt a search which has already started
+            }
+        });
+    }
+
+    /**
+     * Getter for the action the player is currently searching for.
+     * @return The future chosen action, or null if the player has not searched yet
+     */
+    public CompletableFuture<Action> getPendingAction() {
+        return pendingAction;
+    }
+
+    /**
+     * Getter for the time budget of each search.
+     * @return the time budget in milliseconds
+     */
+    public int getSearchTimeMs() {
+        return searchTimeMs;
+    }
+
+    /**
+     * Setter for the time budget of each search.
+     * @param _searchTimeMs the time budget in milliseconds
+     */
+    public void setSearchTimeMs(int _searchTimeMs) {
+        searchTimeMs = _searchTimeMs;
+    }
+
+    /**
+     * Getter for the rollout budget of each search.
+     * @return the number of rollouts over all threads, or MonteCarloTreeSearch.NO_ITERATION_LIMIT
+     */
+    public long getMaxRollouts() {
+        return maxRollouts;
+    }
+
+    /**
+     * Setter for the rollout budget of each search.
+     * @param _maxRollouts the number of rollouts over all threads, or MonteCarloTreeSearch.NO_ITERATION_LIMIT
+     */
+    public void setMaxRollouts(long _maxRollouts) {
+        maxRollouts = _maxRollouts;
+    }
+}
@@ -1,23 +1,28 @@
 package Players;
 
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
 import javax.swing.ImageIcon;
 
+import Actions.Action;
+import Actions.ActionController;
+import Actions.ActionGenerator;
+import Game.Game;
+
 /**
- * This abstract class is used to represent a player in the game. It responsible for storing the player's number, token 
- * image path, number of tokens to place, number of tokens on the board, and game phase.
+ * This abstract class is used to represent a player in the game. It responsible for storing the player's number and
+ * token image. The player's number of tokens to place, number of tokens on the board, and game phase are stored in the
+ * game state.
  * @see HumanPlayer
  * @see AiPlayer
  * @see PlayerNumber
- * @see PhaseIndicator
+ * @see Game.GameState
  * @see ImageIcon
  */
 public abstract class Player {
-    private int numTokensToPlace = 9;
-    private int tokensRemaining = 0;
     private int playerNumber;
-    private PhaseIndicator gamePhase = PhaseIndicator.PHASE_ONE;
     private ImageIcon tokenIcon;
-    private boolean hasLost = false;
 
     /**
      * This constructor is used to create a player object.
@@ -29,37 +34,6 @@ public abstract class Player {
         tokenIcon = new ImageIcon(tokenImgPath);
     }
 
-    /**
-     * Getter for the number or remaining tokens to place.
-     * @return The number of remaining tokens to place.
-     */
-    public int getNumTokensToPlace() {
-        return numTokensToPlace;
-    }
-
-    /**
-     * Decrements the number of remaining tokens to place by one.
-     */
-    public void decrementNumTokensToPlace() {
-        numTokensToPlace -= 1;
-    }
-
-    /**
-     * Getter for the number of tokens on the board.
-     * @return The number of tokens on the board.
-     */
-    public int getTokensRemaining() {
-        return tokensRemaining;
-    }
-
-    /**
-     * Sets the number which the player understands to be the number of tokens on the board.
-     * @param _tokensRemaining
-     */
-    public void setTokensRemaining(int _tokensRemaining) {
-        tokensRemaining = _tokensRemaining;
-    }
-
     /**
      * Getter for the player's number.
      * @return The player's number.
@@ -68,22 +42,6 @@ public abstract class Player {
         return playerNumber;
     }
 
-    /**
-     * Setter for the player's game phase.
-     * @param _gamePhase The player's new game phase.
-     */
-    public void setGamePhase(PhaseIndicator _gamePhase) {
-        gamePhase = _gamePhase;
-    }
-
-    /**
-     * Getter for the player's game phase.
-     * @return The player's game phase.
-     */
-    public PhaseIndicator getGamePhase() {
-        return gamePhase;
-    }
-
     /**
      * Getter for the player's token image.
      * @return The player's token image.
@@ -93,18 +51,23 @@ public abstract class Player {
     }
 
     /**
-     * Getter for the player's loss status.
-     * @return True if the player has lost, false otherwise.
-     */
-    public boolean getHasLost() {
-        return hasLost;
-    }
-
-    /**
-     * Setter for the player's loss status.
-     * @param _hasLost True if the player has lost, false otherwise.
+     * This method plays a random legal action for the player when its AI failed to choose one, so that the game
+     * carries on instead of waiting forever for the AI's move. It must be called on the Event Dispatch Thread.
+     * @param game The game the player is playing in.
+     * @param actionController The action controller for the player's current phase.
+     * @param exception The exception the AI's thinking threw.
      */
-    public void setHasLost(boolean _hasLost) {
-        hasLost = _hasLost;
+    protected void playFallbackAction(Game game, ActionController actionController, Throwable exception) {
+        System.out.println("Player " + (playerNumber + 1) + "'s AI could not choose an action, so a random one is played: " + exception);
+        ArrayList<Action> actions = ActionGenerator.generateActions(actionController.getGameState(), playerNumber);
+        if (actions.isEmpty()) {
+            return; // no legal actions, so the game is over
+        }
+        Action action = actions.get(ThreadLocalRandom.current().nextInt(actions.size()));
+        // perform the action through the same clicks a human player would make
+        if (action.getPositionIndexStart() != -1) {
+            game.handlePositionClick(action.getPositionIndexStart());
+        }
+        game.handlePositionClick(action.getPositionIndexEnd());
     }
 }
@@ -4,34 +4,31 @@ import java.util.ArrayList;
 
 import javax.swing.ImageIcon;
 
+import Search.MonteCarloTreeSearch;
+
 /**
  * This class is used to controll the players in the game. It is responsible for storing the players and their number.
+ * Players which generate their own actions are registered with the game's GeneratesActionController as they are added.
  * @see Player
+ * @see GeneratesActionController
  * @see HumanPlayer
  * @see AiPlayer
+ * @see AlphaBetaPlayer
+ * @see MctsPlayer
  */
 public class PlayerController {
     ArrayList<Player> players;
-    private static PlayerController instance;
     private Integer numPlayers;
+    private GeneratesActionController generatesActionController;
 
     /**
-     * Private constructor called by getInstance method when instance is null
+     * Constructor for the PlayerController class.
+     * @param _generatesActionController The controller to register players which generate their own actions with.
      */
-    private PlayerController() {
+    public PlayerController(GeneratesActionController _generatesActionController) {
         players = new ArrayList<Player>();
         numPlayers = 0;
-    }
-    
-    /**
-     * This method is used to get the instance of the PlayerController class.
-     * @return The instance of the PlayerController class.
-     */
-    public static PlayerController getInstance() {
-        if (instance == null) {
-            instance = new PlayerController();
-        }
-        return instance;
+        generatesActionController = _generatesActionController;
     }
 
     /**
@@ -52,71 +49,55 @@ public class PlayerController {
      * @return The player's number.
      */
     public int addAiPlayer(String tokenImgPath) {
-        players.add(new AiPlayer(numPlayers, tokenImgPath));
+        AiPlayer aiPlayer = new AiPlayer(numPlayers, tokenImgPath);
+        players.add(aiPlayer);
+        generatesActionController.addActionGenerator(aiPlayer);
         int playerIndex = numPlayers;
         numPlayers += 1;
         return playerIndex;
     }
 
     /**
-     * This method is used to get the number of players in the game.
-     * @param playerNum The player's number.
-     * @return The number of players in the game.
-     */
-    public ImageIcon getTokenIcon(int playerNum) {
-        return players.get(playerNum).getTokenIcon();
-    }
-
-    /**
-     * This method is used to get the phase of the specified player.
-     * @param playerNum The player's number.
-     * @return The phase of the specified player.
-     */
-    public PhaseIndicator getGamePhase(int playerNum) {
-        return players.get(playerNum).getGamePhase();
-    }
-
-    /**
-     * This method is used to set the phase of the specified player.
-     * @param playerNum The player's number.
-     * @param phase The phase to set the player's phase to.
-     */
-    public void setGamePhase(int playerNum, PhaseIndicator phase) {
-        players.get(playerNum).setGamePhase(phase);
-    }
-
-    /**
-     * This method is used to get the number of tokens on the board for the specified player.
-     * @param playerNum The player's number.
-     * @return The number of tokens on the board for the specified player.
-     */
-    public int getTokensRemaining(int playerNum) {
-        return players.get(playerNum).getTokensRemaining();
-    }
-
-    /**
-     * This method is used to set the number of tokens that the specified player has on the board.
-     * @param playerNum The player's number.
+     * This method is to add an alpha-beta search AI player to the game.
+     * @param tokenImgPath The path to the player's token image.
+     * @param searchTimeMs The time budget for each of the player's searches in milliseconds.
+     * @param numThreads The number of threads to search with.
+     * @return The player's number.
      */
-    public void setTokensRemaining(int playerNum, int _tokensRemaining) {
-        players.get(playerNum).setTokensRemaining(_tokensRemaining);
+    public int addAlphaBetaPlayer(String tokenImgPath, int searchTimeMs, int numThreads) {
+        AlphaBetaPlayer alphaBetaPlayer = new AlphaBetaPlayer(numPlayers, tokenImgPath, searchTimeMs, AlphaBetaPlayer.DEFAULT_TRANSPOSITION_TABLE_SIZE_MB, numThreads);
+        players.add(alphaBetaPlayer);
+        generatesActionController.addActionGenerator(alphaBetaPlayer);
+        int playerIndex = numPlayers;
+        numPlayers += 1;
+        return playerIndex;
     }
 
     /**
-     * This method is used to set the number of tokens that the specified player has to place on the board.
-     * @param playerNum The player's number.
-     * @return The number of tokens that the specified player has to place on the board.
+     * This method is to add a Monte Carlo tree search AI player to the game, with heuristic rollouts and no rollout
+     * limit.
+     * @param tokenImgPath The path to the player's token image.
+     * @param searchTimeMs The time budget for each of the player's searches in milliseconds.
+     * @param numThreads The number of threads to search with.
+     * @return The player's number.
      */
-    public int getNumTokensToPlace(int playerNum) {
-        return players.get(playerNum).getNumTokensToPlace();
+    public int addMctsPlayer(String tokenImgPath, int searchTimeMs, int numThreads) {
+        MctsPlayer mctsPlayer = new MctsPlayer(numPlayers, tokenImgPath, searchTimeMs, MctsPlayer.DEFAULT_MAX_ROLLOUTS, numThreads,
+                MonteCarloTreeSearch.RolloutPolicy.HEURISTIC);
+        players.add(mctsPlayer);
+        generatesActionController.addActionGenerator(mctsPlayer);
+        int playerIndex = numPlayers;
+        numPlayers += 1;
+        return playerIndex;
     }
 
     /**
-     * This method is used to decrement the number of tokens that the specified player has to place on the board.
+     * This method is used to get the number of players in the game.
      * @param playerNum The player's number.
+     * @return The number of players in the game.
      */
-    public void decrementNumTokensToPlace(int playerNum) {
-        players.get(playerNum).decrementNumTokensToPlace();
+    public ImageIcon getTokenIcon(int playerNum) {
+        return players.get(playerNum).getTokenIcon();
     }
 
     /**
@@ -127,48 +108,6 @@ public class PlayerController {
         return numPlayers;
     }
 
-    /**
-     * This method is used to get the specified player's name.
-     * @param playerNum The player's number.
-     * @return The specified player's name.
-     */
-    public boolean hasPlayerLost(int playerNum) {
-        return players.get(playerNum).getHasLost();
-    }
-
-    /**
-     * This method is used to set the specified player as having lost the game.
-     * @param playerNum The player's number.
-     */
-    public void setPlayerLost(int playerNum, boolean hasLost) {
-        players.get(playerNum).setHasLost(hasLost);
-    }
-
-    /**
-     * This method returns -1 if there is no winner, otherwise it returns the player number of the winner.
-     * @return The player number of the winner or -1 if there is no winner.
-     */
-    public int findWinner() {
-        
-        boolean foundWinner = false;
-        int noWinner = -1;
-        for (int i = 0; i < numPlayers; i++) {
-            if (players.get(i).getHasLost()) {
-                foundWinner = true;
-                break;
-            }
-        }
-        if (!foundWinner) { return noWinner; }
-
-        for (int i = 0; i < numPlayers; i++) { // this loop is only run if a player has lost the game
-            if (!players.get(i).getHasLost()) {    // if the i'th player hasn't lost the game, they've won
-                return i;
-            }
-        }
-        return noWinner;  // this line should never be called if method works correctly but Java doesn't like conditional returns
-
-    }
-
     /**
      * This method is used to get the specified player.
      * @param playerId The player's number.
@@ -179,9 +118,10 @@ public class PlayerController {
     }
     
     /**
-     * This method is used to reset the instance of the PlayerController class.
+     * This method is used to remove all of the players.
      */
     public void reset() {
-        instance = null;
+        players.clear();
+        numPlayers = 0;
     }
 }
@@ -1,36 +1,72 @@
 package Positions;
 
 import java.util.ArrayList;
-
-import Display.DisplayController;
+import java.util.Arrays;
 
 /**
  * This class is used to represent the board in the game. It is responsible for initialising the board and managing the
- * positions on the board.
- * @see Position
+ * positions on the board. The state of the board is stored as a bitboard, with one 24-bit occupancy mask per player
+ * where bit i is set if that player has a token on position i. The board also keeps a Zobrist hash of its positions
+ * and mill formed flag, which is updated incrementally as they change. For each player it also keeps the set of mills
+ * the player has formed and the set of mills where the player holds all but one position and the last is empty,
+ * updated for only the mills through a position when its state changes, so counting a player's tokens in a mill,
+ * their mills or their open two-in-a-rows is a bit count rather than a scan of the layout.
+ * @see Zobrist
  * @see PlayerNumber
  */
 public class Board {
-    private ArrayList<Position> positions;
+    private static final int NUM_POSITIONS = 24;
+    private static final int ALL_POSITIONS_MASK = (1 << NUM_POSITIONS) - 1;
+    private static final int MAX_MILLS = 64; // the mill sets are held in a long
+    /* The default layout is a list of all the mills on the board for a regular game of nine men's morris. Each mill is an ordered list of the positions in the mill. */
+    public static final int[][] DEFAULT_LAYOUT = new int[][] { {0,1,2}, {0,9,21}, {1,4,7}, {2,14,23}, {3,4,5}, {3,10,18}, {5,13,20}, {6,7,8}, {6,11,15}, {8,12,17}, {9,10,11}, {12,13,14}, {15,16,17}, {16,19,22}, {18,19,20}, {21,22,23} };
     private boolean millFormed;
     private int[][] layoutMillList;
+    private int[] playerMasks;            // [player 1 occupancy, player 2 occupancy]
+    private int[] millMasks;              // one mask per mill in layoutMillList
+    private int[][] adjacencyTable;       // the indices of the positions adjacent to each position
+    private int[] adjacencyMasks;         // the positions adjacent to each position as a mask
+    private int[][] positionToMillIndex;  // the indices of the mills in layoutMillList that each position is a part of
+    private long hash;                    // Zobrist hash of the positions and mill formed flag
+    private int[] millLengths;            // the number of positions in each mill
+    private long[] formedMills;           // per player, bit j is set if the player holds every position of mill j
+    private long[] openTwoMills;          // per player, bit j is set if the player holds all but one position of mill j and the other is empty
+
     /**
      * This constructor initialises the board.
      */
     public Board(int[][] layoutMillList) {
         /*
-         * Board initialiser. This method creates the positions on the board and sets up the mills.
+         * Board initialiser. This method sets up the mills and the topology of the positions on the board.
          */
-        positions = new ArrayList<Position>();
         // The millList is a list of all the mills on the board. Each mill is an ordered list of the positions in the mill.
         this.layoutMillList = layoutMillList;
-        
+
         millFormed = false;
-        int positionIndex = 0;
-        for (ArrayList<ArrayList<Integer>> position : setUpPositions()) {
-            this.positions.add(new Position(position, positionIndex));
-            positionIndex++;
-        }
+        playerMasks = new int[2];
+        setUpMills();
+        setUpAdjacencies();
+        formedMills = new long[2];
+        openTwoMills = new long[2];
+    }
+
+    /**
+     * This constructor creates a copy of another board. The mill layout and the precomputed tables are shared, since
+     * they never change, and only the state of the positions is copied.
+     * @param other The board to copy.
+     */
+    public Board(Board other) {
+        layoutMillList = other.layoutMillList;
+        millMasks = other.millMasks;
+        adjacencyTable = other.adjacencyTable;
+        adjacencyMasks = other.adjacencyMasks;
+        positionToMillIndex = other.positionToMillIndex;
+        millLengths = other.millLengths;
+        millFormed = other.millFormed;
+        playerMasks = other.playerMasks.clone();
+        hash = other.hash;
+        formedMills = other.formedMills.clone();
+        openTwoMills = other.openTwoMills.clone();
     }
 
     /**
@@ -46,6 +82,9 @@ public class Board {
      * @param milBoolean The boolean to set millFormed to
      */
     public void setMillFormed(Boolean milBoolean) {
+        if (millFormed != milBoolean) {
+            hash ^= Zobrist.millFormedKey();
+        }
         millFormed = milBoolean;
     }
 
@@ -55,7 +94,39 @@ public class Board {
      * @param state The state to change the position to.
      */
     public void changePositionState(int positionIndex, int playerNum) {
-        positions.get(positionIndex).setState(playerNum);
+        int previousPlayerNum = getPositionState(positionIndex);
+        if (previousPlayerNum != -1) {
+            playerMasks[previousPlayerNum] &= ~(1 << positionIndex);
+            hash ^= Zobrist.positionKey(previousPlayerNum, positionIndex);
+        }
+        if (playerNum != -1) {
+            playerMasks[playerNum] |= 1 << positionIndex;
+            hash ^= Zobrist.positionKey(playerNum, positionIndex);
+        }
+        for (int millIndex : positionToMillIndex[positionIndex]) {
+            updateMillSets(millIndex);
+        }
+    }
+
+    /**
+     * This method updates whether each player has formed a mill, or has an open two-in-a-row in it, after the state of
+     * one of its positions has changed.
+     * @param millIndex The index of the mill in the layout mill list.
+     */
+    private void updateMillSets(int millIndex) {
+        long millBit = 1L << millIndex;
+        int millMask = millMasks[millIndex];
+        int held = playerMasks[0] & millMask;
+        int otherHeld = playerMasks[1] & millMask;
+        for (int player = 0; player < 2; player++) {
+            boolean formed = held == millMask;
+            boolean openTwo = otherHeld == 0 && Integer.bitCount(held) == millLengths[millIndex] - 1;
+            formedMills[player] = (formedMills[player] & ~millBit) | (formed ? millBit : 0);
+            openTwoMills[player] = (openTwoMills[player] & ~millBit) | (openTwo ? millBit : 0);
+            int swap = held;
+            held = otherHeld;
+            otherHeld = swap;
+        }
     }
 
     /**
@@ -64,7 +135,34 @@ public class Board {
      * @return State The state of the position.
      */
     public int getPositionState(int positionIndex) {
-        return positions.get(positionIndex).getState();
+        int positionMask = 1 << positionIndex;
+        if ((playerMasks[0] & positionMask) != 0) {
+            return 0;
+        }
+        if ((playerMasks[1] & positionMask) != 0) {
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * This method returns the occupancy mask of the positions on the board that are in a given state.
+     * @param state The state to find the positions of.
+     * @return A mask where bit i is set if position i is in the given state.
+     */
+    public int getPositionsMask(int state) {
+        if (state == -1) {
+            return ~(playerMasks[0] | playerMasks[1]) & ALL_POSITIONS_MASK;
+        }
+        return playerMasks[state];
+    }
+
+    /**
+     * This method returns the Zobrist hash of the positions on the board and the mill formed flag.
+     * @return The hash of the board.
+     */
+    public long getHash() {
+        return hash;
     }
 
     /**
@@ -73,57 +171,138 @@ public class Board {
      * @return An ArrayList containing the indices of the ajacent positions.
      */
     public ArrayList<Integer> getAdjacentPositions(int positionIndex){
-        return positions.get(positionIndex).findAdjacencies();
+        ArrayList<Integer> adjacentPositions = new ArrayList<Integer>(adjacencyTable[positionIndex].length);
+        for (int adjacentPosition : adjacencyTable[positionIndex]) {
+            adjacentPositions.add(adjacentPosition);
+        }
+        return adjacentPositions;
+    }
+
+    /**
+     * This method returns the positions ajacent to a given position without copying them. The returned array is
+     * shared by the board and must not be modified.
+     * @param positionIndex The index of the position to get the ajacent positions of.
+     * @return An array containing the indices of the ajacent positions.
+     */
+    public int[] getAdjacencies(int positionIndex) {
+        return adjacencyTable[positionIndex];
     }
 
     /**
-     * This method defines the arrangement of the positions on the board.
-     * @return An ArrayList of ArrayLists of ArrayLists of Integers. The first ArrayList is the positions on the board. 
-     * The second ArrayList is the mills that the position is in. The third ArrayList is the positions in the mill.
+     * This method returns the positions ajacent to a given position as a mask.
+     * @param positionIndex The index of the position to get the ajacent positions of.
+     * @return A mask where bit i is set if position i is ajacent to the given position.
      */
-    private ArrayList<ArrayList<ArrayList<Integer>>> setUpPositions() {
-        ArrayList<ArrayList<ArrayList<Integer>>> positionsSetUp = new ArrayList<ArrayList<ArrayList<Integer>>>();
-        for(int i = 0; i < 24; i++) {                                       // 24 is the number of positions
-            positionsSetUp.add(new ArrayList<ArrayList<Integer>>());
-            for(int j = 0; j < layoutMillList.length; j++) {                      // Iterating through the mills
-                for(int k = 0; k < layoutMillList[j].length; k++) {               // Iterating through the positions in the mills
-                    if(layoutMillList[j][k] == i) {                               // If the position is in the mill then add the mill to the position
-                        ArrayList<Integer> mill = new ArrayList<Integer>();
-                        for(int l = 0; l < layoutMillList[j].length; l++) {
-                            mill.add(layoutMillList[j][l]);
+    public int getAdjacencyMask(int positionIndex) {
+        return adjacencyMasks[positionIndex];
+    }
+
+    /**
+     * This method returns the adjacency table of the board, where row i holds the indices of the positions ajacent to
+     * position i. The table is shared by the board and must not be modified.
+     * @return The adjacency table of the board.
+     */
+    public int[][] getAdjacencyTable() {
+        return adjacencyTable;
+    }
+
+    /**
+     * This method returns the position to mill index table of the board, where row i holds the indices (into the
+     * layout mill list) of the mills that position i is a part of. The table is shared by the board and must not be
+     * modified.
+     * @return The position to mill index table of the board.
+     */
+    public int[][] getPositionToMillIndex() {
+        return positionToMillIndex;
+    }
+
+    /**
+     * This method precomputes a mask for every mill in the layout, as well as the indices of the mills that each
+     * position is a part of, so that mill detection is a mask-and-compare.
+     */
+    private void setUpMills() {
+        if (layoutMillList.length > MAX_MILLS) {
+            throw new IllegalArgumentException("A layout can have at most " + MAX_MILLS + " mills");
+        }
+        millMasks = new int[layoutMillList.length];
+        millLengths = new int[layoutMillList.length];
+        int[] millsPerPosition = new int[NUM_POSITIONS];
+        for (int j = 0; j < layoutMillList.length; j++) {
+            millLengths[j] = layoutMillList[j].length;
+            for (int millPosition : layoutMillList[j]) {
+                millMasks[j] |= 1 << millPosition;
+                millsPerPosition[millPosition]++;
+            }
+        }
+        positionToMillIndex = new int[NUM_POSITIONS][];
+        for (int i = 0; i < NUM_POSITIONS; i++) {
+            positionToMillIndex[i] = new int[millsPerPosition[i]];
+            int millCount = 0;
+            for (int j = 0; j < millMasks.length; j++) {
+                if ((millMasks[j] & (1 << i)) != 0) {
+                    positionToMillIndex[i][millCount] = j;
+                    millCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method precomputes the positions ajacent to each position. Each mill is an ordered list of positions, so a
+     * position is ajacent to its neighbours within every mill that it is a part of.
+     */
+    private void setUpAdjacencies() {
+        adjacencyTable = new int[NUM_POSITIONS][];
+        adjacencyMasks = new int[NUM_POSITIONS];
+        for (int i = 0; i < NUM_POSITIONS; i++) {
+            int[] adjacencies = new int[2 * positionToMillIndex[i].length];
+            int adjacencyCount = 0;
+            for (int millIndex : positionToMillIndex[i]) {
+                int[] mill = layoutMillList[millIndex];
+                for (int k = 0; k < mill.length; k++) {
+                    if (mill[k] == i) {
+                        if (k > 0) {
+                            adjacencies[adjacencyCount++] = mill[k - 1];
+                        }
+                        if (k < mill.length - 1) {
+                            adjacencies[adjacencyCount++] = mill[k + 1];
                         }
-                        positionsSetUp.get(i).add(mill);
                     }
                 }
             }
+            adjacencyTable[i] = Arrays.copyOf(adjacencies, adjacencyCount);
+            for (int adjacentPosition : adjacencyTable[i]) {
+                adjacencyMasks[i] |= 1 << adjacentPosition;
+            }
         }
-        return positionsSetUp;
     }
 
     /**
-     * This method checks if a mill has been formed by a player.
+     * This method checks if the token on a position is in a mill. It does not change the board: the actions set the
+     * mill formed flag through setMillFormed, which keeps the hash up to date.
      * @param positionIndex The index of the position to check for a mill.
      * @return A boolean representing if a mill has been formed.
      */
-    public boolean checkForMill(Integer positionIndex, boolean checkingForNewMill) {
-        ArrayList<ArrayList<Integer>> millList = positions.get(positionIndex).getMillList();
-
-        for(int i=0; i < millList.size(); i++) {
-            ArrayList<Integer> potentialMill = millList.get(i);
-            if (isMill(potentialMill)) {
-                //return true if any potential mill is formed
+    public boolean checkForMill(int positionIndex) {
+        return findFormedMill(positionIndex) != 0;
+    }
 
-                //update board to show mill has been formed
-                millFormed = true;
-                if (checkingForNewMill) {
-                    DisplayController.getInstance().updateNewlyFormedMillPositions(potentialMill);
-                }
-                return isMill(potentialMill);
+    /**
+     * This method finds a mill formed by the token on a position.
+     * @param positionIndex The index of the position to check for a mill.
+     * @return The mask of the first formed mill containing the position, or 0 if the position is not in a mill.
+     */
+    public int findFormedMill(int positionIndex) {
+        int state = getPositionState(positionIndex);
+        if (state == -1) {
+            return 0;
+        }
+        for (int millIndex : positionToMillIndex[positionIndex]) {
+            if ((formedMills[state] & (1L << millIndex)) != 0) {
+                return millMasks[millIndex];
             }
-    
         }
-        //no mill was formed
-        return false;
+        return 0;
     }
 
     /**
@@ -132,38 +311,32 @@ public class Board {
      * @return A boolean representing if the positions form a mill.
      */
     public boolean isMill(ArrayList<Integer> potentialMill) {
-        //checks if the mill passed is formed or not
-        
-        // check if all the states are the same there is a mill
-        for(int i=1; i < potentialMill.size(); i++) {
-            Integer currentState = getPositionState(potentialMill.get(i));
-            Integer prevState = getPositionState(potentialMill.get(i-1));
-
-            // state of current index against state of previous index
-            if (currentState !=  prevState) {
-                return false;
-            }
-
+        int potentialMillMask = 0;
+        for (Integer positionIndex : potentialMill) {
+            potentialMillMask |= 1 << positionIndex;
         }
-        //add to currentMills - if we decide to track mills as we go
-        return true;
+        return isMill(potentialMillMask);
+    }
 
-           
+    /**
+     * This method checks if the positions in a mask are all held by the same player.
+     * @param potentialMillMask The mask of the positions to check if they form a mill.
+     * @return A boolean representing if the positions form a mill.
+     */
+    public boolean isMill(int potentialMillMask) {
+        return (playerMasks[0] & potentialMillMask) == potentialMillMask
+                || (playerMasks[1] & potentialMillMask) == potentialMillMask;
     }
 
     /**
-     * This method returns the indices of the positions on the board that are in a given state.
+     * This method returns the indices of the positions on the board that are in a given state. It creates a list on
+     * every call, so it is only kept for callers which need one: the action controllers and searches use
+     * getPositionsMask.
      * @param state The state to find the positions of.
      * @return An ArrayList containing the indices of the positions in the given state.
      */
     public ArrayList<Integer> findPositionsOfState(int state) {
-        ArrayList<Integer> openPositions = new ArrayList<Integer>();
-        for(int i = 0; i < positions.size(); i++) {
-            if(positions.get(i).getState() == state) {
-                openPositions.add(i);
-            }
-        }
-        return openPositions;
+        return maskToPositions(getPositionsMask(state));
     }
 
     /**
@@ -172,16 +345,68 @@ public class Board {
      * @return A boolean representing if all the tokens of a player are in a mill.
      */
     public boolean allTokensInMill(int playerNum) {
-        ArrayList<Integer> playerTokens = findPositionsOfState(playerNum);
-        boolean result = true;
-        for (int i=0; i<playerTokens.size(); i++) {
-            Integer positionIndex = playerTokens.get(i);
-            if (!checkForMill(positionIndex, false)) {
-                result = false;
-                break;
-            }
+        return (playerMasks[playerNum] & ~getTokensInMillsMask(playerNum)) == 0;
+    }
+
+    /**
+     * This method finds the tokens of a player which are in a mill.
+     * @param playerNum The player to find the tokens in a mill of.
+     * @return A mask where bit i is set if position i holds one of the player's tokens which is in a mill.
+     */
+    public int getTokensInMillsMask(int playerNum) {
+        int tokensInMills = 0;
+        for (long mills = formedMills[playerNum]; mills != 0; mills &= mills - 1) {
+            tokensInMills |= millMasks[Long.numberOfTrailingZeros(mills)];
         }
-        return result; 
+        return tokensInMills;
+    }
+
+    /**
+     * This method returns the number of a player's tokens in a mill.
+     * @param playerNum The player to count the tokens of.
+     * @param millIndex The index of the mill in the layout mill list.
+     * @return The number of the player's tokens on the positions of the mill.
+     */
+    public int getMillCount(int playerNum, int millIndex) {
+        return Integer.bitCount(playerMasks[playerNum] & millMasks[millIndex]);
+    }
+
+    /**
+     * This method returns the mills a player has formed.
+     * @param playerNum The player to find the mills of.
+     * @return A set of mills where bit j is set if the player holds every position of mill j in the layout mill list.
+     */
+    public long getFormedMills(int playerNum) {
+        return formedMills[playerNum];
+    }
+
+    /**
+     * This method returns the mills a player can complete with one more token, because they hold all but one of its
+     * positions and the last position is empty.
+     * @param playerNum The player to find the mills of.
+     * @return A set of mills where bit j is set if mill j in the layout mill list is an open two-in-a-row for the
+     * player.
+     */
+    public long getOpenTwoMills(int playerNum) {
+        return openTwoMills[playerNum];
+    }
+
+    /**
+     * This method returns the number of mills a player has formed.
+     * @param playerNum The player to count the mills of.
+     * @return The number of mills the player holds every position of.
+     */
+    public int getNumFormedMills(int playerNum) {
+        return Long.bitCount(formedMills[playerNum]);
+    }
+
+    /**
+     * This method returns the number of open two-in-a-rows a player has.
+     * @param playerNum The player to count the open two-in-a-rows of.
+     * @return The number of mills the player holds all but one position of, where the last position is empty.
+     */
+    public int getNumOpenTwos(int playerNum) {
+        return Long.bitCount(openTwoMills[playerNum]);
     }
 
     /**
@@ -192,11 +417,33 @@ public class Board {
         return layoutMillList;
     }
 
+    /**
+     * This method returns the masks of the mills in the layout, in the same order as the layout mill list.
+     * @return The masks of the mills in the layout.
+     */
+    public int[] getMillMasks() {
+        return millMasks;
+    }
+
     /**
      * This method returns the number of positions on the board.
      * @return The number of positions on the board.
      */
     public Integer numberOfPositions() {
-        return positions.size();
+        return NUM_POSITIONS;
+    }
+
+    /**
+     * This method converts a mask of positions into a list of the indices of the positions.
+     * @param mask The mask of positions.
+     * @return An ArrayList containing the indices of the positions in ascending order.
+     */
+    public static ArrayList<Integer> maskToPositions(int mask) {
+        ArrayList<Integer> positionIndices = new ArrayList<Integer>(Integer.bitCount(mask));
+        while (mask != 0) {
+            positionIndices.add(Integer.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return positionIndices;
     }
 }
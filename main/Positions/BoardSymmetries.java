@@ -0,0 +1,283 @@
+package Positions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class holds the symmetries of a board layout: the permutations of its positions which map every mill to a mill
+ * and every pair of adjacent positions to adjacent positions, so that positions related by a symmetry play exactly the
+ * same. The symmetries are found from the layout's mill list by a backtracking search, so they are correct for any
+ * layout. The default layout has 16: four rotations, each of which can be mirrored and have its inner and outer
+ * squares swapped.
+ * <p>
+ * Caches of positions can be made up to 16 times smaller by storing only each position's canonical representative, the
+ * board under the symmetry which gives the smallest pair of occupancy masks. Each symmetry has one lookup table per
+ * byte of a mask, so transforming a mask is three lookups and finding the canonical symmetry is a few dozen. Moves
+ * found for the canonical representative are mapped back to the real board with the inverse symmetry.
+ * @see Board
+ * @see Actions.PackedMove#transform
+ */
+public class BoardSymmetries {
+
+    public static final BoardSymmetries DEFAULT = new BoardSymmetries(Board.DEFAULT_LAYOUT);
+    public static final int IDENTITY = 0;
+    private static final int NUM_POSITIONS = 24;
+
+    private int[][] layoutMillList;
+    private int[][] permutations;  // permutations[s][i] is the position that symmetry s maps position i to
+    private int[] inverses;        // the index of the inverse of each symmetry
+    private int[][][] byteTables;  // byteTables[s][b][v] is the mask of byte b with value v transformed by symmetry s
+
+    /**
+     * Constructor for the BoardSymmetries class, which finds every symmetry of a layout.
+     * @param _layoutMillList The layout's list of mills, where each mill is an ordered list of the positions in it
+     */
+    public BoardSymmetries(int[][] _layoutMillList) {
+        layoutMillList = _layoutMillList;
+        Board board = new Board(layoutMillList);
+
+        ArrayList<int[]> found = new ArrayList<int[]>();
+        int[] permutation = new int[NUM_POSITIONS];
+        Arrays.fill(permutation, -1);
+        findSymmetries(board, getSearchOrder(board), 0, permutation, 0, found);
+        found.sort(Arrays::compare); // the identity is the smallest permutation, so it is symmetry 0
+        permutations = found.toArray(new int[0][]);
+
+        inverses = new int[permutations.length];
+        for (int s = 0; s < permutations.length; s++) {
+            int[] inverse = new int[NUM_POSITIONS];
+            for (int i = 0; i < NUM_POSITIONS; i++) {
+                inverse[permutations[s][i]] = i;
+            }
+            for (int t = 0; t < permutations.length; t++) {
+                if (Arrays.equals(permutations[t], inverse)) {
+                    inverses[s] = t;
+                }
+            }
+        }
+
+        byteTables = new int[permutations.length][3][256];
+        for (int s = 0; s < permutations.length; s++) {
+            for (int byteIndex = 0; byteIndex < 3; byteIndex++) {
+                for (int byteValue = 0; byteValue < 256; byteValue++) {
+                    int mask = 0;
+                    for (int bit = 0; bit < 8; bit++) {
+                        if ((byteValue & (1 << bit)) != 0) {
+                            mask |= 1 << permutations[s][8 * byteIndex + bit];
+                        }
+                    }
+                    byteTables[s][byteIndex][byteValue] = mask;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method orders the positions so that each one after the first is adjacent to an earlier one where possible,
+     * so the search for symmetries can reject a partial permutation as soon as it breaks an adjacency.
+     * @param board A board with the layout
+     * @return The positions in the order to assign them
+     */
+    private static int[] getSearchOrder(Board board) {
+        int[] order = new int[NUM_POSITIONS];
+        int numOrdered = 0;
+        int orderedMask = 0;
+        for (int start = 0; start < NUM_POSITIONS; start++) {
+            if ((orderedMask & (1 << start)) != 0) {
+                continue;
+            }
+            int firstOfComponent = numOrdered;
+            order[numOrdered++] = start;
+            orderedMask |= 1 << start;
+            for (int i = firstOfComponent; i < numOrdered; i++) {
+                int unordered = board.getAdjacencyMask(order[i]) & ~orderedMask;
+                for (; unordered != 0; unordered &= unordered - 1) {
+                    order[numOrdered++] = Integer.numberOfTrailingZeros(unordered);
+                }
+                orderedMask |= board.getAdjacencyMask(order[i]);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * This method extends a partial permutation one position at a time, keeping every adjacency and mill among the
+     * positions assigned so far, and records each complete permutation.
+     * @param board A board with the layout
+     * @param order The order to assign the positions in
+     * @param numAssigned The number of positions in order which have been assigned
+     * @param permutation The partial permutation, with -1 for positions which have not been assigned
+     * @param usedMask The positions which have already been assigned as images, as a mask
+     * @param found The list to add complete permutations to
+     */
+    private static void findSymmetries(Board board, int[] order, int numAssigned, int[] permutation, int usedMask, ArrayList<int[]> found) {
+        if (numAssigned == NUM_POSITIONS) {
+            found.add(permutation.clone());
+            return;
+        }
+        int positionIndex = order[numAssigned];
+        for (int image = 0; image < NUM_POSITIONS; image++) {
+            if ((usedMask & (1 << image)) != 0
+                    || board.getAdjacencies(image).length != board.getAdjacencies(positionIndex).length
+                    || board.getPositionToMillIndex()[image].length != board.getPositionToMillIndex()[positionIndex].length) {
+                continue;
+            }
+            permutation[positionIndex] = image;
+            if (isConsistent(board, positionIndex, permutation)) {
+                findSymmetries(board, order, numAssigned + 1, permutation, usedMask | (1 << image), found);
+            }
+            permutation[positionIndex] = -1;
+        }
+    }
+
+    /**
+     * This method checks that a newly assigned position keeps its adjacencies to the assigned positions, and that every
+     * mill through it whose positions have all been assigned is mapped to a mill.
+     * @param board A board with the layout
+     * @param positionIndex The position which was just assigned
+     * @param permutation The partial permutation
+     * @return True if the partial permutation can still be a symmetry, false otherwise
+     */
+    private static boolean isConsistent(Board board, int positionIndex, int[] permutation) {
+        int image = permutation[positionIndex];
+        for (int other = 0; other < NUM_POSITIONS; other++) {
+            if (permutation[other] == -1 || other == positionIndex) {
+                continue;
+            }
+            boolean adjacent = (board.getAdjacencyMask(positionIndex) & (1 << other)) != 0;
+            boolean imagesAdjacent = (board.getAdjacencyMask(image) & (1 << permutation[other])) != 0;
+            if (adjacent != imagesAdjacent) {
+                return false;
+            }
+        }
+        int[] millMasks = board.getMillMasks();
+        for (int millIndex : board.getPositionToMillIndex()[positionIndex]) {
+            int imageMask = 0;
+            for (int millPositions = millMasks[millIndex]; millPositions != 0; millPositions &= millPositions - 1) {
+                int millPosition = permutation[Integer.numberOfTrailingZeros(millPositions)];
+                if (millPosition == -1) {
+                    imageMask = -1;
+                    break;
+                }
+                imageMask |= 1 << millPosition;
+            }
+            if (imageMask != -1 && !isLayoutMill(millMasks, imageMask)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method checks whether a set of positions is one of the layout's mills.
+     * @param millMasks The mask of each mill in the layout
+     * @param mask The positions, as a mask
+     * @return True if the positions make up a mill, false otherwise
+     */
+    private static boolean isLayoutMill(int[] millMasks, int mask) {
+        for (int millMask : millMasks) {
+            if (millMask == mask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method applies a symmetry to a set of positions.
+     * @param mask The positions, as a mask
+     * @param symmetry The index of the symmetry
+     * @return The transformed positions, as a mask
+     */
+    public int transform(int mask, int symmetry) {
+        int[][] tables = byteTables[symmetry];
+        return tables[0][mask & 0xFF] | tables[1][(mask >>> 8) & 0xFF] | tables[2][(mask >>> 16) & 0xFF];
+    }
+
+    /**
+     * This method applies a symmetry to a position.
+     * @param positionIndex The index of the position
+     * @param symmetry The index of the symmetry
+     * @return The index of the transformed position
+     */
+    public int transformPosition(int positionIndex, int symmetry) {
+        return permutations[symmetry][positionIndex];
+    }
+
+    /**
+     * This method finds the symmetry which takes a board to its canonical representative, the transformed board with
+     * the smallest first player's mask, and of those the smallest second player's mask. Boards related by a symmetry
+     * have the same canonical representative.
+     * @param firstMask The positions of the first player's tokens, as a mask
+     * @param secondMask The positions of the second player's tokens, as a mask
+     * @return The index of the symmetry
+     */
+    public int getCanonicalSymmetry(int firstMask, int secondMask) {
+        int canonicalSymmetry = IDENTITY;
+        long smallestKey = Long.MAX_VALUE;
+        for (int s = 0; s < permutations.length; s++) {
+            long key = ((long) transform(firstMask, s) << NUM_POSITIONS) | transform(secondMask, s);
+            if (key < smallestKey) {
+                smallestKey = key;
+                canonicalSymmetry = s;
+            }
+        }
+        return canonicalSymmetry;
+    }
+
+    /**
+     * This method finds the symmetry which takes a board to its canonical representative.
+     * @param board The board
+     * @return The index of the symmetry
+     */
+    public int getCanonicalSymmetry(Board board) {
+        return getCanonicalSymmetry(board.getPositionsMask(0), board.getPositionsMask(1));
+    }
+
+    /**
+     * This method returns a key for the canonical representative of a board, which is the same for every board related
+     * by a symmetry and different for boards which are not.
+     * @param firstMask The positions of the first player's tokens, as a mask
+     * @param secondMask The positions of the second player's tokens, as a mask
+     * @return The key, made up of the canonical representative's first player's mask above its second player's mask
+     */
+    public long getCanonicalKey(int firstMask, int secondMask) {
+        int symmetry = getCanonicalSymmetry(firstMask, secondMask);
+        return ((long) transform(firstMask, symmetry) << NUM_POSITIONS) | transform(secondMask, symmetry);
+    }
+
+    /**
+     * This method returns the symmetry which undoes a symmetry, to map a move on the canonical representative back to
+     * the real board.
+     * @param symmetry The index of the symmetry
+     * @return The index of the inverse symmetry
+     */
+    public int getInverse(int symmetry) {
+        return inverses[symmetry];
+    }
+
+    /**
+     * Getter for the number of symmetries, including the identity.
+     * @return The number of symmetries
+     */
+    public int getNumSymmetries() {
+        return permutations.length;
+    }
+
+    /**
+     * Getter for the permutation of a symmetry.
+     * @param symmetry The index of the symmetry
+     * @return A copy of the permutation, where position i is mapped to position permutation[i]
+     */
+    public int[] getPermutation(int symmetry) {
+        return permutations[symmetry].clone();
+    }
+
+    /**
+     * Getter for the mill list of the layout.
+     * @return The layout's list of mills
+     */
+    public int[][] getLayoutMillList() {
+        return layoutMillList;
+    }
+}
@@ -0,0 +1,84 @@
+package Positions;
+
+import java.util.Random;
+
+/**
+ * This class holds the random keys used to Zobrist hash the state of the game. A state's hash is the XOR of the keys of
+ * its parts, so it can be updated incrementally by XORing keys in and out as the state changes. The keys are generated
+ * from a fixed seed so that hashes are the same in every run.
+ * @see Board
+ */
+public class Zobrist {
+
+    private static final long SEED = 0x4e4d4d5a6f62726cL;
+    private static final int NUM_POSITIONS = 24;
+    private static final int NUM_PLAYERS = 2;
+    private static final int MAX_TOKENS_TO_PLACE = 9;
+
+    private static final long[][] POSITION_KEYS = new long[NUM_PLAYERS][NUM_POSITIONS];
+    private static final long[][] TOKENS_TO_PLACE_KEYS = new long[NUM_PLAYERS][MAX_TOKENS_TO_PLACE + 1];
+    private static final long[] FLYING_KEYS = new long[NUM_PLAYERS];
+    private static final long MILL_FORMED_KEY;
+    private static final long SECOND_PLAYER_TO_MOVE_KEY;
+
+    static {
+        Random random = new Random(SEED);
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            for (int j = 0; j < NUM_POSITIONS; j++) {
+                POSITION_KEYS[i][j] = random.nextLong();
+            }
+            for (int j = 0; j <= MAX_TOKENS_TO_PLACE; j++) {
+                TOKENS_TO_PLACE_KEYS[i][j] = random.nextLong();
+            }
+            FLYING_KEYS[i] = random.nextLong();
+        }
+        MILL_FORMED_KEY = random.nextLong();
+        SECOND_PLAYER_TO_MOVE_KEY = random.nextLong();
+    }
+
+    /**
+     * This method returns the key for a player's token on a position.
+     * @param playerNum The player who's token is on the position
+     * @param positionIndex The index of the position
+     * @return The key
+     */
+    public static long positionKey(int playerNum, int positionIndex) {
+        return POSITION_KEYS[playerNum][positionIndex];
+    }
+
+    /**
+     * This method returns the key for the number of tokens a player has left to place.
+     * @param playerNum The player
+     * @param numTokensToPlace The number of tokens the player has left to place
+     * @return The key
+     */
+    public static long tokensToPlaceKey(int playerNum, int numTokensToPlace) {
+        return TOKENS_TO_PLACE_KEYS[playerNum][numTokensToPlace];
+    }
+
+    /**
+     * This method returns the key for a player being able to fly (being in phase three).
+     * @param playerNum The player
+     * @return The key
+     */
+    public static long flyingKey(int playerNum) {
+        return FLYING_KEYS[playerNum];
+    }
+
+    /**
+     * This method returns the key for a mill having been formed, meaning the player to move must remove a token.
+     * @return The key
+     */
+    public static long millFormedKey() {
+        return MILL_FORMED_KEY;
+    }
+
+    /**
+     * This method returns the key for the player to move.
+     * @param playerNum The player to move
+     * @return The key
+     */
+    public static long playerToMoveKey(int playerNum) {
+        return playerNum == 1 ? SECOND_PLAYER_TO_MOVE_KEY : 0;
+    }
+}
@@ -0,0 +1,249 @@
+package Records;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import Positions.Board;
+
+/**
+ * This class reads the games in a game log one at a time, in the order they were written, through a buffer. Only the
+ * game being read is held in memory, so a log of millions of games can be streamed in constant memory, for analysing
+ * games or building training data. A record cut short at the end of the log, by a crash while it was being written,
+ * is treated as the end of the log.
+ * <p>
+ * Usage: GameLogReader FILE
+ * <p>
+ * From the command line it prints a summary of the games in the log.
+ * @see GameLogWriter
+ * @see GameRecord
+ */
+public class GameLogReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private File file;
+    private InputStream input;
+    private byte[] record = new byte[256];
+    private int recordPosition;
+    private int recordLength;
+    private long position; // the offset in the file just after the last complete record read
+    private long fileLength;
+    private boolean finished; // set once next has run out of complete games, since a cut short record is part read
+
+    /**
+     * Constructor for the GameLogReader class, which opens a log and reads its header.
+     * @param _file The log file
+     * @throws IOException If the file cannot be read or is not a game log
+     */
+    public GameLogReader(File _file) throws IOException {
+        file = _file;
+        fileLength = file.length();
+        input = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            readHeader(new DataInputStream(input), file);
+            position = GameLogWriter.HEADER_LENGTH;
+        }
+        catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This method prints a summary of the games in a log.
+     * @param args The log file
+     * @throws IOException If the log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: GameLogReader FILE");
+        }
+        long startTime = System.nanoTime();
+        long numGames = 0;
+        long numMoves = 0;
+        long[] results = new long[3]; // draws, then wins for each player
+        long otherLayouts = 0;
+        int defaultLayoutId = GameRecord.getLayoutId(Board.DEFAULT_LAYOUT);
+        try (GameLogReader reader = new GameLogReader(new File(args[0]))) {
+            for (GameRecord game = reader.next(); game != null; game = reader.next()) {
+                numGames++;
+                numMoves += game.getNumMoves();
+                results[game.getWinner() + 1]++;
+                if (game.getLayoutId() != defaultLayoutId) {
+                    otherLayouts++;
+                }
+            }
+        }
+        System.out.println(numGames + " games, " + numMoves + " turns");
+        System.out.println("Player 1 won " + results[1] + ", player 2 won " + results[2] + ", " + results[0] + " drawn");
+        if (otherLayouts > 0) {
+            System.out.println(otherLayouts + " games on other board layouts");
+        }
+        System.out.println(String.format("Read in %.2f s", (System.nanoTime() - startTime) / 1e9));
+    }
+
+    /**
+     * This method finds where the last complete record in a log ends, without decoding the games.
+     * @param file The log file
+     * @return The length of the log without any record cut short at the end
+     * @throws IOException If the file cannot be read or is not a game log
+     */
+    static long findEndOfLastRecord(File file) throws IOException {
+        try (GameLogReader reader = new GameLogReader(file)) {
+            while (reader.readRecord()) {
+                // skip the record
+            }
+            return reader.position;
+        }
+    }
+
+    /**
+     * This method reads and checks a game log header.
+     * @param header The stream at the start of the file
+     * @param file The file, for error messages
+     * @throws IOException If the stream cannot be read or is not a game log
+     */
+    private static void readHeader(DataInputStream header, File file) throws IOException {
+        try {
+            if (header.readInt() != GameLogWriter.FILE_MAGIC) {
+                throw new IOException(file + " is not a game log file");
+            }
+            if (header.readInt() != GameLogWriter.FILE_VERSION) {
+                throw new IOException(file + " has an unsupported game log version");
+            }
+        }
+        catch (EOFException e) {
+            throw new IOException(file + " is not a game log file");
+        }
+    }
+
+    /**
+     * This method reads the next game in the log.
+     * @return The game, or null if there are no more complete games
+     * @throws IOException If the log cannot be read or a game is corrupt
+     */
+    public GameRecord next() throws IOException {
+        if (finished || !readRecord()) {
+            finished = true;
+            return null;
+        }
+        long startTimeMs = readVarint();
+        int layoutId = readInt();
+        String[] players = new String[2];
+        for (int playerIndex = 0; playerIndex < 2; playerIndex++) {
+            int nameLength = (int) readVarint();
+            checkRemaining(nameLength);
+            players[playerIndex] = new String(record, recordPosition, nameLength, StandardCharsets.UTF_8);
+            recordPosition += nameLength;
+        }
+        checkRemaining(1);
+        int winner = record[recordPosition++] - 1;
+        int numMoves = (int) readVarint();
+        checkRemaining(numMoves); // every move takes at least one byte
+        int[] moves = new int[numMoves];
+        for (int i = 0; i < numMoves; i++) {
+            moves[i] = GameRecord.decodeMove((int) readVarint());
+        }
+        return new GameRecord(players, layoutId, startTimeMs, winner, moves);
+    }
+
+    /**
+     * This method reads the next record's length prefix and body into the record buffer.
+     * @return True if a whole record was read, or false at the end of the log or if the last record is cut short
+     * @throws IOException If the log cannot be read or the length prefix is corrupt
+     */
+    private boolean readRecord() throws IOException {
+        int b = input.read();
+        if (b == -1) {
+            return false;
+        }
+        int prefixLength = 1;
+        long bodyLength = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            b = input.read();
+            if (b == -1) {
+                return false;
+            }
+            if (shift > 28) {
+                throw new IOException(file + " has a corrupt game record");
+            }
+            prefixLength++;
+            bodyLength |= (long) (b & 0x7F) << shift;
+        }
+        if (bodyLength > Integer.MAX_VALUE - 8) {
+            throw new IOException(file + " has a corrupt game record");
+        }
+        if (bodyLength > fileLength - position - prefixLength) {
+            return false; // the record runs past the end of the file, so there is no point reading it
+        }
+        if (bodyLength > record.length) {
+            record = new byte[(int) bodyLength];
+        }
+        recordLength = (int) bodyLength;
+        if (input.readNBytes(record, 0, recordLength) != recordLength) {
+            return false;
+        }
+        recordPosition = 0;
+        position += prefixLength + recordLength;
+        return true;
+    }
+
+    /**
+     * This method closes the log.
+     * @throws IOException If the log cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * This method reads a varint from the current record.
+     * @return The value
+     * @throws IOException If the varint runs past the end of the record
+     */
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            checkRemaining(1);
+            byte b = record[recordPosition++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException(file + " has a corrupt game record");
+    }
+
+    /**
+     * This method reads a big-endian int from the current record.
+     * @return The value
+     * @throws IOException If the int runs past the end of the record
+     */
+    private int readInt() throws IOException {
+        checkRemaining(4);
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (record[recordPosition++] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * This method checks that the current record has enough bytes left.
+     * @param numBytes The number of bytes about to be read
+     * @throws IOException If the record is too short
+     */
+    private void checkRemaining(int numBytes) throws IOException {
+        if (numBytes < 0 || recordLength - recordPosition < numBytes) {
+            throw new IOException(file + " has a corrupt game record");
+        }
+    }
+}
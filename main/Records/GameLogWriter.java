@@ -0,0 +1,198 @@
+package Records;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class appends game records to a game log file. A game log is a header followed by one record per game, and is
+ * only ever appended to, so a log can collect every game played across many runs. Each game is written to the file as
+ * soon as it is added, so a crash can at most lose the game being written. A record left cut short by a crash is cut
+ * off the end of the log when it is next opened for writing, and readers stop before it. All numbers are varints (7
+ * bits per byte, lowest first, with the top bit set on every byte but the last) unless a size is given.
+ * <pre>
+ * file header:
+ *     4  magic number "NMMG"
+ *     4  format version
+ * each game:
+ *        length of the rest of the record, so a reader can skip a game without decoding it
+ *        start time in milliseconds since the epoch
+ *     4  layout id
+ *        for each of the two players: length of the name, then the name in UTF-8
+ *     1  result: 0 for a draw, 1 if player 0 won, 2 if player 1 won
+ *        number of turns
+ *        for each turn: the move, as a code from GameRecord.encodeMove
+ * </pre>
+ * Most turns take one or two bytes, so a whole game is usually under a hundred bytes. Records are built in memory and
+ * written with one system call each, and a writer can be shared between threads.
+ * @see GameLogReader
+ * @see GameRecord
+ */
+public class GameLogWriter implements Closeable {
+
+    public static final File DEFAULT_FILE = new File("games.log");
+    static final int FILE_MAGIC = 0x4e4d4d47; // "NMMG"
+    static final int FILE_VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final ExecutorService BACKGROUND_THREAD = createBackgroundThread();
+    private static final HashMap<File, GameLogWriter> BACKGROUND_WRITERS = new HashMap<File, GameLogWriter>(); // only used on the background thread
+
+    private OutputStream output;
+    private byte[] record = new byte[256];
+    private int recordLength;
+
+    /**
+     * Constructor for the GameLogWriter class, which opens a log to append to and writes the header if the log is new.
+     * A record cut short at the end of an existing log is removed first, so that new games are not appended to it.
+     * @param file The log file
+     * @throws IOException If the file cannot be opened or is not a game log
+     */
+    public GameLogWriter(File file) throws IOException {
+        boolean isNew = !file.exists() || file.length() == 0;
+        if (!isNew) {
+            long end = GameLogReader.findEndOfLastRecord(file); // also refuses anything which is not a game log
+            if (end < file.length()) {
+                System.out.println("Removing a partly written game from the end of " + file);
+                try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+                    log.setLength(end);
+                }
+            }
+        }
+        output = new BufferedOutputStream(new FileOutputStream(file, true), BUFFER_SIZE);
+        if (isNew) {
+            writeInt(FILE_MAGIC);
+            writeInt(FILE_VERSION);
+            output.write(record, 0, recordLength);
+            output.flush();
+            recordLength = 0;
+        }
+    }
+
+    /**
+     * This method creates the thread which appends games in the background.
+     * @return The single thread executor
+     */
+    private static ExecutorService createBackgroundThread() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-log-writer");
+            thread.setDaemon(true); // games are written as they are added, so nothing is lost by not waiting for it
+            return thread;
+        });
+    }
+
+    /**
+     * This method appends a game to a log file on a background thread, for programs which only write a game now and
+     * then, such as the window at the end of each game. Each log is opened the first time a game is appended to it and
+     * kept open for the rest of the run, so the end of the log is only checked once, and games are written in the
+     * order they are appended. A game which cannot be written is reported.
+     * @param file The log file
+     * @param game The game to append
+     */
+    public static void appendInBackground(File file, GameRecord game) {
+        File key = file.getAbsoluteFile();
+        BACKGROUND_THREAD.execute(() -> {
+            try {
+                GameLogWriter writer = BACKGROUND_WRITERS.get(key);
+                if (writer == null) {
+                    writer = new GameLogWriter(key);
+                    BACKGROUND_WRITERS.put(key, writer);
+                }
+                writer.write(game);
+            }
+            catch (IOException e) {
+                System.out.println("Could not write the game log: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * This method appends a game to the log.
+     * @param game The game to append
+     * @throws IOException If the log cannot be written
+     */
+    public synchronized void write(GameRecord game) throws IOException {
+        recordLength = 0;
+        writeVarint(game.getStartTimeMs());
+        writeInt(game.getLayoutId());
+        for (int playerIndex = 0; playerIndex < 2; playerIndex++) {
+            byte[] name = game.getPlayer(playerIndex).getBytes(StandardCharsets.UTF_8);
+            writeVarint(name.length);
+            ensureCapacity(name.length);
+            System.arraycopy(name, 0, record, recordLength, name.length);
+            recordLength += name.length;
+        }
+        ensureCapacity(1);
+        record[recordLength++] = (byte) (game.getWinner() + 1);
+        writeVarint(game.getNumMoves());
+        for (int move : game.getMoves()) {
+            writeVarint(GameRecord.encodeMove(move));
+        }
+
+        int bodyLength = recordLength;
+        writeVarint(bodyLength); // the length goes after the body in the buffer and is written first
+        output.write(record, bodyLength, recordLength - bodyLength);
+        output.write(record, 0, bodyLength);
+        output.flush(); // the length and body go out together, so a crash cannot leave other games buffered
+    }
+
+    /**
+     * This method writes any buffered games to the file. Each game is already written as it is added.
+     * @throws IOException If the log cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * This method writes any buffered games and closes the log.
+     * @throws IOException If the log cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+
+    /**
+     * This method adds a varint to the record being built.
+     * @param value The value, which is not negative
+     */
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            record[recordLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        record[recordLength++] = (byte) value;
+    }
+
+    /**
+     * This method adds a big-endian int to the record being built.
+     * @param value The value
+     */
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            record[recordLength++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * This method makes room in the record being built.
+     * @param numBytes The number of bytes about to be added
+     */
+    private void ensureCapacity(int numBytes) {
+        if (recordLength + numBytes > record.length) {
+            record = Arrays.copyOf(record, Math.max(2 * record.length, recordLength + numBytes));
+        }
+    }
+}
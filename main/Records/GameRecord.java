@@ -0,0 +1,136 @@
+package Records;
+
+import java.util.Arrays;
+
+import Actions.PackedMove;
+
+/**
+ * This class is the record of one finished game: who played, which board layout it was played on, when it started,
+ * who won and every turn in order, with player 0 moving first. Each turn is one whole move as a PackedMove, including
+ * any removal, so the game can be replayed with GameState.applyMove.
+ * @see GameLogWriter
+ * @see GameLogReader
+ */
+public class GameRecord {
+
+    public static final int DRAW = -1;
+
+    private String[] players;
+    private int layoutId;
+    private long startTimeMs;
+    private int winner;
+    private int[] moves;
+
+    /**
+     * Constructor for the GameRecord class.
+     * @param _players The names of the two players, with player 0 first
+     * @param _layoutId The id of the board layout, from getLayoutId
+     * @param _startTimeMs The time the game started, in milliseconds since the epoch
+     * @param _winner The player who won, or DRAW
+     * @param _moves The moves played, in order, as PackedMoves
+     */
+    public GameRecord(String[] _players, int _layoutId, long _startTimeMs, int _winner, int[] _moves) {
+        players = _players;
+        layoutId = _layoutId;
+        startTimeMs = _startTimeMs;
+        winner = _winner;
+        moves = _moves;
+    }
+
+    /**
+     * This method returns the id which identifies a board layout in a game record.
+     * @param layoutMillList The mill list of the board layout
+     * @return The id, a hash of the mill list
+     */
+    public static int getLayoutId(int[][] layoutMillList) {
+        return Arrays.deepHashCode(layoutMillList);
+    }
+
+    /**
+     * This method converts a PackedMove to the code it is stored as. Each position is stored one higher so that NONE
+     * becomes 0, with the to position in the lowest bits, so that a placement is a code below 32, which is one byte,
+     * and a move without a removal is a code below 1024, which is two bytes.
+     * @param move The move as a PackedMove
+     * @return The code
+     */
+    static int encodeMove(int move) {
+        return storedPosition(PackedMove.getTo(move)) | (storedPosition(PackedMove.getFrom(move)) << 5)
+                | (storedPosition(PackedMove.getRemove(move)) << 10);
+    }
+
+    /**
+     * This method converts a stored code back to a PackedMove.
+     * @param code The code, from encodeMove
+     * @return The move as a PackedMove
+     */
+    static int decodeMove(int code) {
+        return PackedMove.encode(((code >>> 5) - 1) & 31, (code - 1) & 31, ((code >>> 10) - 1) & 31);
+    }
+
+    /**
+     * This method shifts a position index up by one, so that NONE becomes 0.
+     * @param positionIndex The position index, or NONE
+     * @return The stored position, from 0 to 31
+     */
+    private static int storedPosition(int positionIndex) {
+        return (positionIndex + 1) & 31;
+    }
+
+    /**
+     * Getter for the name of a player.
+     * @param playerIndex The player
+     * @return The name of the player
+     */
+    public String getPlayer(int playerIndex) {
+        return players[playerIndex];
+    }
+
+    /**
+     * Getter for the id of the board layout the game was played on.
+     * @return The layout id, from getLayoutId
+     */
+    public int getLayoutId() {
+        return layoutId;
+    }
+
+    /**
+     * Getter for the time the game started.
+     * @return The time in milliseconds since the epoch
+     */
+    public long getStartTimeMs() {
+        return startTimeMs;
+    }
+
+    /**
+     * Getter for the winner of the game.
+     * @return The player who won, or DRAW
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Getter for the number of turns played.
+     * @return The number of turns
+     */
+    public int getNumMoves() {
+        return moves.length;
+    }
+
+    /**
+     * Getter for one of the moves played.
+     * @param turn The index of the turn, from 0
+     * @return The move as a PackedMove
+     */
+    public int getMove(int turn) {
+        return moves[turn];
+    }
+
+    /**
+     * Getter for the moves played.
+     * @return The moves as PackedMoves, in order, which must not be modified
+     */
+    public int[] getMoves() {
+        return moves;
+    }
+}
@@ -0,0 +1,82 @@
+package Records;
+
+import java.util.ArrayList;
+
+import Game.GameState;
+import Positions.Board;
+
+/**
+ * This class steps through a recorded game without a display, so that a viewer can jump to any turn. The game is
+ * replayed once when the replay is created, keeping a copy of the game state every SNAPSHOT_INTERVAL turns. The game
+ * state after any turn is then found by copying the snapshot before it and applying at most SNAPSHOT_INTERVAL - 1
+ * moves, which takes the same short time wherever the turn is in the game.
+ * @see GameRecord
+ */
+public class GameReplay {
+
+    public static final int SNAPSHOT_INTERVAL = 16;
+
+    private GameRecord game;
+    private ArrayList<GameState> snapshots = new ArrayList<GameState>(); // the game state after each multiple of SNAPSHOT_INTERVAL turns
+
+    /**
+     * Constructor for the GameReplay class, which replays the game once to take the snapshots.
+     * @param _game The game to replay, which must have been played on the default board layout
+     */
+    public GameReplay(GameRecord _game) {
+        game = _game;
+        if (game.getLayoutId() != GameRecord.getLayoutId(Board.DEFAULT_LAYOUT)) {
+            throw new IllegalArgumentException("The game was played on a different board layout");
+        }
+        GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+        snapshots.add(new GameState(gameState));
+        for (int turn = 0; turn < game.getNumMoves(); turn++) {
+            gameState.applyMove(game.getMove(turn), getPlayerToMove(turn));
+            if ((turn + 1) % SNAPSHOT_INTERVAL == 0) {
+                snapshots.add(new GameState(gameState));
+            }
+        }
+    }
+
+    /**
+     * This method returns the game state after a number of turns.
+     * @param numTurns The number of turns played, from 0 for the start of the game to getNumMoves for the end
+     * @return A new game state, which can be changed without affecting the replay
+     */
+    public GameState getGameState(int numTurns) {
+        if (numTurns < 0 || numTurns > game.getNumMoves()) {
+            throw new IllegalArgumentException("The game has no turn " + numTurns);
+        }
+        int snapshotIndex = numTurns / SNAPSHOT_INTERVAL;
+        GameState gameState = new GameState(snapshots.get(snapshotIndex));
+        for (int turn = snapshotIndex * SNAPSHOT_INTERVAL; turn < numTurns; turn++) {
+            gameState.applyMove(game.getMove(turn), getPlayerToMove(turn));
+        }
+        return gameState;
+    }
+
+    /**
+     * This method returns the player who moves on a turn.
+     * @param turn The index of the turn, from 0
+     * @return The player's index
+     */
+    public static int getPlayerToMove(int turn) {
+        return turn % 2;
+    }
+
+    /**
+     * Getter for the game being replayed.
+     * @return The game record
+     */
+    public GameRecord getGame() {
+        return game;
+    }
+
+    /**
+     * Getter for the number of turns in the game.
+     * @return The number of turns
+     */
+    public int getNumMoves() {
+        return game.getNumMoves();
+    }
+}
@@ -0,0 +1,310 @@
+package Records;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Game.GameState;
+import Positions.Board;
+import Search.Evaluator;
+
+/**
+ * This class exports labelled positions for training from game logs. Every game is replayed through the rules, and
+ * the position before each turn is written out with the game's result from the point of view of the player to move.
+ * Games are read in batches, each batch is replayed on a thread pool into its own block of columns, and the blocks are
+ * written in order, so the export runs on every core while only a few batches are in memory at once.
+ * <p>
+ * Usage: TrainingDataExporter --input FILE [--input FILE ...] [--output FILE] [--threads N] [--batch-games N]
+ * [--skip-turns N]
+ * <p>
+ * Self-play games can be exported by logging them first with TournamentRunner --game-log. Skipping the first turns
+ * leaves out the random openings of tournament games.
+ * <p>
+ * The output is columnar: a header followed by blocks, where each block holds one column after another, so a column
+ * of a block is one contiguous array. All numbers are big-endian.
+ * <pre>
+ * file header:
+ *     4  magic number "NMMT"
+ *     4  format version
+ *     4  number of columns
+ *        for each column: 1 byte length of the name, the name in ASCII, then 1 byte width of each value in bytes
+ * each block, until the end of the file:
+ *     4  number of positions in the block
+ *        for each column: the value for each position, as a signed number of the column's width
+ * </pre>
+ * The columns are the game's index among the exported games, the turn number, the player to move, the state of each
+ * of the 24 positions (-1 for empty, otherwise the index of the player with a token there), each player's phase (1 to
+ * 3), tokens to place and tokens on the board, the evaluator's features from the point of view of the player to move
+ * and the outcome for the player to move (1 for a win, 0 for a draw, -1 for a loss).
+ * @see GameLogReader
+ * @see Evaluator
+ */
+public class TrainingDataExporter {
+
+    public static final File DEFAULT_FILE = new File("training.bin");
+    private static final int FILE_MAGIC = 0x4e4d4d54; // "NMMT"
+    private static final int FILE_VERSION = 1;
+    private static final int NUM_POSITIONS = 24;
+
+    private static final String[] COLUMN_NAMES;
+    private static final int[] COLUMN_WIDTHS;
+    private static final int GAME_COLUMN = 0;
+    private static final int TURN_COLUMN = 1;
+    private static final int TO_MOVE_COLUMN = 2;
+    private static final int CELL_COLUMNS = 3;
+    private static final int PHASE_COLUMNS = CELL_COLUMNS + NUM_POSITIONS;
+    private static final int TO_PLACE_COLUMNS = PHASE_COLUMNS + 2;
+    private static final int REMAINING_COLUMNS = TO_PLACE_COLUMNS + 2;
+    private static final int FEATURE_COLUMNS = REMAINING_COLUMNS + 2;
+    private static final int OUTCOME_COLUMN = FEATURE_COLUMNS + Evaluator.NUM_FEATURES;
+    private static final int NUM_COLUMNS = OUTCOME_COLUMN + 1;
+    private static final int ROW_WIDTH;
+
+    static {
+        COLUMN_NAMES = new String[NUM_COLUMNS];
+        COLUMN_WIDTHS = new int[NUM_COLUMNS];
+        setColumn(GAME_COLUMN, "game", 4);
+        setColumn(TURN_COLUMN, "turn", 2);
+        setColumn(TO_MOVE_COLUMN, "to_move", 1);
+        for (int i = 0; i < NUM_POSITIONS; i++) {
+            setColumn(CELL_COLUMNS + i, "cell_" + i, 1);
+        }
+        for (int playerIndex = 0; playerIndex < 2; playerIndex++) {
+            setColumn(PHASE_COLUMNS + playerIndex, "phase_" + playerIndex, 1);
+            setColumn(TO_PLACE_COLUMNS + playerIndex, "to_place_" + playerIndex, 1);
+            setColumn(REMAINING_COLUMNS + playerIndex, "remaining_" + playerIndex, 1);
+        }
+        for (int i = 0; i < Evaluator.NUM_FEATURES; i++) {
+            setColumn(FEATURE_COLUMNS + i, Evaluator.FEATURE_NAMES[i], 2);
+        }
+        setColumn(OUTCOME_COLUMN, "outcome", 1);
+        int rowWidth = 0;
+        for (int width : COLUMN_WIDTHS) {
+            rowWidth += width;
+        }
+        ROW_WIDTH = rowWidth;
+    }
+
+    private ArrayList<File> inputFiles = new ArrayList<File>();
+    private File outputFile = DEFAULT_FILE;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+    private int batchGames = 4096;
+    private int skipTurns = 0;
+    private int layoutId = GameRecord.getLayoutId(Board.DEFAULT_LAYOUT);
+
+    /**
+     * This method runs the exporter from the command line.
+     * @param args The options, as described in the class comment
+     * @throws IOException If a log cannot be read or the output cannot be written
+     * @throws InterruptedException If interrupted while waiting for the batches to be replayed
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        TrainingDataExporter exporter = new TrainingDataExporter();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--input": exporter.inputFiles.add(new File(value)); break;
+                case "--output": exporter.outputFile = new File(value); break;
+                case "--threads": exporter.numThreads = Integer.parseInt(value); break;
+                case "--batch-games": exporter.batchGames = Integer.parseInt(value); break;
+                case "--skip-turns": exporter.skipTurns = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (exporter.inputFiles.isEmpty()) {
+            throw new IllegalArgumentException("At least one --input game log is needed");
+        }
+
+        long startTime = System.nanoTime();
+        long numPositions = exporter.export();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.println(String.format("Wrote %d positions to %s in %.1f s (%.0f positions/s)", numPositions, exporter.outputFile,
+                seconds, numPositions / seconds));
+    }
+
+    /**
+     * This method sets the name and width of a column.
+     * @param column The index of the column
+     * @param name The name of the column
+     * @param width The width of each value in bytes
+     */
+    private static void setColumn(int column, String name, int width) {
+        COLUMN_NAMES[column] = name;
+        COLUMN_WIDTHS[column] = width;
+    }
+
+    /**
+     * This method replays every game in the input logs and writes the positions.
+     * @return The number of positions written
+     * @throws IOException If a log cannot be read or the output cannot be written
+     * @throws InterruptedException If interrupted while waiting for the batches to be replayed
+     */
+    public long export() throws IOException, InterruptedException {
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<Future<ByteBuffer>>();
+        long numPositions = 0;
+        int numGames = 0;
+        int otherLayouts = 0;
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 16))) {
+            writeHeader(output);
+            for (File inputFile : inputFiles) {
+                try (GameLogReader reader = new GameLogReader(inputFile)) {
+                    ArrayList<GameRecord> batch = new ArrayList<GameRecord>();
+                    for (GameRecord game = reader.next(); game != null; game = reader.next()) {
+                        if (game.getLayoutId() != layoutId) {
+                            otherLayouts++;
+                            continue;
+                        }
+                        batch.add(game);
+                        if (batch.size() == batchGames) {
+                            numPositions += submit(threadPool, pending, batch, numGames, output);
+                            numGames += batch.size();
+                            batch = new ArrayList<GameRecord>();
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        numPositions += submit(threadPool, pending, batch, numGames, output);
+                        numGames += batch.size();
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeBlock(pending.poll(), output);
+            }
+        }
+        finally {
+            threadPool.shutdownNow();
+        }
+        if (otherLayouts > 0) {
+            System.out.println("Skipped " + otherLayouts + " games on other board layouts");
+        }
+        System.out.println("Replayed " + numGames + " games");
+        return numPositions;
+    }
+
+    /**
+     * This method hands a batch of games to the thread pool, first writing the oldest finished blocks if too many are
+     * waiting, so that memory stays bounded however long the logs are.
+     * @param threadPool The thread pool
+     * @param pending The blocks being replayed, oldest first
+     * @param batch The games to replay
+     * @param firstGameIndex The index of the first game of the batch among all of the exported games
+     * @param output The stream to write finished blocks to
+     * @return The number of positions the batch will write
+     * @throws IOException If a block cannot be written
+     * @throws InterruptedException If interrupted while waiting for a block
+     */
+    private long submit(ExecutorService threadPool, ArrayDeque<Future<ByteBuffer>> pending, ArrayList<GameRecord> batch,
+            int firstGameIndex, DataOutputStream output) throws IOException, InterruptedException {
+        while (pending.size() >= 2 * numThreads) {
+            writeBlock(pending.poll(), output);
+        }
+        int numRows = 0;
+        for (GameRecord game : batch) {
+            numRows += Math.max(0, game.getNumMoves() - skipTurns);
+        }
+        int blockRows = numRows;
+        pending.add(threadPool.submit(() -> replayBatch(batch, firstGameIndex, blockRows)));
+        return numRows;
+    }
+
+    /**
+     * This method writes a finished block to the output.
+     * @param block The block being replayed
+     * @param output The stream to write to
+     * @throws IOException If the block cannot be written
+     * @throws InterruptedException If interrupted while waiting for the block
+     */
+    private static void writeBlock(Future<ByteBuffer> block, DataOutputStream output) throws IOException, InterruptedException {
+        try {
+            ByteBuffer buffer = block.get();
+            output.write(buffer.array(), 0, buffer.limit());
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A batch failed to replay", e.getCause());
+        }
+    }
+
+    /**
+     * This method writes the file header, which names the columns.
+     * @param output The stream to write to
+     * @throws IOException If the header cannot be written
+     */
+    private static void writeHeader(DataOutputStream output) throws IOException {
+        output.writeInt(FILE_MAGIC);
+        output.writeInt(FILE_VERSION);
+        output.writeInt(NUM_COLUMNS);
+        for (int column = 0; column < NUM_COLUMNS; column++) {
+            byte[] name = COLUMN_NAMES[column].getBytes(StandardCharsets.US_ASCII);
+            output.writeByte(name.length);
+            output.write(name);
+            output.writeByte(COLUMN_WIDTHS[column]);
+        }
+    }
+
+    /**
+     * This method replays a batch of games into one block of columns.
+     * @param batch The games to replay
+     * @param firstGameIndex The index of the first game of the batch among all of the exported games
+     * @param numRows The number of positions the batch writes
+     * @return The block, ready to be written
+     */
+    private ByteBuffer replayBatch(ArrayList<GameRecord> batch, int firstGameIndex, int numRows) {
+        ByteBuffer block = ByteBuffer.allocate(4 + numRows * ROW_WIDTH);
+        block.putInt(numRows);
+        int[] columnStarts = new int[NUM_COLUMNS];
+        int columnStart = 4;
+        for (int column = 0; column < NUM_COLUMNS; column++) {
+            columnStarts[column] = columnStart;
+            columnStart += numRows * COLUMN_WIDTHS[column];
+        }
+        int[] features = new int[Evaluator.NUM_FEATURES];
+
+        int row = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            GameRecord game = batch.get(i);
+            GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+            Board board = gameState.getBoard();
+            for (int turn = 0; turn < game.getNumMoves(); turn++) {
+                int playerIndex = turn % 2;
+                if (turn >= skipTurns) {
+                    block.putInt(columnStarts[GAME_COLUMN] + 4 * row, firstGameIndex + i);
+                    block.putShort(columnStarts[TURN_COLUMN] + 2 * row, (short) turn);
+                    block.put(columnStarts[TO_MOVE_COLUMN] + row, (byte) playerIndex);
+                    for (int positionIndex = 0; positionIndex < NUM_POSITIONS; positionIndex++) {
+                        block.put(columnStarts[CELL_COLUMNS + positionIndex] + row, (byte) board.getPositionState(positionIndex));
+                    }
+                    for (int player = 0; player < 2; player++) {
+                        block.put(columnStarts[PHASE_COLUMNS + player] + row, (byte) (gameState.getGamePhase(player).ordinal() + 1));
+                        block.put(columnStarts[TO_PLACE_COLUMNS + player] + row, (byte) gameState.getNumTokensToPlace(player));
+                        block.put(columnStarts[REMAINING_COLUMNS + player] + row, (byte) gameState.getTokensRemaining(player));
+                    }
+                    Evaluator.computeFeatures(gameState, playerIndex, features);
+                    for (int feature = 0; feature < Evaluator.NUM_FEATURES; feature++) {
+                        block.putShort(columnStarts[FEATURE_COLUMNS + feature] + 2 * row, (short) features[feature]);
+                    }
+                    int outcome = game.getWinner() == GameRecord.DRAW ? 0 : game.getWinner() == playerIndex ? 1 : -1;
+                    block.put(columnStarts[OUTCOME_COLUMN] + row, (byte) outcome);
+                    row++;
+                }
+                gameState.applyMove(game.getMove(turn), playerIndex);
+            }
+        }
+        block.position(block.capacity()).flip();
+        return block;
+    }
+}
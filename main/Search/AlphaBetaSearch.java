@@ -0,0 +1,559 @@
+package Search;
+
+import java.util.Arrays;
+
+import Actions.Action;
+import Actions.ActionGenerator;
+import Endgame.EndgameDatabase;
+import Game.GameState;
+import Opening.OpeningBook;
+import Players.PhaseIndicator;
+import Positions.Zobrist;
+
+/**
+ * This class is an iterative deepening alpha-beta (negamax) search over the game state. It searches all three phases,
+ * and each ply is a whole turn packed into an int, including the removal if the turn forms a mill. Each search thread
+ * runs on its own copy of the game state, applying and undoing moves in place without creating objects, and stops at a
+ * time budget. Searched positions are stored in a transposition table keyed by the Zobrist hash of the game state and
+ * the player to move, which is kept between searches.
+ * <p>
+ * With more than one thread the search uses Lazy SMP: every thread searches the same root independently and they
+ * share only the transposition table, so the helper threads fill it with results which the main thread then finds
+ * instead of searching. Half of the helpers start one depth ahead so the threads do not all search the same positions
+ * in step. The action returned is that of the thread which completed the deepest iteration.
+ * <p>
+ * If an endgame database has been set, it is consulted before searching, and a position which is in it is played
+ * perfectly without searching at all. If its tables only store win, draw or loss, the search is instead limited to the
+ * moves which keep the best result. Likewise, if an opening book has been set, a placement which is in it is played
+ * without searching.
+ * @see GameState
+ * @see ActionGenerator
+ * @see TranspositionTable
+ * @see Evaluator
+ * @see EndgameDatabase
+ * @see OpeningBook
+ */
+public class AlphaBetaSearch {
+
+    public static final int DEFAULT_TRANSPOSITION_TABLE_SIZE_MB = 16;
+    public static final int MAX_DEPTH = 64;
+    public static final int NO_MOVE = -1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int WIN_SCORE = 1000000;
+    private static final int NODES_BETWEEN_TIME_CHECKS = 1024; // must be a power of two
+
+    private TranspositionTable transpositionTable;
+    private Evaluator evaluator = new Evaluator();
+    private EndgameDatabase endgameDatabase = null;
+    private boolean endgameDatabaseHit;
+    private OpeningBook openingBook = null;
+    private boolean openingBookHit;
+    private int numThreads;
+    private long deadline;
+    private volatile boolean stopped;
+    private long nodesSearched;
+    private long searchTimeNs;
+    private int depthReached;
+    private int bestScore;
+
+    /**
+     * Constructor for the AlphaBetaSearch class with a single thread and a transposition table of the default size.
+     */
+    public AlphaBetaSearch() {
+        this(DEFAULT_TRANSPOSITION_TABLE_SIZE_MB, 1);
+    }
+
+    /**
+     * Constructor for the AlphaBetaSearch class with a single thread.
+     * @param transpositionTableSizeMb The memory to use for the transposition table in megabytes
+     */
+    public AlphaBetaSearch(int transpositionTableSizeMb) {
+        this(transpositionTableSizeMb, 1);
+    }
+
+    /**
+     * Constructor for the AlphaBetaSearch class.
+     * @param transpositionTableSizeMb The memory to use for the transposition table in megabytes
+     * @param _numThreads The number of threads to search with
+     */
+    public AlphaBetaSearch(int transpositionTableSizeMb, int _numThreads) {
+        transpositionTable = new TranspositionTable(transpositionTableSizeMb);
+        numThreads = Math.max(1, _numThreads);
+    }
+
+    /**
+     * This method searches for the best action for a player within a time budget. The game state passed in is not
+     * modified.
+     * @param rootState The game state to search from
+     * @param playerIndex The player who's turn it is
+     * @param searchTimeMs The time budget for the search in milliseconds
+     * @return The best action found, or null if the player has no legal actions
+     */
+    public Action findBestAction(GameState rootState, int playerIndex, long searchTimeMs) {
+        return findBestAction(rootState, playerIndex, searchTimeMs, MAX_DEPTH);
+    }
+
+    /**
+     * This method searches for the best action for a player until either the time budget runs out or the main thread
+     * completes the given depth. The game state passed in is not modified. If the best move forms a mill, the action
+     * returned is the placement or move and the removal is searched for on the next call.
+     * @param rootState The game state to search from
+     * @param playerIndex The player who's turn it is
+     * @param searchTimeMs The time budget for the search in milliseconds
+     * @param maxDepth The depth to stop at
+     * @return The best action found, or null if the player has no legal actions
+     */
+    public Action findBestAction(GameState rootState, int playerIndex, long searchTimeMs, int maxDepth) {
+        int move = findBestMove(rootState, playerIndex, searchTimeMs, maxDepth);
+        return move == NO_MOVE ? null : ActionGenerator.toAction(move, playerIndex);
+    }
+
+    /**
+     * This method searches for the best whole turn for a player until either the time budget runs out or the main
+     * thread completes the given depth. The game state passed in is not modified.
+     * @param rootState The game state to search from
+     * @param playerIndex The player who's turn it is
+     * @param searchTimeMs The time budget for the search in milliseconds
+     * @param maxDepth The depth to stop at
+     * @return The best move found as a PackedMove, or NO_MOVE if the player has no legal moves
+     */
+    public int findBestMove(GameState rootState, int playerIndex, long searchTimeMs, int maxDepth) {
+        long startTime = System.nanoTime();
+        deadline = startTime + searchTimeMs * 1000000;
+        stopped = false;
+        nodesSearched = 0;
+        depthReached = 0;
+        bestScore = 0;
+        endgameDatabaseHit = false;
+        openingBookHit = false;
+        transpositionTable.newSearch();
+        transpositionTable.resetCounters();
+
+        int[] rootMoves = new int[ActionGenerator.MAX_MOVES];
+        int numRootMoves = ActionGenerator.generateMoves(rootState, playerIndex, rootMoves);
+        if (numRootMoves == 0) {
+            searchTimeNs = System.nanoTime() - startTime;
+            return NO_MOVE;
+        }
+        if (openingBook != null) {
+            int move = openingBook.findMove(rootState, playerIndex);
+            for (int i = 0; i < numRootMoves; i++) {
+                if (rootMoves[i] == move) {
+                    openingBookHit = true;
+                    searchTimeNs = System.nanoTime() - startTime;
+                    return move;
+                }
+            }
+        }
+        if (endgameDatabase != null) {
+            int move = findEndgameMove(new GameState(rootState), playerIndex);
+            if (move != NO_MOVE) {
+                searchTimeNs = System.nanoTime() - startTime;
+                return move;
+            }
+            numRootMoves = endgameDatabase.filterMoves(new GameState(rootState), playerIndex, rootMoves, numRootMoves);
+        }
+
+        SearchWorker[] workers = new SearchWorker[numThreads];
+        Thread[] helperThreads = new Thread[numThreads - 1];
+        for (int i = 0; i < numThreads; i++) {
+            int startDepth = 1 + (i % 2);
+            workers[i] = new SearchWorker(new GameState(rootState), playerIndex, Arrays.copyOf(rootMoves, numRootMoves), startDepth,
+                    Math.min(maxDepth, MAX_DEPTH));
+        }
+        for (int i = 0; i < helperThreads.length; i++) {
+            helperThreads[i] = new Thread(workers[i + 1], "alpha-beta-helper-" + (i + 1));
+            helperThreads[i].setDaemon(true);
+            helperThreads[i].start();
+        }
+
+        workers[0].run();
+        stopped = true;
+        for (Thread helperThread : helperThreads) {
+            try {
+                helperThread.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        SearchWorker bestWorker = workers[0];
+        for (SearchWorker worker : workers) {
+            nodesSearched += worker.nodesSearched;
+            if (worker.depthReached > bestWorker.depthReached) {
+                bestWorker = worker;
+            }
+        }
+        depthReached = bestWorker.depthReached;
+        bestScore = bestWorker.bestScore;
+        searchTimeNs = System.nanoTime() - startTime;
+        return bestWorker.bestMove;
+    }
+
+    /**
+     * This method looks up the best move in the endgame database, and sets the best score from the value of the
+     * position.
+     * @param gameState A copy of the game state to move from, which has no listener
+     * @param playerIndex The player who's turn it is
+     * @return The best move as a PackedMove, or NO_MOVE if the position is not in the database
+     */
+    private int findEndgameMove(GameState gameState, int playerIndex) {
+        int move = endgameDatabase.findBestMove(gameState, playerIndex);
+        if (move == EndgameDatabase.NO_MOVE) {
+            return NO_MOVE;
+        }
+        endgameDatabaseHit = true;
+
+        // score the move by the value of the position after it, from the opponent's point of view
+        int value = endgameDatabase.probeMove(gameState, playerIndex, move);
+        if (EndgameDatabase.isLoss(value)) {
+            bestScore = WIN_SCORE - 1 - EndgameDatabase.getDistance(value);
+        }
+        else if (EndgameDatabase.isWin(value)) {
+            bestScore = -WIN_SCORE + 1 + EndgameDatabase.getDistance(value);
+        }
+        return move;
+    }
+
+    /**
+     * This class is one thread of the search. It runs iterative deepening from the root on its own copy of the game
+     * state, and shares the transposition table with the other threads. Moves are generated into one preallocated
+     * buffer per ply, so the search creates no objects.
+     */
+    private class SearchWorker implements Runnable {
+
+        private GameState gameState;
+        private int rootPlayerIndex;
+        private int[] rootMoves;
+        private int[][] moveBuffers = new int[MAX_DEPTH + 1][ActionGenerator.MAX_MOVES];
+        private int[] featureBuffer = new int[Evaluator.NUM_FEATURES];
+        private int startDepth;
+        private int maxDepth;
+        private boolean searchAborted = false;
+        private long nodesSearched = 0;
+        private int depthReached = 0;
+        private int bestScore = 0;
+        private int bestMove;
+
+        /**
+         * Constructor for the SearchWorker class.
+         * @param _gameState The worker's own copy of the game state to search from
+         * @param _rootPlayerIndex The player who's turn it is
+         * @param _rootMoves The worker's own array of the legal moves at the root
+         * @param _startDepth The depth of the first iteration
+         * @param _maxDepth The depth to stop at
+         */
+        SearchWorker(GameState _gameState, int _rootPlayerIndex, int[] _rootMoves, int _startDepth, int _maxDepth) {
+            gameState = _gameState;
+            rootPlayerIndex = _rootPlayerIndex;
+            rootMoves = _rootMoves;
+            startDepth = _startDepth;
+            maxDepth = _maxDepth;
+            bestMove = rootMoves[0];
+        }
+
+        @Override
+        public void run() {
+            for (int depth = startDepth; depth <= maxDepth && rootMoves.length > 1 && !stopped; depth++) {
+                int iterationBestIndex = 0;
+                int iterationBestScore = -INFINITY;
+                int alpha = -INFINITY;
+                for (int i = 0; i < rootMoves.length; i++) {
+                    int score = searchChild(rootMoves[i], depth, 0, alpha, INFINITY, rootPlayerIndex);
+                    if (searchAborted) {
+                        break;
+                    }
+                    if (score > iterationBestScore) {
+                        iterationBestScore = score;
+                        iterationBestIndex = i;
+                        alpha = Math.max(alpha, score);
+                    }
+                }
+                if (searchAborted) {
+                    break; // the last iteration was not completed, so keep the result of the one before it
+                }
+                bestMove = rootMoves[iterationBestIndex];
+                bestScore = iterationBestScore;
+                depthReached = depth;
+
+                // search the best move first in the next iteration
+                System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBestIndex);
+                rootMoves[0] = bestMove;
+                if (Math.abs(bestScore) >= WIN_SCORE - MAX_DEPTH) {
+                    stopped = true; // a forced win or loss has been found, so no thread needs to search further
+                    break;
+                }
+            }
+        }
+
+        /**
+         * This method searches a position to a given depth, where each ply is a whole turn.
+         * @param depth The remaining depth to search
+         * @param ply The number of turns from the root
+         * @param alpha The score the player is already assured of
+         * @param beta The score the opponent is already assured of
+         * @param playerIndex The player who's turn it is
+         * @return The score of the position for the player who's turn it is
+         */
+        private int search(int depth, int ply, int alpha, int beta, int playerIndex) {
+            nodesSearched++;
+            if ((nodesSearched & (NODES_BETWEEN_TIME_CHECKS - 1)) == 0 && (stopped || System.nanoTime() - deadline > 0)) {
+                searchAborted = true;
+            }
+            if (searchAborted) {
+                return 0;
+            }
+
+            if (hasLost(playerIndex)) {
+                return -WIN_SCORE + ply;
+            }
+            if (depth == 0) {
+                return evaluate(playerIndex);
+            }
+
+            long key = gameState.getHash() ^ Zobrist.playerToMoveKey(playerIndex);
+            int tableMove = NO_MOVE;
+            long entry = transpositionTable.probe(key);
+            if (entry != 0) {
+                tableMove = TranspositionTable.getBestAction(entry);
+                if (TranspositionTable.getDepth(entry) >= depth) {
+                    int tableScore = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                    int flag = TranspositionTable.getFlag(entry);
+                    if (flag == TranspositionTable.EXACT
+                            || (flag == TranspositionTable.LOWER_BOUND && tableScore >= beta)
+                            || (flag == TranspositionTable.UPPER_BOUND && tableScore <= alpha)) {
+                        return tableScore;
+                    }
+                }
+            }
+
+            int[] moves = moveBuffers[ply];
+            int numMoves = ActionGenerator.generateMoves(gameState, playerIndex, moves);
+            if (numMoves == 0) {
+                return -WIN_SCORE + ply; // a player who cannot move has lost
+            }
+            for (int i = 1; i < numMoves; i++) {
+                if (moves[i] == tableMove) {
+                    // search the best move from the table first
+                    moves[i] = moves[0];
+                    moves[0] = tableMove;
+                    break;
+                }
+            }
+
+            int originalAlpha = alpha;
+            int bestScore = -INFINITY;
+            int bestMove = moves[0];
+            for (int i = 0; i < numMoves; i++) {
+                int score = searchChild(moves[i], depth, ply, alpha, beta, playerIndex);
+                if (searchAborted) {
+                    return 0;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = moves[i];
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            int flag = TranspositionTable.EXACT;
+            if (bestScore <= originalAlpha) {
+                flag = TranspositionTable.UPPER_BOUND;
+            }
+            else if (bestScore >= beta) {
+                flag = TranspositionTable.LOWER_BOUND;
+            }
+            transpositionTable.store(key, depth, scoreToTable(bestScore, ply), flag, bestMove);
+            return bestScore;
+        }
+
+        /**
+         * This method converts a score to be stored in the transposition table. Win and loss scores are stored relative
+         * to the position rather than the root, since the position may be reached at a different ply.
+         * @param score The score relative to the root
+         * @param ply The number of actions from the root to the position
+         * @return The score to store
+         */
+        private int scoreToTable(int score, int ply) {
+            if (score >= WIN_SCORE - MAX_DEPTH) {
+                return score + ply;
+            }
+            if (score <= -WIN_SCORE + MAX_DEPTH) {
+                return score - ply;
+            }
+            return score;
+        }
+
+        /**
+         * This method converts a score read from the transposition table back to be relative to the root.
+         * @param score The stored score
+         * @param ply The number of actions from the root to the position
+         * @return The score relative to the root
+         */
+        private int scoreFromTable(int score, int ply) {
+            if (score >= WIN_SCORE - MAX_DEPTH) {
+                return score - ply;
+            }
+            if (score <= -WIN_SCORE + MAX_DEPTH) {
+                return score + ply;
+            }
+            return score;
+        }
+
+        /**
+         * This method applies a move, searches the resulting position from the opponent's point of view and undoes the
+         * move.
+         * @param move The packed move to search
+         * @param depth The remaining depth to search, including this move
+         * @param ply The number of turns from the root to the position the move is made from
+         * @param alpha The score the player is already assured of
+         * @param beta The score the opponent is already assured of
+         * @param playerIndex The player making the move
+         * @return The score of the move for the player making it
+         */
+        private int searchChild(int move, int depth, int ply, int alpha, int beta, int playerIndex) {
+            gameState.applyMove(move, playerIndex);
+            int score = -search(depth - 1, ply + 1, -beta, -alpha, 1 - playerIndex);
+            gameState.undoMove(move, playerIndex);
+            return score;
+        }
+
+        /**
+         * This method checks if a player has lost by having fewer than three tokens after placing all of their tokens.
+         * @param playerIndex The player to check
+         * @return True if the player has lost, false otherwise
+         */
+        private boolean hasLost(int playerIndex) {
+            return gameState.getTokensRemaining(playerIndex) < 3 && gameState.getGamePhase(playerIndex) != PhaseIndicator.PHASE_ONE;
+        }
+
+        /**
+         * This method statically evaluates the game state.
+         * @param playerIndex The player who's turn it is
+         * @return The score of the game state for the player who's turn it is
+         */
+        private int evaluate(int playerIndex) {
+            return evaluator.evaluate(gameState, playerIndex, featureBuffer);
+        }
+    }
+
+    /**
+     * This method stops a search which is running on another thread. The search returns the best action found so far.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Setter for the evaluator which scores the positions at the leaves of the search. The transposition table is
+     * cleared, since the scores in it came from the previous evaluator. It must not be called while a search is
+     * running.
+     * @param _evaluator The evaluator
+     */
+    public void setEvaluator(Evaluator _evaluator) {
+        evaluator = _evaluator;
+        transpositionTable.clear();
+    }
+
+    /**
+     * Getter for the evaluator which scores the positions at the leaves of the search.
+     * @return The evaluator
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Setter for the endgame database consulted before each search.
+     * @param _endgameDatabase The endgame database, or null to always search
+     */
+    public void setEndgameDatabase(EndgameDatabase _endgameDatabase) {
+        endgameDatabase = _endgameDatabase;
+    }
+
+    /**
+     * This method returns whether the last search found its move in the endgame database instead of searching.
+     * @return True if the move came from the endgame database, false otherwise
+     */
+    public boolean isEndgameDatabaseHit() {
+        return endgameDatabaseHit;
+    }
+
+    /**
+     * Setter for the opening book consulted before each search.
+     * @param _openingBook The opening book, or null to always search
+     */
+    public void setOpeningBook(OpeningBook _openingBook) {
+        openingBook = _openingBook;
+    }
+
+    /**
+     * This method returns whether the last search found its move in the opening book instead of searching.
+     * @return True if the move came from the opening book, false otherwise
+     */
+    public boolean isOpeningBookHit() {
+        return openingBookHit;
+    }
+
+    /**
+     * Getter for the number of threads the search uses.
+     * @return The number of threads
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Getter for the number of positions searched by the last search, summed over all of its threads.
+     * @return The number of positions searched
+     */
+    public long getNodesSearched() {
+        return nodesSearched;
+    }
+
+    /**
+     * Getter for the throughput of the last search.
+     * @return The number of positions searched per second
+     */
+    public long getNodesPerSecond() {
+        return searchTimeNs == 0 ? 0 : nodesSearched * 1000000000L / searchTimeNs;
+    }
+
+    /**
+     * Getter for the duration of the last search.
+     * @return The duration of the last search in milliseconds
+     */
+    public long getSearchTimeMs() {
+        return searchTimeNs / 1000000;
+    }
+
+    /**
+     * Getter for the depth of the last completed iteration of the last search.
+     * @return The depth reached
+     */
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    /**
+     * Getter for the transposition table, for example to report its hit rate.
+     * @return The transposition table
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Getter for the score of the best action found by the last search.
+     * @return The score of the best action for the player who's turn it was
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+}
@@ -0,0 +1,220 @@
+package Search;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+
+import Game.GameState;
+import Players.PhaseIndicator;
+import Positions.Board;
+
+/**
+ * This class is a static evaluator of game states, used at the leaves of the alpha-beta search. A game state is scored
+ * as a weighted sum of features, where each feature is the difference between the player's value and their
+ * opponent's, so that the score is from the player's point of view. The features are computed from the board's
+ * occupancy masks and incrementally kept mill sets in one pass over the players' tokens, without creating objects.
+ * <p>
+ * The weights can be loaded from a properties file with one line per feature, such as "mills=20", so that they can be
+ * tuned without recompiling. Features which are not in the file keep their default weight.
+ * @see AlphaBetaSearch
+ * @see Board
+ */
+public class Evaluator {
+
+    public static final int PIECES = 0;         // tokens on the board plus tokens still to place
+    public static final int MILLS = 1;          // mills formed
+    public static final int OPEN_TWOS = 2;      // mills with all but one position held and the last empty
+    public static final int DOUBLE_MILLS = 3;   // open two-in-a-rows which a token from a formed mill can close by moving
+    public static final int BLOCKED_PIECES = 4; // tokens with no empty adjacent position, while not flying
+    public static final int MOBILITY = 5;       // moves to adjacent empty positions, in phase two
+    public static final int NUM_FEATURES = 6;
+    public static final String[] FEATURE_NAMES = { "pieces", "mills", "open_twos", "double_mills", "blocked_pieces", "mobility" };
+    private static final int[] DEFAULT_WEIGHTS = { 100, 20, 15, 10, -3, 3 };
+    public static final File DEFAULT_FILE = new File("evaluation.properties");
+
+    private int[] weights;
+
+    /**
+     * Constructor for the Evaluator class, with the default weights.
+     */
+    public Evaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Constructor for the Evaluator class.
+     * @param _weights The weight of each feature, indexed by the feature constants, which is copied
+     */
+    public Evaluator(int[] _weights) {
+        if (_weights.length != NUM_FEATURES) {
+            throw new IllegalArgumentException("Expected " + NUM_FEATURES + " weights but got " + _weights.length);
+        }
+        weights = _weights.clone();
+    }
+
+    /**
+     * This method scores a game state for a player.
+     * @param gameState The game state to score
+     * @param playerIndex The player to score the game state for
+     * @return The score, which is positive if the game state is better for the player than for their opponent
+     */
+    public int evaluate(GameState gameState, int playerIndex) {
+        return evaluate(gameState, playerIndex, new int[NUM_FEATURES]);
+    }
+
+    /**
+     * This method scores a game state for a player, computing the features into a buffer so that nothing is created.
+     * @param gameState The game state to score
+     * @param playerIndex The player to score the game state for
+     * @param features A buffer of NUM_FEATURES ints, which is left holding the features
+     * @return The score, which is positive if the game state is better for the player than for their opponent
+     */
+    public int evaluate(GameState gameState, int playerIndex, int[] features) {
+        computeFeatures(gameState, playerIndex, features);
+        int score = 0;
+        for (int i = 0; i < NUM_FEATURES; i++) {
+            score += weights[i] * features[i];
+        }
+        return score;
+    }
+
+    /**
+     * This method computes the value of each feature for a game state, as the player's value minus their opponent's.
+     * @param gameState The game state
+     * @param playerIndex The player to compute the features for
+     * @param features The array to write the features to, indexed by the feature constants
+     */
+    public static void computeFeatures(GameState gameState, int playerIndex, int[] features) {
+        for (int i = 0; i < NUM_FEATURES; i++) {
+            features[i] = 0;
+        }
+        addFeatures(gameState, playerIndex, 1, features);
+        addFeatures(gameState, 1 - playerIndex, -1, features);
+    }
+
+    /**
+     * This method adds one player's value of each feature to the features, with a sign.
+     * @param gameState The game state
+     * @param playerIndex The player to compute the features of
+     * @param sign 1 to add the player's values, or -1 to subtract them
+     * @param features The features to add to
+     */
+    private static void addFeatures(GameState gameState, int playerIndex, int sign, int[] features) {
+        Board board = gameState.getBoard();
+        int playerPositions = board.getPositionsMask(playerIndex);
+        int emptyPositions = board.getPositionsMask(-1);
+        PhaseIndicator phase = gameState.getGamePhase(playerIndex);
+
+        features[PIECES] += sign * (gameState.getTokensRemaining(playerIndex) + gameState.getNumTokensToPlace(playerIndex));
+        features[MILLS] += sign * board.getNumFormedMills(playerIndex);
+        features[OPEN_TWOS] += sign * board.getNumOpenTwos(playerIndex);
+
+        // a token of a formed mill next to the empty position of an open two-in-a-row can move back and forth between them
+        int tokensInMills = board.getTokensInMillsMask(playerIndex);
+        int doubleMills = 0;
+        int[] millMasks = board.getMillMasks();
+        for (long openTwoMills = board.getOpenTwoMills(playerIndex); openTwoMills != 0; openTwoMills &= openTwoMills - 1) {
+            int millMask = millMasks[Long.numberOfTrailingZeros(openTwoMills)];
+            int emptyPosition = Integer.numberOfTrailingZeros(millMask & emptyPositions);
+            if ((board.getAdjacencyMask(emptyPosition) & tokensInMills & ~millMask) != 0) {
+                doubleMills++;
+            }
+        }
+        features[DOUBLE_MILLS] += sign * doubleMills;
+
+        if (phase != PhaseIndicator.PHASE_THREE) {
+            int blockedPieces = 0;
+            int mobility = 0;
+            for (int positions = playerPositions; positions != 0; positions &= positions - 1) {
+                int emptyAdjacent = Integer.bitCount(board.getAdjacencyMask(Integer.numberOfTrailingZeros(positions)) & emptyPositions);
+                mobility += emptyAdjacent;
+                if (emptyAdjacent == 0) {
+                    blockedPieces++;
+                }
+            }
+            features[BLOCKED_PIECES] += sign * blockedPieces;
+            if (phase == PhaseIndicator.PHASE_TWO) {
+                features[MOBILITY] += sign * mobility;
+            }
+        }
+    }
+
+    /**
+     * Getter for the weight of a feature.
+     * @param feature The feature constant
+     * @return The weight
+     */
+    public int getWeight(int feature) {
+        return weights[feature];
+    }
+
+    /**
+     * Getter for the weights of all of the features.
+     * @return A copy of the weights, indexed by the feature constants
+     */
+    public int[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * This method loads an evaluator from a properties file of feature weights.
+     * @param file The file to load
+     * @return The evaluator, with the default weight for any feature which is not in the file
+     * @throws IOException If the file cannot be read or has an unknown feature or a weight which is not a number
+     */
+    public static Evaluator load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+        int[] weights = DEFAULT_WEIGHTS.clone();
+        for (String name : properties.stringPropertyNames()) {
+            int feature = getFeature(name);
+            if (feature == -1) {
+                throw new IOException(file + " has an unknown feature " + name);
+            }
+            try {
+                weights[feature] = Integer.parseInt(properties.getProperty(name).trim());
+            }
+            catch (NumberFormatException e) {
+                throw new IOException(file + " has a weight for " + name + " which is not a whole number");
+            }
+        }
+        return new Evaluator(weights);
+    }
+
+    /**
+     * This method saves the weights to a properties file which load can read.
+     * @param file The file to write to
+     * @param comment A comment to write at the top of the file, or null
+     * @throws IOException If the file cannot be written
+     */
+    public void save(File file, String comment) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            if (comment != null) {
+                writer.write("# " + comment + System.lineSeparator());
+            }
+            for (int i = 0; i < NUM_FEATURES; i++) {
+                writer.write(FEATURE_NAMES[i] + "=" + weights[i] + System.lineSeparator());
+            }
+        }
+    }
+
+    /**
+     * This method finds a feature by its name in a weights file.
+     * @param name The name of the feature
+     * @return The feature constant, or -1 if there is no feature with the name
+     */
+    public static int getFeature(String name) {
+        for (int i = 0; i < NUM_FEATURES; i++) {
+            if (FEATURE_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,443 @@
+package Search;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import Actions.Action;
+import Actions.ActionGenerator;
+import Actions.PackedMove;
+import Game.GameState;
+import Players.PhaseIndicator;
+
+/**
+ * This class is a Monte Carlo tree search over the game state, using UCT to choose which branch of the tree to explore.
+ * Each iteration walks down the tree from the root choosing the child with the best upper confidence bound, adds the
+ * children of the position it reaches, plays one of them out to the end of the game with fast rollouts on the headless
+ * rules, and adds the result to every node on the path. Each ply is a whole turn packed into an int, as in the
+ * alpha-beta search, and moves are applied and undone in place on the thread's own copy of the game state.
+ * <p>
+ * Rollouts choose uniformly random moves, or with the heuristic policy prefer moves which form a mill. A rollout which
+ * has not finished after MAX_ROLLOUT_TURNS turns is scored as a draw.
+ * <p>
+ * With more than one thread the search uses root parallelisation: every thread builds its own tree from the root with
+ * its own random numbers and nothing is shared, and when the budget runs out the visit counts of the root's children
+ * are summed over the trees. The move chosen is the one with the most visits. The tree is held in flat arrays which
+ * grow as needed, so iterations create no objects.
+ * @see GameState
+ * @see ActionGenerator
+ * @see AlphaBetaSearch
+ */
+public class MonteCarloTreeSearch {
+
+    /**
+     * The ways a rollout can choose its moves.
+     */
+    public enum RolloutPolicy {
+        RANDOM,
+        HEURISTIC
+    }
+
+    public static final int NO_MOVE = -1;
+    public static final long NO_ITERATION_LIMIT = Long.MAX_VALUE;
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+    public static final int MAX_ROLLOUT_TURNS = 200;
+    private static final int MAX_NODES = 1 << 22; // per tree, after which leaves are rolled out without being expanded
+    private static final int INITIAL_NODES = 1 << 12;
+    private static final int UNEXPANDED = -1;
+    private static final int DRAW = -1;
+
+    private int numThreads;
+    private RolloutPolicy rolloutPolicy;
+    private double exploration = DEFAULT_EXPLORATION;
+    private Random random;
+    private long deadline;
+    private volatile boolean stopped;
+    private long rollouts;
+    private long searchTimeNs;
+    private double bestWinRate;
+
+    /**
+     * Constructor for the MonteCarloTreeSearch class.
+     * @param _numThreads The number of threads to search with, each of which builds its own tree
+     * @param _rolloutPolicy The way rollouts choose their moves
+     * @param seed The seed for the search's random choices
+     */
+    public MonteCarloTreeSearch(int _numThreads, RolloutPolicy _rolloutPolicy, long seed) {
+        numThreads = Math.max(1, _numThreads);
+        rolloutPolicy = _rolloutPolicy;
+        random = new Random(seed);
+    }
+
+    /**
+     * This method searches for the best action for a player until either the time budget or the iteration budget runs
+     * out. The game state passed in is not modified. If the best move forms a mill, the action returned is the
+     * placement or move and the removal is searched for on the next call.
+     * @param rootState The game state to search from
+     * @param playerIndex The player who's turn it is
+     * @param searchTimeMs The time budget for the search in milliseconds
+     * @param maxIterations The total number of iterations over all threads to stop at, or NO_ITERATION_LIMIT
+     * @return The best action found, or null if the player has no legal actions
+     */
+    public Action findBestAction(GameState rootState, int playerIndex, long searchTimeMs, long maxIterations) {
+        int move = findBestMove(rootState, playerIndex, searchTimeMs, maxIterations);
+        return move == NO_MOVE ? null : ActionGenerator.toAction(move, playerIndex);
+    }
+
+    /**
+     * This method searches for the best whole turn for a player until either the time budget or the iteration budget
+     * runs out. The game state passed in is not modified.
+     * @param rootState The game state to search from
+     * @param playerIndex The player who's turn it is
+     * @param searchTimeMs The time budget for the search in milliseconds
+     * @param maxIterations The total number of iterations over all threads to stop at, or NO_ITERATION_LIMIT
+     * @return The best move found as a PackedMove, or NO_MOVE if the player has no legal moves
+     */
+    public int findBestMove(GameState rootState, int playerIndex, long searchTimeMs, long maxIterations) {
+        long startTime = System.nanoTime();
+        deadline = startTime + searchTimeMs * 1000000; // compared by difference, since a budget of "no limit" overflows
+        stopped = false;
+        rollouts = 0;
+        bestWinRate = 0;
+
+        int[] rootMoves = new int[ActionGenerator.MAX_MOVES];
+        int numRootMoves = ActionGenerator.generateMoves(rootState, playerIndex, rootMoves);
+        if (numRootMoves == 0) {
+            searchTimeNs = System.nanoTime() - startTime;
+            return NO_MOVE;
+        }
+        if (numRootMoves == 1) {
+            searchTimeNs = System.nanoTime() - startTime;
+            return rootMoves[0];
+        }
+
+        long iterationsPerThread = maxIterations == NO_ITERATION_LIMIT ? NO_ITERATION_LIMIT : (maxIterations + numThreads - 1) / numThreads;
+        SearchWorker[] workers = new SearchWorker[numThreads];
+        Thread[] helperThreads = new Thread[numThreads - 1];
+        for (int i = 0; i < numThreads; i++) {
+            workers[i] = new SearchWorker(new GameState(rootState), playerIndex, iterationsPerThread, random.nextLong());
+        }
+        for (int i = 0; i < helperThreads.length; i++) {
+            helperThreads[i] = new Thread(workers[i + 1], "mcts-helper-" + (i + 1));
+            helperThreads[i].setDaemon(true);
+            helperThreads[i].start();
+        }
+
+        workers[0].run();
+        for (Thread helperThread : helperThreads) {
+            try {
+                helperThread.join();
+            }
+            catch (InterruptedException e) {
+                stopped = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // every tree has the root's children in the order the moves were generated
+        long[] visits = new long[numRootMoves];
+        double[] rewards = new double[numRootMoves];
+        for (SearchWorker worker : workers) {
+            rollouts += worker.iterations;
+            for (int i = 0; i < numRootMoves; i++) {
+                visits[i] += worker.visits[worker.firstChild[0] + i];
+                rewards[i] += worker.rewards[worker.firstChild[0] + i];
+            }
+        }
+        int bestIndex = 0;
+        for (int i = 1; i < numRootMoves; i++) {
+            if (visits[i] > visits[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        bestWinRate = visits[bestIndex] == 0 ? 0 : rewards[bestIndex] / visits[bestIndex];
+        searchTimeNs = System.nanoTime() - startTime;
+        return rootMoves[bestIndex];
+    }
+
+    /**
+     * This class is one thread of the search, with its own tree and its own copy of the game state. Node 0 is the
+     * root, and the children of a node are stored next to each other.
+     */
+    private class SearchWorker implements Runnable {
+
+        private GameState gameState;
+        private int rootPlayerIndex;
+        private long maxIterations;
+        private Random workerRandom;
+        private long iterations = 0;
+
+        private int numNodes = 0;
+        private int[] moves = new int[INITIAL_NODES];      // the move into each node
+        private int[] firstChild = new int[INITIAL_NODES]; // the index of each node's first child, or UNEXPANDED
+        private int[] numChildren = new int[INITIAL_NODES];
+        private int[] visits = new int[INITIAL_NODES];
+        private double[] rewards = new double[INITIAL_NODES]; // the total result for the player who made the move into each node
+
+        private int[] path = new int[64];        // the nodes visited by the current iteration
+        private int[] appliedMoves = new int[64]; // the moves applied to the game state by the current iteration
+        private int numAppliedMoves;
+        private int[] moveBuffer = new int[ActionGenerator.MAX_MOVES];
+        private int[] millMoveBuffer = new int[ActionGenerator.MAX_MOVES];
+
+        /**
+         * Constructor for the SearchWorker class.
+         * @param _gameState The worker's own copy of the game state to search from
+         * @param _rootPlayerIndex The player who's turn it is
+         * @param _maxIterations The number of iterations to stop at
+         * @param seed The seed for the worker's random choices
+         */
+        SearchWorker(GameState _gameState, int _rootPlayerIndex, long _maxIterations, long seed) {
+            gameState = _gameState;
+            rootPlayerIndex = _rootPlayerIndex;
+            maxIterations = _maxIterations;
+            workerRandom = new Random(seed);
+            addNode(PackedMove.encode(PackedMove.NONE, PackedMove.NONE, PackedMove.NONE));
+            expand(0, rootPlayerIndex);
+        }
+
+        @Override
+        public void run() {
+            while (iterations < maxIterations && !stopped && System.nanoTime() - deadline < 0) {
+                iterate();
+                iterations++;
+            }
+        }
+
+        /**
+         * This method runs one iteration: selection, expansion, rollout and backpropagation. The game state is
+         * restored afterwards.
+         */
+        private void iterate() {
+            int node = 0;
+            int playerIndex = rootPlayerIndex;
+            int pathLength = 0;
+            numAppliedMoves = 0;
+            path[pathLength++] = node;
+
+            int winner;
+            while (true) {
+                if (firstChild[node] == UNEXPANDED && !expand(node, playerIndex)) {
+                    winner = rollout(playerIndex); // the tree is full, so play out from the leaf
+                    break;
+                }
+                if (numChildren[node] == 0) {
+                    winner = 1 - playerIndex; // the player to move has lost
+                    break;
+                }
+                int child = selectChild(node);
+                applyMove(moves[child], playerIndex);
+                playerIndex = 1 - playerIndex;
+                node = child;
+                if (pathLength == path.length) {
+                    path = Arrays.copyOf(path, 2 * path.length);
+                }
+                path[pathLength++] = node;
+                if (visits[node] == 0) {
+                    winner = rollout(playerIndex);
+                    break;
+                }
+            }
+
+            // the players alternate from the root, so the root player made every even numbered move
+            for (int i = numAppliedMoves - 1; i >= 0; i--) {
+                gameState.undoMove(appliedMoves[i], i % 2 == 0 ? rootPlayerIndex : 1 - rootPlayerIndex);
+            }
+
+            // the player who made the move into the node at depth d is the root player when d is odd
+            for (int depth = 0; depth < pathLength; depth++) {
+                int pathNode = path[depth];
+                int mover = depth % 2 == 1 ? rootPlayerIndex : 1 - rootPlayerIndex;
+                visits[pathNode]++;
+                rewards[pathNode] += winner == DRAW ? 0.5 : winner == mover ? 1 : 0;
+            }
+        }
+
+        /**
+         * This method chooses the child of a node with the highest upper confidence bound, or the first child which
+         * has not been visited.
+         * @param node The node, which has children
+         * @return The chosen child
+         */
+        private int selectChild(int node) {
+            double logParentVisits = Math.log(visits[node]);
+            int bestChild = firstChild[node];
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int child = firstChild[node]; child < firstChild[node] + numChildren[node]; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double bound = rewards[child] / visits[child] + exploration * Math.sqrt(logParentVisits / visits[child]);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    bestChild = child;
+                }
+            }
+            return bestChild;
+        }
+
+        /**
+         * This method adds the children of a node, one for each legal move, or none if the player to move has lost.
+         * @param node The node, which has not been expanded
+         * @param playerIndex The player who's turn it is at the node
+         * @return True if the node was expanded, false if the tree is full
+         */
+        private boolean expand(int node, int playerIndex) {
+            int numMoves = hasLost(playerIndex) ? 0 : ActionGenerator.generateMoves(gameState, playerIndex, moveBuffer);
+            if (numNodes + numMoves > MAX_NODES) {
+                return false;
+            }
+            firstChild[node] = numNodes;
+            numChildren[node] = numMoves;
+            for (int i = 0; i < numMoves; i++) {
+                addNode(moveBuffer[i]);
+            }
+            return true;
+        }
+
+        /**
+         * This method adds an unexpanded node to the tree, growing the arrays if needed.
+         * @param move The move into the node
+         */
+        private void addNode(int move) {
+            if (numNodes == moves.length) {
+                int capacity = 2 * moves.length;
+                moves = Arrays.copyOf(moves, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                numChildren = Arrays.copyOf(numChildren, capacity);
+                visits = Arrays.copyOf(visits, capacity);
+                rewards = Arrays.copyOf(rewards, capacity);
+            }
+            moves[numNodes] = move;
+            firstChild[numNodes] = UNEXPANDED;
+            numChildren[numNodes] = 0;
+            visits[numNodes] = 0;
+            rewards[numNodes] = 0;
+            numNodes++;
+        }
+
+        /**
+         * This method plays the game out from the current game state, leaving the moves applied.
+         * @param playerIndex The player who's turn it is
+         * @return The winner, or DRAW if the game has not finished within MAX_ROLLOUT_TURNS turns
+         */
+        private int rollout(int playerIndex) {
+            for (int turn = 0; turn < MAX_ROLLOUT_TURNS; turn++) {
+                if (hasLost(playerIndex)) {
+                    return 1 - playerIndex;
+                }
+                int numMoves = ActionGenerator.generateMoves(gameState, playerIndex, moveBuffer);
+                if (numMoves == 0) {
+                    return 1 - playerIndex;
+                }
+                applyMove(chooseRolloutMove(numMoves), playerIndex);
+                playerIndex = 1 - playerIndex;
+            }
+            return DRAW;
+        }
+
+        /**
+         * This method chooses a move for a rollout from the moves in the move buffer.
+         * @param numMoves The number of moves
+         * @return The chosen move as a PackedMove
+         */
+        private int chooseRolloutMove(int numMoves) {
+            if (rolloutPolicy == RolloutPolicy.HEURISTIC) {
+                int numMillMoves = 0;
+                for (int i = 0; i < numMoves; i++) {
+                    if (PackedMove.getRemove(moveBuffer[i]) != PackedMove.NONE) {
+                        millMoveBuffer[numMillMoves++] = moveBuffer[i];
+                    }
+                }
+                if (numMillMoves > 0) {
+                    return millMoveBuffer[workerRandom.nextInt(numMillMoves)];
+                }
+            }
+            return moveBuffer[workerRandom.nextInt(numMoves)];
+        }
+
+        /**
+         * This method applies a move to the game state and records it so the iteration can undo it.
+         * @param move The move as a PackedMove
+         * @param playerIndex The player making the move
+         */
+        private void applyMove(int move, int playerIndex) {
+            if (numAppliedMoves == appliedMoves.length) {
+                appliedMoves = Arrays.copyOf(appliedMoves, 2 * appliedMoves.length);
+            }
+            appliedMoves[numAppliedMoves++] = move;
+            gameState.applyMove(move, playerIndex);
+        }
+
+        /**
+         * This method checks if a player has lost by having fewer than three tokens after placing all of their tokens.
+         * @param playerIndex The player to check
+         * @return True if the player has lost, false otherwise
+         */
+        private boolean hasLost(int playerIndex) {
+            return gameState.getTokensRemaining(playerIndex) < 3 && gameState.getGamePhase(playerIndex) != PhaseIndicator.PHASE_ONE;
+        }
+    }
+
+    /**
+     * This method stops a search which is running on another thread. The search returns the best action found so far.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Setter for the exploration constant of the upper confidence bound.
+     * @param _exploration The exploration constant, where higher values explore less visited moves more
+     */
+    public void setExploration(double _exploration) {
+        exploration = _exploration;
+    }
+
+    /**
+     * Getter for the number of threads the search uses.
+     * @return The number of threads
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Getter for the way rollouts choose their moves.
+     * @return The rollout policy
+     */
+    public RolloutPolicy getRolloutPolicy() {
+        return rolloutPolicy;
+    }
+
+    /**
+     * Getter for the number of rollouts played by the last search, summed over all of its threads.
+     * @return The number of rollouts
+     */
+    public long getRollouts() {
+        return rollouts;
+    }
+
+    /**
+     * Getter for the throughput of the last search.
+     * @return The number of rollouts played per second
+     */
+    public long getRolloutsPerSecond() {
+        return searchTimeNs == 0 ? 0 : rollouts * 1000000000L / searchTimeNs;
+    }
+
+    /**
+     * Getter for the duration of the last search.
+     * @return The duration of the last search in milliseconds
+     */
+    public long getSearchTimeMs() {
+        return searchTimeNs / 1000000;
+    }
+
+    /**
+     * Getter for the average result of the move chosen by the last search, over all of its rollouts.
+     * @return The fraction of the rollouts won by the player who's turn it was, counting draws as half
+     */
+    public double getBestWinRate() {
+        return bestWinRate;
+    }
+}
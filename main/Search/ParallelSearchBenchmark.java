@@ -0,0 +1,103 @@
+package Search;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import Actions.Action;
+import Actions.ActionGenerator;
+import Game.GameState;
+import Players.PhaseIndicator;
+import Positions.Board;
+
+/**
+ * This class measures how much faster the multi-threaded alpha-beta search is than a single thread. It plays random
+ * actions from the start of the game to get a set of test positions, then searches each position to a fixed depth
+ * once with one thread and once with the given number of threads, each with an empty transposition table. The
+ * speedup is the ratio of the times taken to reach the depth.
+ * <p>
+ * Usage: ParallelSearchBenchmark [threads] [depth] [positions]
+ * @see AlphaBetaSearch
+ */
+public class ParallelSearchBenchmark {
+
+    private static final long SEED = 20240501L;
+    private static final int MIN_RANDOM_ACTIONS = 6;
+    private static final int MAX_RANDOM_ACTIONS = 30;
+    private static final long NO_TIME_LIMIT_MS = Long.MAX_VALUE / 1000000;
+
+    /**
+     * Main method for the benchmark.
+     * @param args The number of threads (default: all processors), the depth to search to (default: 8) and the number
+     * of test positions (default: 10)
+     */
+    public static void main(String[] args) {
+        int numThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int numPositions = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        ArrayList<GameState> positions = new ArrayList<GameState>();
+        ArrayList<Integer> playersToMove = new ArrayList<Integer>();
+        generatePositions(numPositions, positions, playersToMove);
+
+        long singleThreadTimeNs = 0;
+        long multiThreadTimeNs = 0;
+        long singleThreadNodes = 0;
+        long multiThreadNodes = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            AlphaBetaSearch singleThreadSearch = new AlphaBetaSearch(AlphaBetaSearch.DEFAULT_TRANSPOSITION_TABLE_SIZE_MB, 1);
+            long startTime = System.nanoTime();
+            singleThreadSearch.findBestAction(positions.get(i), playersToMove.get(i), NO_TIME_LIMIT_MS, depth);
+            long singleTimeNs = System.nanoTime() - startTime;
+
+            AlphaBetaSearch multiThreadSearch = new AlphaBetaSearch(AlphaBetaSearch.DEFAULT_TRANSPOSITION_TABLE_SIZE_MB, numThreads);
+            startTime = System.nanoTime();
+            multiThreadSearch.findBestAction(positions.get(i), playersToMove.get(i), NO_TIME_LIMIT_MS, depth);
+            long multiTimeNs = System.nanoTime() - startTime;
+
+            singleThreadTimeNs += singleTimeNs;
+            multiThreadTimeNs += multiTimeNs;
+            singleThreadNodes += singleThreadSearch.getNodesSearched();
+            multiThreadNodes += multiThreadSearch.getNodesSearched();
+            System.out.printf("Position %d: 1 thread %d ms, %d threads %d ms, speedup %.2fx%n", i + 1,
+                    singleTimeNs / 1000000, numThreads, multiTimeNs / 1000000, (double) singleTimeNs / Math.max(1, multiTimeNs));
+        }
+
+        System.out.printf("Depth %d over %d positions: 1 thread %d ms (%d nodes/s), %d threads %d ms (%d nodes/s)%n",
+                depth, positions.size(),
+                singleThreadTimeNs / 1000000, singleThreadNodes * 1000000000L / Math.max(1, singleThreadTimeNs),
+                numThreads, multiThreadTimeNs / 1000000, multiThreadNodes * 1000000000L / Math.max(1, multiThreadTimeNs));
+        System.out.printf("Time to depth speedup: %.2fx%n", (double) singleThreadTimeNs / Math.max(1, multiThreadTimeNs));
+    }
+
+    /**
+     * This method plays random actions from the start of the game to generate test positions which are not yet over.
+     * @param numPositions The number of positions to generate
+     * @param positions The list to add the positions to
+     * @param playersToMove The list to add the player to move in each position to
+     */
+    private static void generatePositions(int numPositions, ArrayList<GameState> positions, ArrayList<Integer> playersToMove) {
+        Random random = new Random(SEED);
+        while (positions.size() < numPositions) {
+            GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+            int playerIndex = 0;
+            int numActions = MIN_RANDOM_ACTIONS + random.nextInt(MAX_RANDOM_ACTIONS - MIN_RANDOM_ACTIONS + 1);
+            boolean gameOver = false;
+            for (int i = 0; i < numActions && !gameOver; i++) {
+                ArrayList<Action> actions = ActionGenerator.generateActions(gameState, playerIndex);
+                if (actions.isEmpty()) {
+                    gameOver = true;
+                    break;
+                }
+                gameState.apply(actions.get(random.nextInt(actions.size())));
+                if (!gameState.getBoard().getMillFormed()) {
+                    playerIndex = 1 - playerIndex;
+                }
+                gameOver = gameState.getTokensRemaining(playerIndex) < 3 && gameState.getGamePhase(playerIndex) != PhaseIndicator.PHASE_ONE;
+            }
+            if (!gameOver && !ActionGenerator.generateActions(gameState, playerIndex).isEmpty()) {
+                positions.add(gameState);
+                playersToMove.add(playerIndex);
+            }
+        }
+    }
+}
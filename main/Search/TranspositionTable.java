@@ -0,0 +1,188 @@
+package Search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a fixed-size transposition table which stores the results of searched positions, keyed by their Zobrist
+ * hash. Entries are stored in two primitive arrays (the key and a packed data word) so the table creates no objects.
+ * When two positions map to the same slot the result searched to the greater depth is kept, unless the stored entry is
+ * left over from an earlier search.
+ * <p>
+ * The table can be shared by several search threads without locking. Each slot stores the key XORed with the data
+ * word, so an entry whose key and data were written by two different threads at the same time no longer matches its
+ * key and is treated as a miss rather than returning another position's result.
+ * @see AlphaBetaSearch
+ * @see Positions.Zobrist
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    /* Layout of the packed data word: | generation (6) | best action (16) | flag (2) | depth (8) | score (32) | */
+    private static final int DEPTH_SHIFT = 32;
+    private static final int FLAG_SHIFT = 40;
+    private static final int BEST_ACTION_SHIFT = 42;
+    private static final int GENERATION_SHIFT = 58;
+
+    private long[] keys;
+    private long[] data;
+    private int indexMask;
+    private int generation = 1;
+    private LongAdder probes = new LongAdder();
+    private LongAdder hits = new LongAdder();
+
+    /**
+     * Constructor for the TranspositionTable class. The number of entries is the largest power of two that fits in the
+     * given amount of memory.
+     * @param sizeMb The memory to use for the table in megabytes
+     */
+    public TranspositionTable(int sizeMb) {
+        long maxEntries = Math.max(1, (long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY);
+        int numEntries = Integer.highestOneBit((int) Math.min(maxEntries, 1 << 30));
+        keys = new long[numEntries];
+        data = new long[numEntries];
+        indexMask = numEntries - 1;
+    }
+
+    /**
+     * This method starts a new search, so that entries from earlier searches are replaced before entries from this one.
+     * It must be called before any search threads are started.
+     */
+    public void newSearch() {
+        generation = (generation % 63) + 1; // generation 0 marks an empty slot
+    }
+
+    /**
+     * This method looks up a position in the table.
+     * @param key The Zobrist hash of the position
+     * @return The packed entry for the position, to be read with the static getters, or 0 if the position is not in
+     * the table
+     */
+    public long probe(long key) {
+        probes.increment();
+        int slot = (int) key & indexMask;
+        long entry = data[slot];
+        if (entry == 0 || (keys[slot] ^ entry) != key) {
+            return 0;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * This method stores the result of searching a position, replacing the entry in its slot if that entry was searched
+     * to a lesser or equal depth or is from an earlier search.
+     * @param key The Zobrist hash of the position
+     * @param depth The depth the position was searched to
+     * @param score The score of the position
+     * @param flag Whether the score is EXACT, a LOWER_BOUND or an UPPER_BOUND
+     * @param bestAction The best action found, in a form chosen by the search
+     */
+    public void store(long key, int depth, int score, int flag, int bestAction) {
+        int slot = (int) key & indexMask;
+        long storedEntry = data[slot];
+        if (storedEntry != 0 && (keys[slot] ^ storedEntry) != key
+                && getGeneration(storedEntry) == generation && getDepth(storedEntry) > depth) {
+            return; // keep the deeper result from this search
+        }
+        long entry = (score & 0xFFFFFFFFL)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) flag << FLAG_SHIFT)
+                | ((long) (bestAction & 0xFFFF) << BEST_ACTION_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+        keys[slot] = key ^ entry;
+        data[slot] = entry;
+    }
+
+    /**
+     * Getter for the score stored in an entry.
+     * @param entry The entry returned by probe
+     * @return The stored score
+     */
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Getter for the depth stored in an entry.
+     * @param entry The entry returned by probe
+     * @return The stored depth
+     */
+    public static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Getter for the flag stored in an entry.
+     * @param entry The entry returned by probe
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public static int getFlag(long entry) {
+        return (int) (entry >>> FLAG_SHIFT) & 3;
+    }
+
+    /**
+     * Getter for the best action stored in an entry.
+     * @param entry The entry returned by probe
+     * @return The stored best action
+     */
+    public static int getBestAction(long entry) {
+        return (int) (entry >>> BEST_ACTION_SHIFT) & 0xFFFF;
+    }
+
+    /**
+     * This method returns the generation of an entry.
+     * @param entry The packed entry
+     * @return The generation of the search that stored it
+     */
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & 0x3F;
+    }
+
+    /**
+     * This method returns the fraction of probes which found their position in the table.
+     * @return The hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long numProbes = probes.sum();
+        return numProbes == 0 ? 0 : (double) hits.sum() / numProbes;
+    }
+
+    /**
+     * Getter for the number of probes since the counters were last reset.
+     * @return The number of probes
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * Getter for the number of probes which found their position since the counters were last reset.
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * This method resets the hit rate counters.
+     */
+    public void resetCounters() {
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * This method empties the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        resetCounters();
+    }
+}
@@ -0,0 +1,56 @@
+package Tournament;
+
+import Game.GameState;
+import Search.AlphaBetaSearch;
+import Search.Evaluator;
+
+/**
+ * This class is an engine which chooses its moves with the alpha-beta search, searching to a fixed depth or for a
+ * fixed time on each turn. Each engine has its own single-threaded search and transposition table, so that many games
+ * can be played in parallel.
+ * @see Engine
+ * @see AlphaBetaSearch
+ */
+public class AlphaBetaEngine implements Engine {
+
+    public static final int TRANSPOSITION_TABLE_SIZE_MB = 4;
+    private static final long NO_TIME_LIMIT_MS = Long.MAX_VALUE / 1000000;
+
+    private AlphaBetaSearch search = new AlphaBetaSearch(TRANSPOSITION_TABLE_SIZE_MB, 1);
+    private int depth;
+    private long searchTimeMs;
+
+    /**
+     * Constructor for the AlphaBetaEngine class.
+     * @param _depth The depth to search to, or AlphaBetaSearch.MAX_DEPTH to search until the time runs out
+     * @param _searchTimeMs The time budget for each search in milliseconds, or 0 for no limit
+     */
+    public AlphaBetaEngine(int _depth, long _searchTimeMs) {
+        this(_depth, _searchTimeMs, new Evaluator());
+    }
+
+    /**
+     * Constructor for the AlphaBetaEngine class with its own evaluation weights.
+     * @param _depth The depth to search to, or AlphaBetaSearch.MAX_DEPTH to search until the time runs out
+     * @param _searchTimeMs The time budget for each search in milliseconds, or 0 for no limit
+     * @param evaluator The evaluator which scores the positions at the leaves of the search
+     */
+    public AlphaBetaEngine(int _depth, long _searchTimeMs, Evaluator evaluator) {
+        depth = _depth;
+        searchTimeMs = _searchTimeMs > 0 ? _searchTimeMs : NO_TIME_LIMIT_MS;
+        search.setEvaluator(evaluator);
+    }
+
+    @Override
+    public int chooseMove(GameState gameState, int playerIndex) {
+        return search.findBestMove(gameState, playerIndex, searchTimeMs, depth);
+    }
+
+    @Override
+    public String getName() {
+        if (depth == AlphaBetaSearch.MAX_DEPTH) {
+            return "alphabeta:" + searchTimeMs + "ms";
+        }
+        return "alphabeta:" + depth;
+    }
+}
@@ -0,0 +1,25 @@
+package Tournament;
+
+import Game.GameState;
+
+/**
+ * This interface is used to represent a headless player which chooses whole turns directly from a game state, for
+ * games played without a display. An engine is only ever used by one game at a time.
+ * @see SelfPlayGame
+ */
+public interface Engine {
+    /**
+     * This method is used to choose a move for a player.
+     * @param gameState The game state to choose the move in, which must not be modified
+     * @param playerIndex The player who's turn it is
+     * @return The chosen move as a PackedMove
+     * @see Actions.PackedMove
+     */
+    public int chooseMove(GameState gameState, int playerIndex);
+
+    /**
+     * This method is used to get a short description of the engine for reports.
+     * @return The name of the engine
+     */
+    public String getName();
+}
@@ -0,0 +1,46 @@
+package Tournament;
+
+import Game.GameState;
+import Search.MonteCarloTreeSearch;
+
+/**
+ * This class is an engine which chooses its moves with a single-threaded Monte Carlo tree search, playing a fixed
+ * number of rollouts or searching for a fixed time on each turn, so that many games can be played in parallel.
+ * @see Engine
+ * @see MonteCarloTreeSearch
+ */
+public class MctsEngine implements Engine {
+
+    private static final long NO_TIME_LIMIT_MS = Long.MAX_VALUE / 1000000;
+
+    private MonteCarloTreeSearch search;
+    private long maxRollouts;
+    private long searchTimeMs;
+
+    /**
+     * Constructor for the MctsEngine class.
+     * @param _maxRollouts The number of rollouts for each search, or MonteCarloTreeSearch.NO_ITERATION_LIMIT
+     * @param _searchTimeMs The time budget for each search in milliseconds, or 0 for no limit
+     * @param rolloutPolicy The way rollouts choose their moves
+     * @param seed The seed for the engine's random choices
+     */
+    public MctsEngine(long _maxRollouts, long _searchTimeMs, MonteCarloTreeSearch.RolloutPolicy rolloutPolicy, long seed) {
+        search = new MonteCarloTreeSearch(1, rolloutPolicy, seed);
+        maxRollouts = _maxRollouts;
+        searchTimeMs = _searchTimeMs > 0 ? _searchTimeMs : NO_TIME_LIMIT_MS;
+    }
+
+    @Override
+    public int chooseMove(GameState gameState, int playerIndex) {
+        return search.findBestMove(gameState, playerIndex, searchTimeMs, maxRollouts);
+    }
+
+    @Override
+    public String getName() {
+        String prefix = search.getRolloutPolicy() == MonteCarloTreeSearch.RolloutPolicy.RANDOM ? "mcts-random:" : "mcts:";
+        if (maxRollouts == MonteCarloTreeSearch.NO_ITERATION_LIMIT) {
+            return prefix + searchTimeMs + "ms";
+        }
+        return prefix + maxRollouts;
+    }
+}
@@ -0,0 +1,35 @@
+package Tournament;
+
+import java.util.Random;
+
+import Actions.ActionGenerator;
+import Game.GameState;
+
+/**
+ * This class is an engine which chooses a legal move uniformly at random.
+ * @see Engine
+ */
+public class RandomEngine implements Engine {
+
+    private Random random;
+    private int[] moves = new int[ActionGenerator.MAX_MOVES];
+
+    /**
+     * Constructor for the RandomEngine class.
+     * @param seed The seed for the engine's random choices
+     */
+    public RandomEngine(long seed) {
+        random = new Random(seed);
+    }
+
+    @Override
+    public int chooseMove(GameState gameState, int playerIndex) {
+        int numMoves = ActionGenerator.generateMoves(gameState, playerIndex, moves);
+        return moves[random.nextInt(numMoves)];
+    }
+
+    @Override
+    public String getName() {
+        return "random";
+    }
+}
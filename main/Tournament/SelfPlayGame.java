@@ -0,0 +1,150 @@
+package Tournament;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import Actions.ActionGenerator;
+import Game.GameState;
+import Players.PhaseIndicator;
+import Positions.Board;
+import Positions.Zobrist;
+
+/**
+ * This class plays one headless game between two engines on its own game state, so that any number of games can be
+ * played at once on different threads. A player loses when they have fewer than three tokens after placing all of
+ * their tokens or have no legal moves. The game is drawn when a position repeats three times with the same player to
+ * move, or when the turn limit is reached. The game can start with some random turns so that games between
+ * deterministic engines differ.
+ * @see Engine
+ * @see TournamentRunner
+ */
+public class SelfPlayGame {
+
+    public static final int DRAW = -1;
+
+    private Engine[] engines;
+    private int maxTurns;
+    private int randomOpeningTurns;
+    private Random random;
+    private int winner = DRAW;
+    private int[] moves = new int[64];
+    private int numMoves = 0;
+    private long startTimeMs;
+
+    /**
+     * Constructor for the SelfPlayGame class.
+     * @param firstEngine The engine playing as player 0, who moves first
+     * @param secondEngine The engine playing as player 1
+     * @param _maxTurns The number of turns after which the game is drawn
+     * @param _randomOpeningTurns The number of turns at the start of the game which are played randomly
+     * @param seed The seed for the random opening turns
+     */
+    public SelfPlayGame(Engine firstEngine, Engine secondEngine, int _maxTurns, int _randomOpeningTurns, long seed) {
+        engines = new Engine[] { firstEngine, secondEngine };
+        maxTurns = _maxTurns;
+        randomOpeningTurns = _randomOpeningTurns;
+        random = new Random(seed);
+    }
+
+    /**
+     * This method plays the game to the end. The engines are released afterwards, so that a finished game only holds
+     * its moves and result and many finished games can be kept without keeping their transposition tables.
+     * @return The final game state
+     */
+    public GameState play() {
+        startTimeMs = System.currentTimeMillis();
+        try {
+            return playTurns();
+        }
+        finally {
+            engines = null;
+        }
+    }
+
+    /**
+     * This method plays turns until the game is over.
+     * @return The final game state
+     */
+    private GameState playTurns() {
+        GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+        HashMap<Long, Integer> positionCounts = new HashMap<Long, Integer>();
+        int[] legalMoves = new int[ActionGenerator.MAX_MOVES];
+        int playerIndex = 0;
+
+        while (numMoves < maxTurns) {
+            if (hasLost(gameState, playerIndex)) {
+                gameState.setPlayerLost(playerIndex, true);
+                winner = 1 - playerIndex;
+                return gameState;
+            }
+            int numLegalMoves = ActionGenerator.generateMoves(gameState, playerIndex, legalMoves);
+            if (numLegalMoves == 0) {
+                gameState.setPlayerLost(playerIndex, true);
+                winner = 1 - playerIndex;
+                return gameState;
+            }
+            long key = gameState.getHash() ^ Zobrist.playerToMoveKey(playerIndex);
+            if (positionCounts.merge(key, 1, Integer::sum) == 3) {
+                return gameState; // drawn by repetition
+            }
+
+            int move;
+            if (numMoves < randomOpeningTurns) {
+                move = legalMoves[random.nextInt(numLegalMoves)];
+            }
+            else {
+                move = engines[playerIndex].chooseMove(gameState, playerIndex);
+            }
+            if (numMoves == moves.length) {
+                moves = Arrays.copyOf(moves, 2 * moves.length);
+            }
+            moves[numMoves++] = move;
+            gameState.applyMove(move, playerIndex);
+            playerIndex = 1 - playerIndex;
+        }
+        return gameState; // drawn by the turn limit
+    }
+
+    /**
+     * This method checks if a player has lost by having fewer than three tokens after placing all of their tokens.
+     * @param gameState The game state to check
+     * @param playerIndex The player to check
+     * @return True if the player has lost, false otherwise
+     */
+    private static boolean hasLost(GameState gameState, int playerIndex) {
+        return gameState.getTokensRemaining(playerIndex) < 3 && gameState.getGamePhase(playerIndex) != PhaseIndicator.PHASE_ONE;
+    }
+
+    /**
+     * Getter for the winner of the game.
+     * @return The player who won, or DRAW
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Getter for the number of turns played.
+     * @return The number of turns
+     */
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    /**
+     * Getter for the time the game started.
+     * @return The time in milliseconds since the epoch
+     */
+    public long getStartTimeMs() {
+        return startTimeMs;
+    }
+
+    /**
+     * Getter for the moves played, in order, with player 0 moving first.
+     * @return The moves as PackedMoves
+     */
+    public int[] getMoves() {
+        return Arrays.copyOf(moves, numMoves);
+    }
+}
@@ -0,0 +1,214 @@
+package Tournament;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Positions.Board;
+import Records.GameLogWriter;
+import Records.GameRecord;
+import Search.AlphaBetaSearch;
+import Search.Evaluator;
+import Search.MonteCarloTreeSearch;
+
+/**
+ * This class is a headless tournament runner which plays many games between two engines in parallel on a thread pool,
+ * for tuning the AI without the display. Every game has its own game state and its own engines, and the engines swap
+ * sides every game. When the games are finished it prints a summary of the first engine's wins, draws and losses, the
+ * average game length and the number of games played per second, and optionally writes it to a file.
+ * <p>
+ * Usage: TournamentRunner [--games N] [--threads N] [--engine1 SPEC] [--engine2 SPEC] [--max-turns N]
+ * [--random-opening N] [--seed N] [--output FILE] [--weights1 FILE] [--weights2 FILE] [--game-log FILE]
+ * <p>
+ * An engine SPEC is "random", "alphabeta:DEPTH" to search to a fixed depth, "alphabeta:TIMEms" to search for a fixed
+ * time on each turn, "mcts:ROLLOUTS" or "mcts:TIMEms" for a Monte Carlo tree search with heuristic rollouts, or
+ * "mcts-random:ROLLOUTS" or "mcts-random:TIMEms" for one with random rollouts. The weights options give an alpha-beta
+ * engine evaluation weights from a file, as read by Evaluator.load, instead of the default weights. With a game log
+ * every game is appended to it, in the order the games were started, with the engine specs as the player names.
+ * @see SelfPlayGame
+ * @see Engine
+ */
+public class TournamentRunner {
+
+    private int numGames = 1000;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+    private String firstEngineSpec = "alphabeta:3";
+    private String secondEngineSpec = "random";
+    private int maxTurns = 200;
+    private int randomOpeningTurns = 4;
+    private long seed = 0;
+    private String outputPath = null;
+    private Evaluator firstEvaluator = new Evaluator();
+    private Evaluator secondEvaluator = new Evaluator();
+    private File gameLogFile = null;
+
+    /**
+     * Main method for the tournament runner.
+     * @param args The command line options described in the class comment
+     * @throws IOException If the summary or game log cannot be written
+     * @throws InterruptedException If interrupted while waiting for the games to finish
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        TournamentRunner runner = new TournamentRunner();
+        runner.parseArgs(args);
+        runner.run();
+    }
+
+    /**
+     * This method reads the command line options.
+     * @param args The command line options
+     * @throws IOException If a weights file cannot be read
+     */
+    private void parseArgs(String[] args) throws IOException {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games": numGames = Integer.parseInt(value); break;
+                case "--threads": numThreads = Integer.parseInt(value); break;
+                case "--engine1": firstEngineSpec = value; break;
+                case "--engine2": secondEngineSpec = value; break;
+                case "--max-turns": maxTurns = Integer.parseInt(value); break;
+                case "--random-opening": randomOpeningTurns = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--output": outputPath = value; break;
+                case "--weights1": firstEvaluator = Evaluator.load(new File(value)); break;
+                case "--weights2": secondEvaluator = Evaluator.load(new File(value)); break;
+                case "--game-log": gameLogFile = new File(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        createEngine(firstEngineSpec, 0, firstEvaluator); // fail before playing any games if a spec is invalid
+        createEngine(secondEngineSpec, 0, secondEvaluator);
+    }
+
+    /**
+     * This method plays the games and reports the results.
+     * @throws IOException If the summary or game log cannot be written
+     * @throws InterruptedException If interrupted while waiting for the games to finish
+     */
+    private void run() throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        ArrayList<Future<SelfPlayGame>> games = new ArrayList<Future<SelfPlayGame>>();
+        for (int i = 0; i < numGames; i++) {
+            int gameIndex = i;
+            games.add(threadPool.submit(() -> playGame(gameIndex)));
+        }
+
+        // results for the first engine, indexed by the side it played on
+        int[] wins = new int[2];
+        int[] draws = new int[2];
+        int[] losses = new int[2];
+        long totalTurns = 0;
+        int layoutId = GameRecord.getLayoutId(Board.DEFAULT_LAYOUT);
+        GameLogWriter gameLog = gameLogFile == null ? null : new GameLogWriter(gameLogFile);
+        try {
+            for (int i = 0; i < numGames; i++) {
+                SelfPlayGame game = games.get(i).get();
+                int firstEngineSide = i % 2;
+                if (game.getWinner() == SelfPlayGame.DRAW) {
+                    draws[firstEngineSide]++;
+                }
+                else if (game.getWinner() == firstEngineSide) {
+                    wins[firstEngineSide]++;
+                }
+                else {
+                    losses[firstEngineSide]++;
+                }
+                totalTurns += game.getNumMoves();
+                if (gameLog != null) {
+                    String[] players = firstEngineSide == 0 ? new String[] { firstEngineSpec, secondEngineSpec }
+                            : new String[] { secondEngineSpec, firstEngineSpec };
+                    gameLog.write(new GameRecord(players, layoutId, game.getStartTimeMs(), game.getWinner(), game.getMoves()));
+                }
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        }
+        finally {
+            threadPool.shutdownNow();
+            if (gameLog != null) {
+                gameLog.close();
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Tournament: %s vs %s, %d games on %d threads%n", firstEngineSpec, secondEngineSpec, numGames, numThreads));
+        summary.append(String.format("%s: W %d / D %d / L %d%n", firstEngineSpec,
+                wins[0] + wins[1], draws[0] + draws[1], losses[0] + losses[1]));
+        summary.append(String.format("  moving first:  W %d / D %d / L %d%n", wins[0], draws[0], losses[0]));
+        summary.append(String.format("  moving second: W %d / D %d / L %d%n", wins[1], draws[1], losses[1]));
+        summary.append(String.format("Average game length: %.1f turns%n", numGames == 0 ? 0 : (double) totalTurns / numGames));
+        summary.append(String.format("Time: %.2f s (%.1f games/s)%n", seconds, numGames / seconds));
+
+        System.out.print(summary);
+        if (outputPath != null) {
+            try (PrintWriter writer = new PrintWriter(new FileWriter(outputPath))) {
+                writer.print(summary);
+            }
+        }
+    }
+
+    /**
+     * This method plays one game of the tournament with new engines. The first engine moves first in even games and
+     * second in odd games.
+     * @param gameIndex The index of the game
+     * @return The finished game
+     */
+    private SelfPlayGame playGame(int gameIndex) {
+        long gameSeed = seed * 1000003 + gameIndex;
+        Engine firstEngine = createEngine(firstEngineSpec, gameSeed, firstEvaluator);
+        Engine secondEngine = createEngine(secondEngineSpec, gameSeed + 1, secondEvaluator);
+        SelfPlayGame game;
+        if (gameIndex % 2 == 0) {
+            game = new SelfPlayGame(firstEngine, secondEngine, maxTurns, randomOpeningTurns, gameSeed);
+        }
+        else {
+            game = new SelfPlayGame(secondEngine, firstEngine, maxTurns, randomOpeningTurns, gameSeed);
+        }
+        game.play();
+        return game;
+    }
+
+    /**
+     * This method creates an engine from its spec.
+     * @param spec The engine spec, as described in the class comment
+     * @param engineSeed The seed for any random choices the engine makes
+     * @param evaluator The evaluator for an alpha-beta engine
+     * @return The engine
+     */
+    static Engine createEngine(String spec, long engineSeed, Evaluator evaluator) {
+        if (spec.equals("random")) {
+            return new RandomEngine(engineSeed);
+        }
+        if (spec.startsWith("alphabeta:")) {
+            String setting = spec.substring("alphabeta:".length());
+            if (setting.endsWith("ms")) {
+                return new AlphaBetaEngine(AlphaBetaSearch.MAX_DEPTH, Long.parseLong(setting.substring(0, setting.length() - 2)), evaluator);
+            }
+            return new AlphaBetaEngine(Integer.parseInt(setting), 0, evaluator);
+        }
+        if (spec.startsWith("mcts:") || spec.startsWith("mcts-random:")) {
+            MonteCarloTreeSearch.RolloutPolicy rolloutPolicy = spec.startsWith("mcts:") ? MonteCarloTreeSearch.RolloutPolicy.HEURISTIC
+                    : MonteCarloTreeSearch.RolloutPolicy.RANDOM;
+            String setting = spec.substring(spec.indexOf(':') + 1);
+            if (setting.endsWith("ms")) {
+                return new MctsEngine(MonteCarloTreeSearch.NO_ITERATION_LIMIT, Long.parseLong(setting.substring(0, setting.length() - 2)),
+                        rolloutPolicy, engineSeed);
+            }
+            return new MctsEngine(Long.parseLong(setting), 0, rolloutPolicy, engineSeed);
+        }
+        throw new IllegalArgumentException("Unknown engine " + spec);
+    }
+}
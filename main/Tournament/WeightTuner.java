@@ -0,0 +1,228 @@
+package Tournament;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Search.Evaluator;
+
+/**
+ * This class tunes the evaluation weights by simultaneous perturbation stochastic approximation (SPSA) on headless
+ * self-play. Each iteration perturbs every weight up or down at random by a step, plays a batch of games between the
+ * weights moved one way and the weights moved the other way across all cores, and moves the weights towards whichever
+ * side scored better, by an amount proportional to the score difference. The perturbation and step sizes shrink as
+ * the iterations go on, so the weights settle. Each pair of games starts from the same random opening with the sides
+ * swapped, which cancels out most of the luck of the opening.
+ * <p>
+ * The pieces weight is held fixed as the unit of the scale, since multiplying every weight by the same amount does
+ * not change which move the search chooses. After every iteration the weights are written to the output file, so the
+ * tuning can be stopped at any time, and a line is added to the log. At the end the tuned weights play a match
+ * against the starting weights, which is written to the log.
+ * <p>
+ * Usage: WeightTuner [--iterations N] [--games N] [--depth D] [--threads N] [--start FILE] [--output FILE]
+ * [--log FILE] [--verify-games N] [--seed N]
+ * @see Evaluator
+ * @see SelfPlayGame
+ */
+public class WeightTuner {
+
+    private static final double STEP_DECAY = 0.602;
+    private static final double PERTURBATION_DECAY = 0.101;
+    private static final double PERTURBATION_FRACTION = 0.2; // of the starting weight
+    private static final double MIN_PERTURBATION = 2;
+    private static final double STEP_SCALE = 4.0; // perturbations moved per unit of score difference at the start
+    private static final int MAX_TURNS = 200;
+    private static final int RANDOM_OPENING_TURNS = 6;
+
+    private int numIterations = 100;
+    private int gamesPerIteration = 64;
+    private int depth = 3;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+    private Evaluator startEvaluator = new Evaluator();
+    private File outputFile = new File("tuned.properties");
+    private File logFile = new File("tuning.log");
+    private int verifyGames = 400;
+    private long seed = 0;
+
+    /**
+     * Main method for the weight tuner.
+     * @param args The command line options described in the class comment
+     * @throws IOException If the starting weights cannot be read or the weights or log cannot be written
+     * @throws InterruptedException If interrupted while waiting for the games to finish
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        WeightTuner tuner = new WeightTuner();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--iterations": tuner.numIterations = Integer.parseInt(value); break;
+                case "--games": tuner.gamesPerIteration = Integer.parseInt(value); break;
+                case "--depth": tuner.depth = Integer.parseInt(value); break;
+                case "--threads": tuner.numThreads = Integer.parseInt(value); break;
+                case "--start": tuner.startEvaluator = Evaluator.load(new File(value)); break;
+                case "--output": tuner.outputFile = new File(value); break;
+                case "--log": tuner.logFile = new File(value); break;
+                case "--verify-games": tuner.verifyGames = Integer.parseInt(value); break;
+                case "--seed": tuner.seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (tuner.gamesPerIteration < 2 || tuner.gamesPerIteration % 2 != 0) {
+            throw new IllegalArgumentException("--games must be a positive even number");
+        }
+        tuner.tune();
+    }
+
+    /**
+     * This method runs the tuning, writing the weights after every iteration and logging the progress.
+     * @throws IOException If the weights or log cannot be written
+     * @throws InterruptedException If interrupted while waiting for the games to finish
+     */
+    public void tune() throws IOException, InterruptedException {
+        int[] startWeights = startEvaluator.getWeights();
+        double[] weights = new double[Evaluator.NUM_FEATURES];
+        double[] perturbations = new double[Evaluator.NUM_FEATURES];
+        for (int i = 0; i < Evaluator.NUM_FEATURES; i++) {
+            weights[i] = startWeights[i];
+            perturbations[i] = Math.max(MIN_PERTURBATION, PERTURBATION_FRACTION * Math.abs(startWeights[i]));
+        }
+        // the stability constant keeps the first steps from being much larger than the later ones
+        double stabilityConstant = 0.1 * numIterations;
+        Random random = new Random(seed);
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        long startTime = System.nanoTime();
+
+        try (PrintWriter log = new PrintWriter(new FileWriter(logFile))) {
+            log.println("# SPSA tuning: " + numIterations + " iterations of " + gamesPerIteration + " games at depth " + depth
+                    + " on " + numThreads + " threads, seed " + seed);
+            log.println("# iteration score " + String.join(" ", Evaluator.FEATURE_NAMES));
+            log.println("0 - " + formatWeights(startWeights));
+            log.flush();
+
+            for (int iteration = 1; iteration <= numIterations; iteration++) {
+                double perturbationScale = 1 / Math.pow(iteration, PERTURBATION_DECAY);
+                double stepScale = STEP_SCALE * Math.pow(1 + stabilityConstant, STEP_DECAY)
+                        / Math.pow(iteration + stabilityConstant, STEP_DECAY);
+
+                int[] plusWeights = new int[Evaluator.NUM_FEATURES];
+                int[] minusWeights = new int[Evaluator.NUM_FEATURES];
+                int[] directions = new int[Evaluator.NUM_FEATURES];
+                for (int i = 0; i < Evaluator.NUM_FEATURES; i++) {
+                    directions[i] = i == Evaluator.PIECES ? 0 : random.nextBoolean() ? 1 : -1;
+                    double perturbation = Math.max(1, perturbations[i] * perturbationScale);
+                    plusWeights[i] = (int) Math.round(weights[i] + directions[i] * perturbation);
+                    minusWeights[i] = (int) Math.round(weights[i] - directions[i] * perturbation);
+                }
+
+                long matchSeed = seed * 1000003 + iteration;
+                double score = playMatch(threadPool, new Evaluator(plusWeights), new Evaluator(minusWeights), gamesPerIteration, matchSeed);
+                for (int i = 0; i < Evaluator.NUM_FEATURES; i++) {
+                    // the perturbation cancels between the gradient estimate and the step, so the step is measured in perturbations
+                    weights[i] += stepScale * perturbations[i] * perturbationScale * score * directions[i];
+                }
+
+                int[] roundedWeights = round(weights);
+                new Evaluator(roundedWeights).save(outputFile, "Tuned by WeightTuner after " + iteration + " iterations");
+                log.println(iteration + " " + String.format("%.3f", score) + " " + formatWeights(roundedWeights));
+                log.flush();
+                System.out.println("Iteration " + iteration + "/" + numIterations + ": score " + String.format("%.3f", score)
+                        + ", weights " + formatWeights(roundedWeights));
+            }
+
+            Evaluator tunedEvaluator = new Evaluator(round(weights));
+            if (verifyGames > 0) {
+                double score = playMatch(threadPool, tunedEvaluator, startEvaluator, verifyGames, seed * 1000003 - 1);
+                String result = String.format("Tuned weights against starting weights over %d games: score %.3f", verifyGames, score);
+                log.println("# " + result);
+                System.out.println(result);
+            }
+            log.println(String.format("# %.1f s", (System.nanoTime() - startTime) / 1e9));
+        }
+        finally {
+            threadPool.shutdownNow();
+        }
+        System.out.println("Wrote tuned weights to " + outputFile + " and the tuning log to " + logFile);
+    }
+
+    /**
+     * This method plays a match between two sets of weights in pairs of games, where each pair starts from the same
+     * random opening and the sides are swapped in the second game.
+     * @param threadPool The thread pool to play the games on
+     * @param firstEvaluator The first set of weights
+     * @param secondEvaluator The second set of weights
+     * @param numGames The number of games, which is even
+     * @param matchSeed The seed for the random openings
+     * @return The first set of weights' wins minus losses, divided by the number of games, from -1 to 1
+     * @throws InterruptedException If interrupted while waiting for the games to finish
+     */
+    private double playMatch(ExecutorService threadPool, Evaluator firstEvaluator, Evaluator secondEvaluator, int numGames,
+            long matchSeed) throws InterruptedException {
+        ArrayList<Future<SelfPlayGame>> games = new ArrayList<Future<SelfPlayGame>>();
+        for (int i = 0; i < numGames; i++) {
+            long gameSeed = matchSeed * 1000003 + i / 2;
+            boolean firstMovesFirst = i % 2 == 0;
+            games.add(threadPool.submit(() -> {
+                Engine firstEngine = new AlphaBetaEngine(depth, 0, firstEvaluator);
+                Engine secondEngine = new AlphaBetaEngine(depth, 0, secondEvaluator);
+                SelfPlayGame game = firstMovesFirst ? new SelfPlayGame(firstEngine, secondEngine, MAX_TURNS, RANDOM_OPENING_TURNS, gameSeed)
+                        : new SelfPlayGame(secondEngine, firstEngine, MAX_TURNS, RANDOM_OPENING_TURNS, gameSeed);
+                game.play();
+                return game;
+            }));
+        }
+
+        int score = 0;
+        try {
+            for (int i = 0; i < numGames; i++) {
+                int winner = games.get(i).get().getWinner();
+                int firstEngineSide = i % 2;
+                if (winner == firstEngineSide) {
+                    score++;
+                }
+                else if (winner != SelfPlayGame.DRAW) {
+                    score--;
+                }
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        }
+        return (double) score / numGames;
+    }
+
+    /**
+     * This method rounds the weights to whole numbers for an evaluator.
+     * @param weights The weights
+     * @return The rounded weights
+     */
+    private static int[] round(double[] weights) {
+        int[] result = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            result[i] = (int) Math.round(weights[i]);
+        }
+        return result;
+    }
+
+    /**
+     * This method formats weights for the log.
+     * @param weights The weights
+     * @return The weights separated by spaces
+     */
+    private static String formatWeights(int[] weights) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < weights.length; i++) {
+            builder.append(i == 0 ? "" : " ").append(weights[i]);
+        }
+        return builder.toString();
+    }
+}
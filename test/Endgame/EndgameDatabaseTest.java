@@ -0,0 +1,127 @@
+package Endgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Actions.ActionGenerator;
+import Game.GameState;
+import Game.GameStates;
+
+/**
+ * Tests the endgame database for three and four tokens a side. Every sampled value must agree with a one ply minimax
+ * over the values of the positions after each legal move, and the tables must read back the same from both file
+ * formats.
+ */
+class EndgameDatabaseTest {
+
+    private static final int MAX_TOKENS = 4;
+    private static final int NUM_SAMPLES = 20000;
+
+    private static EndgameDatabase database;
+
+    @BeforeAll
+    static void generate() {
+        database = new EndgameGenerator().generate(MAX_TOKENS);
+    }
+
+    @Test
+    void valuesAgreeWithOnePlyMinimax() {
+        Random random = new Random(0);
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+        for (int sample = 0; sample < NUM_SAMPLES; sample++) {
+            int[] masks = randomPosition(random);
+            GameState gameState = GameStates.fromMasks(masks[0], masks[1]);
+            int value = database.probe(gameState, 0);
+            assertEquals(database.probe(masks[0], masks[1]), value);
+            assertTrue(EndgameDatabase.hasDistance(value) || value == EndgameDatabase.DRAW, "value " + value);
+
+            int numMoves = ActionGenerator.generateMoves(gameState, 0, moves);
+            int minLossDistance = Integer.MAX_VALUE; // the quickest win, through a move that leaves the opponent lost
+            int maxWinDistance = -1;                 // the slowest loss
+            boolean canDraw = false;
+            for (int i = 0; i < numMoves; i++) {
+                int childValue = database.probeMove(gameState, 0, moves[i]);
+                assertNotEquals(EndgameDatabase.NOT_FOUND, childValue);
+                if (EndgameDatabase.isLoss(childValue)) {
+                    minLossDistance = Math.min(minLossDistance, EndgameDatabase.getDistance(childValue));
+                }
+                else if (EndgameDatabase.isWin(childValue)) {
+                    maxWinDistance = Math.max(maxWinDistance, EndgameDatabase.getDistance(childValue));
+                }
+                else {
+                    canDraw = true;
+                }
+            }
+            String position = Integer.toHexString(masks[0]) + " v " + Integer.toHexString(masks[1]);
+            if (numMoves == 0) {
+                assertEquals(EndgameDatabase.encode(0), value, "blocked " + position);
+            }
+            else if (minLossDistance != Integer.MAX_VALUE) {
+                assertEquals(EndgameDatabase.encode(minLossDistance + 1), value, "win " + position);
+            }
+            else if (canDraw) {
+                assertEquals(EndgameDatabase.DRAW, value, "draw " + position);
+            }
+            else {
+                assertEquals(EndgameDatabase.encode(maxWinDistance + 1), value, "loss " + position);
+            }
+        }
+    }
+
+    @Test
+    void tablesReadBackFromBothFormats(@TempDir File directory) throws IOException {
+        File distanceToWinDirectory = new File(directory, "dtw");
+        File winDrawLossDirectory = new File(directory, "wdl");
+        database.save(distanceToWinDirectory, EndgameTable.Format.DISTANCE_TO_WIN);
+        database.save(winDrawLossDirectory, EndgameTable.Format.WIN_DRAW_LOSS);
+        EndgameDatabase distanceToWin = EndgameDatabase.load(distanceToWinDirectory);
+        EndgameDatabase winDrawLoss = EndgameDatabase.load(winDrawLossDirectory);
+
+        Random random = new Random(1);
+        for (int sample = 0; sample < NUM_SAMPLES; sample++) {
+            int[] masks = randomPosition(random);
+            int value = database.probe(masks[0], masks[1]);
+            assertEquals(value, distanceToWin.probe(masks[0], masks[1]));
+            int expected = EndgameDatabase.isWin(value) ? EndgameDatabase.WIN_WITHOUT_DISTANCE
+                    : EndgameDatabase.isLoss(value) ? EndgameDatabase.LOSS_WITHOUT_DISTANCE : EndgameDatabase.DRAW;
+            assertEquals(expected, winDrawLoss.probe(masks[0], masks[1]));
+        }
+    }
+
+    @Test
+    void loadRefusesAFileWhichIsNotATable(@TempDir File directory) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(new File(directory, "endgame_3v3.bin"))) {
+            out.write(new byte[64]);
+        }
+        assertThrows(IOException.class, () -> EndgameDatabase.load(directory));
+    }
+
+    /**
+     * Places three or four tokens for each player on random positions.
+     * @return The positions of the player to move's tokens and of their opponent's tokens
+     */
+    private static int[] randomPosition(Random random) {
+        int[] masks = new int[2];
+        for (int player = 0; player < 2; player++) {
+            int numTokens = EndgameDatabase.MIN_TOKENS + random.nextInt(MAX_TOKENS - EndgameDatabase.MIN_TOKENS + 1);
+            while (Integer.bitCount(masks[player]) < numTokens) {
+                int position = 1 << random.nextInt(24);
+                if (((masks[0] | masks[1]) & position) == 0) {
+                    masks[player] |= position;
+                }
+            }
+        }
+        return masks;
+    }
+}
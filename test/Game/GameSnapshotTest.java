@@ -0,0 +1,97 @@
+package Game;
+
+import static Game.GameStates.assertSameState;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Actions.Action;
+import Actions.ActionGenerator;
+import Positions.Board;
+
+/**
+ * Tests that a saved game loads back as the same game state, including a mill waiting for a removal and a lost game,
+ * and that files which are not valid snapshots are refused.
+ */
+class GameSnapshotTest {
+
+    private static final int NUM_GAMES = 100;
+    private static final int MAX_PLIES = 150;
+
+    @Test
+    void saveAndLoadRoundTrip(@TempDir File directory) throws IOException {
+        File file = new File(directory, "savegame.bin");
+        GameType[] gameTypes = GameType.values();
+        for (int seed = 0; seed < NUM_GAMES; seed++) {
+            Random random = new Random(seed);
+            GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+            int player = 0;
+            for (int ply = 0; ply < MAX_PLIES; ply++) {
+                GameType gameType = gameTypes[random.nextInt(gameTypes.length)];
+                GameSnapshot.capture(gameType, gameState, player).save(file);
+                assertEquals(GameSnapshot.SIZE, file.length());
+                GameSnapshot snapshot = GameSnapshot.load(file);
+                assertEquals(gameType, snapshot.getGameType());
+                assertEquals(player, snapshot.getCurrentPlayer());
+                assertSameState(gameState, snapshot.createGameState());
+
+                ArrayList<Action> actions = ActionGenerator.generateActions(gameState, player);
+                if (actions.isEmpty() || (gameState.getNumTokensToPlace(player) == 0 && gameState.getTokensRemaining(player) < 3)) {
+                    gameState.setPlayerLost(player, true);
+                    GameSnapshot.capture(gameType, gameState, player).save(file);
+                    assertSameState(gameState, GameSnapshot.load(file).createGameState());
+                    break;
+                }
+                gameState.apply(actions.get(random.nextInt(actions.size())));
+                if (!gameState.getBoard().getMillFormed()) { // a player who forms a mill removes a token next
+                    player = 1 - player;
+                }
+            }
+        }
+    }
+
+    @Test
+    void loadRefusesInvalidFiles(@TempDir File directory) throws IOException {
+        File file = new File(directory, "savegame.bin");
+        GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+        gameState.placeToken(0, 0);
+        gameState.placeToken(1, 1);
+        GameSnapshot.capture(GameType.LOCAL_TWO_PLAYER, gameState, 0).save(file);
+        byte[] data = Files.readAllBytes(file.toPath());
+
+        assertRefused(file, Arrays.copyOf(data, GameSnapshot.SIZE - 1));
+        assertRefused(file, Arrays.copyOf(data, GameSnapshot.SIZE + 1));
+        byte[] badMagic = data.clone();
+        badMagic[3] ^= 1;
+        assertRefused(file, badMagic);
+        byte[] badVersion = data.clone();
+        badVersion[4]++;
+        assertRefused(file, badVersion);
+        byte[] badGameType = data.clone();
+        badGameType[5] = (byte) GameType.values().length;
+        assertRefused(file, badGameType);
+        byte[] overlappingTokens = data.clone();
+        overlappingTokens[13] |= 1; // player 1 also has a token on position 0
+        assertRefused(file, overlappingTokens);
+        byte[] wrongTokenCount = data.clone();
+        wrongTokenCount[15]++;
+        assertRefused(file, wrongTokenCount);
+    }
+
+    /**
+     * Writes a file and asserts that loading it as a snapshot fails.
+     */
+    private static void assertRefused(File file, byte[] data) throws IOException {
+        Files.write(file.toPath(), data);
+        assertThrows(IOException.class, () -> GameSnapshot.load(file));
+    }
+}
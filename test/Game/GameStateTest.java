@@ -0,0 +1,101 @@
+package Game;
+
+import static Game.GameStates.assertSameState;
+import static Game.GameStates.rebuild;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import Actions.Action;
+import Actions.ActionGenerator;
+import Positions.Board;
+
+/**
+ * Tests that applying and undoing moves and actions in place keeps the incrementally updated hash and mill sets in
+ * step with a fresh recomputation, and restores the game state exactly.
+ */
+class GameStateTest {
+
+    private static final int NUM_GAMES = 200;
+    private static final int MAX_PLIES = 200; // random play seldom ends a game, so each one is cut short
+
+    @Test
+    void applyMoveAndUndoMoveRoundTrip() {
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+        for (int seed = 0; seed < NUM_GAMES; seed++) {
+            Random random = new Random(seed);
+            GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+            GameState initial = new GameState(gameState);
+            int[] played = new int[MAX_PLIES];
+            int numPlayed = 0;
+            int player = 0;
+            while (numPlayed < MAX_PLIES && !isOver(gameState, player)) {
+                int numMoves = ActionGenerator.generateMoves(gameState, player, moves);
+                if (numMoves == 0) {
+                    break;
+                }
+                for (int i = 0; i < numMoves; i++) {
+                    GameState before = new GameState(gameState);
+                    gameState.applyMove(moves[i], player);
+                    assertSameState(rebuild(gameState), gameState);
+                    gameState.undoMove(moves[i], player);
+                    assertSameState(before, gameState);
+                }
+                int move = moves[random.nextInt(numMoves)];
+                gameState.applyMove(move, player);
+                played[numPlayed++] = move;
+                player = 1 - player;
+            }
+            for (int i = numPlayed - 1; i >= 0; i--) { // unwind the whole game
+                player = 1 - player;
+                gameState.undoMove(played[i], player);
+            }
+            assertEquals(0, player);
+            assertSameState(initial, gameState);
+        }
+    }
+
+    @Test
+    void applyAndUndoRoundTrip() {
+        for (int seed = 0; seed < NUM_GAMES; seed++) {
+            Random random = new Random(seed);
+            GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+            GameState initial = new GameState(gameState);
+            ArrayList<Action> played = new ArrayList<Action>();
+            int player = 0;
+            while (played.size() < MAX_PLIES && !isOver(gameState, player)) {
+                ArrayList<Action> actions = ActionGenerator.generateActions(gameState, player);
+                if (actions.isEmpty()) {
+                    break;
+                }
+                for (Action action : actions) {
+                    GameState before = new GameState(gameState);
+                    gameState.apply(action);
+                    assertSameState(rebuild(gameState), gameState);
+                    gameState.undo(action);
+                    assertSameState(before, gameState);
+                }
+                Action action = actions.get(random.nextInt(actions.size()));
+                gameState.apply(action);
+                played.add(action);
+                if (!gameState.getBoard().getMillFormed()) { // a player who forms a mill removes a token next
+                    player = 1 - player;
+                }
+            }
+            for (int i = played.size() - 1; i >= 0; i--) {
+                gameState.undo(played.get(i));
+            }
+            assertSameState(initial, gameState);
+        }
+    }
+
+    /**
+     * Checks whether the player to move has lost by being reduced to two tokens.
+     */
+    private static boolean isOver(GameState gameState, int player) {
+        return gameState.getNumTokensToPlace(player) == 0 && gameState.getTokensRemaining(player) < 3;
+    }
+}
@@ -0,0 +1,79 @@
+package Game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import Players.PhaseIndicator;
+import Positions.Board;
+
+/**
+ * This class holds helpers shared by the tests for building game states and comparing them field by field.
+ */
+public final class GameStates {
+
+    private GameStates() {
+    }
+
+    /**
+     * Builds a game state in the moving phase from the positions of each player's tokens, with no tokens left to
+     * place and no mill pending. A player with three tokens is flying.
+     * @param mask0 The positions of player 0's tokens
+     * @param mask1 The positions of player 1's tokens
+     * @return The game state
+     */
+    public static GameState fromMasks(int mask0, int mask1) {
+        Board board = new Board(Board.DEFAULT_LAYOUT);
+        int[] masks = { mask0, mask1 };
+        GameState gameState = new GameState(board, 2);
+        for (int player = 0; player < 2; player++) {
+            for (int mask = masks[player]; mask != 0; mask &= mask - 1) {
+                board.changePositionState(Integer.numberOfTrailingZeros(mask), player);
+            }
+            int tokens = Integer.bitCount(masks[player]);
+            gameState.restorePlayer(player, 0, tokens, tokens == 3 ? PhaseIndicator.PHASE_THREE : PhaseIndicator.PHASE_TWO, false);
+        }
+        return gameState;
+    }
+
+    /**
+     * Rebuilds a game state from scratch, placing each token on a new board, so that its incrementally updated hash
+     * and mill sets can be compared against the ones worked out from nothing.
+     * @param gameState The game state to rebuild
+     * @return A new game state with the same positions, counters, phases and mill formed flag
+     */
+    public static GameState rebuild(GameState gameState) {
+        Board board = new Board(Board.DEFAULT_LAYOUT);
+        GameState rebuilt = new GameState(board, 2);
+        for (int player = 0; player < 2; player++) {
+            for (int mask = gameState.getBoard().getPositionsMask(player); mask != 0; mask &= mask - 1) {
+                board.changePositionState(Integer.numberOfTrailingZeros(mask), player);
+            }
+            rebuilt.restorePlayer(player, gameState.getNumTokensToPlace(player), gameState.getTokensRemaining(player),
+                    gameState.getGamePhase(player), gameState.hasPlayerLost(player));
+        }
+        board.setMillFormed(gameState.getBoard().getMillFormed());
+        return rebuilt;
+    }
+
+    /**
+     * Asserts that two game states have the same positions, counters, phases, loss flags, mill formed flag, mill sets
+     * and hash.
+     * @param expected The expected game state
+     * @param actual The game state to check
+     */
+    public static void assertSameState(GameState expected, GameState actual) {
+        Board expectedBoard = expected.getBoard();
+        Board actualBoard = actual.getBoard();
+        for (int player = 0; player < 2; player++) {
+            assertEquals(expectedBoard.getPositionsMask(player), actualBoard.getPositionsMask(player), "positions of player " + player);
+            assertEquals(expectedBoard.getFormedMills(player), actualBoard.getFormedMills(player), "formed mills of player " + player);
+            assertEquals(expectedBoard.getOpenTwoMills(player), actualBoard.getOpenTwoMills(player), "open twos of player " + player);
+            assertEquals(expected.getNumTokensToPlace(player), actual.getNumTokensToPlace(player), "tokens to place of player " + player);
+            assertEquals(expected.getTokensRemaining(player), actual.getTokensRemaining(player), "tokens remaining of player " + player);
+            assertEquals(expected.getGamePhase(player), actual.getGamePhase(player), "phase of player " + player);
+            assertEquals(expected.hasPlayerLost(player), actual.hasPlayerLost(player), "loss flag of player " + player);
+        }
+        assertEquals(expectedBoard.getMillFormed(), actualBoard.getMillFormed(), "mill formed flag");
+        assertEquals(expectedBoard.getHash(), actualBoard.getHash(), "board hash");
+        assertEquals(expected.getHash(), actual.getHash(), "game state hash");
+    }
+}
@@ -0,0 +1,121 @@
+package Opening;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Actions.ActionGenerator;
+import Actions.PackedMove;
+import Game.GameState;
+import Positions.Board;
+import Positions.BoardSymmetries;
+
+/**
+ * Tests that an opening book reads back the moves it was written with, mapped onto every board related to a book
+ * position by a symmetry, and that files which are not whole books are refused.
+ */
+class OpeningBookTest {
+
+    private static final int NUM_GAMES = 500;
+    private static final int BOOK_PLIES = 6;
+
+    private static final BoardSymmetries SYMMETRIES = BoardSymmetries.DEFAULT;
+
+    @Test
+    void writeAndLoadRoundTrip(@TempDir File directory) throws IOException {
+        Random random = new Random(0);
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+        TreeMap<Long, Integer> entries = new TreeMap<Long, Integer>();
+        ArrayList<GameState> positions = new ArrayList<GameState>();
+        ArrayList<GameState> positionsAfterBook = new ArrayList<GameState>();
+        for (int game = 0; game < NUM_GAMES; game++) {
+            GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+            for (int ply = 0; ply <= BOOK_PLIES; ply++) {
+                int player = ply % 2;
+                int numMoves = ActionGenerator.generateMoves(gameState, player, moves);
+                if (ply == BOOK_PLIES) {
+                    positionsAfterBook.add(new GameState(gameState));
+                    break;
+                }
+                int symmetry = OpeningBook.getCanonicalSymmetry(SYMMETRIES, gameState, player);
+                long key = OpeningBook.getKey(SYMMETRIES, symmetry, gameState, player);
+                if (!entries.containsKey(key)) { // the first board seen for a key picks its move
+                    entries.put(key, PackedMove.transform(moves[random.nextInt(numMoves)], SYMMETRIES, symmetry));
+                }
+                positions.add(new GameState(gameState));
+                gameState.applyMove(moves[random.nextInt(numMoves)], player);
+            }
+        }
+
+        long[] bookKeys = new long[entries.size()];
+        int[] bookMoves = new int[entries.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : entries.entrySet()) {
+            bookKeys[i] = entry.getKey();
+            bookMoves[i++] = entry.getValue();
+        }
+        File file = new File(directory, "opening.book");
+        OpeningBook.write(file, SYMMETRIES, bookKeys, bookMoves);
+        OpeningBook book = OpeningBook.load(file);
+        assertEquals(entries.size(), book.getNumEntries());
+
+        for (int position = 0; position < positions.size(); position++) {
+            GameState gameState = positions.get(position);
+            int player = position % BOOK_PLIES % 2;
+            int symmetry = OpeningBook.getCanonicalSymmetry(SYMMETRIES, gameState, player);
+            int canonicalMove = entries.get(OpeningBook.getKey(SYMMETRIES, symmetry, gameState, player));
+            int move = book.findMove(gameState, player);
+            assertEquals(PackedMove.transform(canonicalMove, SYMMETRIES, SYMMETRIES.getInverse(symmetry)), move);
+            assertTrue(isLegal(gameState, player, move), "illegal book move " + PackedMove.toString(move));
+        }
+        for (GameState gameState : positionsAfterBook) {
+            assertEquals(OpeningBook.NO_MOVE, book.findMove(gameState, 0));
+        }
+    }
+
+    @Test
+    void loadRefusesAFileWhichIsNotABook(@TempDir File directory) throws IOException {
+        File file = new File(directory, "opening.book");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[64]);
+        }
+        assertThrows(IOException.class, () -> OpeningBook.load(file));
+    }
+
+    @Test
+    void loadRefusesATruncatedBook(@TempDir File directory) throws IOException {
+        File file = new File(directory, "opening.book");
+        OpeningBook.write(file, SYMMETRIES, new long[] { 1L, 2L }, new int[] { PackedMove.encode(PackedMove.NONE, 0, PackedMove.NONE),
+                PackedMove.encode(PackedMove.NONE, 1, PackedMove.NONE) });
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 1);
+        }
+        assertThrows(IOException.class, () -> OpeningBook.load(file));
+    }
+
+    /**
+     * Checks whether a move is one of a player's legal moves.
+     */
+    private static boolean isLegal(GameState gameState, int player, int move) {
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+        int numMoves = ActionGenerator.generateMoves(gameState, player, moves);
+        for (int i = 0; i < numMoves; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,147 @@
+package Records;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Actions.ActionGenerator;
+import Game.GameState;
+import Positions.Board;
+
+/**
+ * Tests that game logs read back every game written to them, across runs which reopen the log, and that a game cut
+ * short at the end of a log is skipped by readers and removed by the next writer.
+ */
+class GameLogTest {
+
+    private static final String[] NAMES = { "Alpha-beta", "Monte Carlo", "", "Jürgen", "玩家" };
+    private static final int MAX_PLIES = 300;
+
+    @Test
+    void writeAndReadRoundTrip(@TempDir File directory) throws IOException {
+        File file = new File(directory, "games.log");
+        Random random = new Random(0);
+        ArrayList<GameRecord> games = new ArrayList<GameRecord>();
+        for (int run = 0; run < 3; run++) { // each run appends to the log the last one left
+            try (GameLogWriter writer = new GameLogWriter(file)) {
+                for (int i = 0; i < 100; i++) {
+                    GameRecord game = randomGame(random);
+                    writer.write(game);
+                    games.add(game);
+                }
+            }
+        }
+        assertSameGames(games, readAll(file));
+    }
+
+    @Test
+    void partlyWrittenGameIsSkippedAndRemoved(@TempDir File directory) throws IOException {
+        File file = new File(directory, "games.log");
+        Random random = new Random(1);
+        ArrayList<GameRecord> games = new ArrayList<GameRecord>();
+        long endOfCompleteGames = 0;
+        try (GameLogWriter writer = new GameLogWriter(file)) {
+            for (int i = 0; i < 10; i++) {
+                endOfCompleteGames = file.length();
+                GameRecord game = randomGame(random);
+                writer.write(game);
+                games.add(game);
+            }
+        }
+        GameRecord lastGame = games.remove(games.size() - 1);
+        for (long length = file.length() - 1; length > endOfCompleteGames; length--) { // cut the last game at every byte
+            try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+                log.setLength(length);
+            }
+            assertSameGames(games, readAll(file));
+        }
+
+        new GameLogWriter(file).close();
+        assertEquals(endOfCompleteGames, file.length());
+        try (GameLogWriter writer = new GameLogWriter(file)) {
+            writer.write(lastGame);
+        }
+        games.add(lastGame);
+        assertSameGames(games, readAll(file));
+    }
+
+    @Test
+    void fileWhichIsNotALogIsRefused(@TempDir File directory) throws IOException {
+        File file = new File(directory, "games.log");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("not a game log".getBytes());
+        }
+        assertThrows(IOException.class, () -> new GameLogReader(file));
+        assertThrows(IOException.class, () -> new GameLogWriter(file));
+    }
+
+    /**
+     * Plays a game of random moves, which ends when a player is reduced to two tokens or cannot move, or is cut short
+     * and recorded as a draw.
+     */
+    private static GameRecord randomGame(Random random) {
+        GameState gameState = new GameState(new Board(Board.DEFAULT_LAYOUT), 2);
+        int[] moves = new int[ActionGenerator.MAX_MOVES];
+        int[] played = new int[MAX_PLIES];
+        int numPlayed = 0;
+        int winner = GameRecord.DRAW;
+        int player = 0;
+        int maxPlies = random.nextInt(MAX_PLIES + 1);
+        while (numPlayed < maxPlies) {
+            int numMoves = ActionGenerator.generateMoves(gameState, player, moves);
+            if (numMoves == 0 || (gameState.getNumTokensToPlace(player) == 0 && gameState.getTokensRemaining(player) < 3)) {
+                winner = 1 - player;
+                break;
+            }
+            played[numPlayed] = moves[random.nextInt(numMoves)];
+            gameState.applyMove(played[numPlayed++], player);
+            player = 1 - player;
+        }
+        String[] players = { NAMES[random.nextInt(NAMES.length)], NAMES[random.nextInt(NAMES.length)] };
+        long startTimeMs = random.nextLong() & Long.MAX_VALUE;
+        return new GameRecord(players, GameRecord.getLayoutId(Board.DEFAULT_LAYOUT), startTimeMs, winner, Arrays.copyOf(played, numPlayed));
+    }
+
+    /**
+     * Asserts that two lists of games hold the same games in the same order.
+     */
+    private static void assertSameGames(ArrayList<GameRecord> expected, ArrayList<GameRecord> actual) {
+        assertEquals(expected.size(), actual.size(), "number of games");
+        for (int i = 0; i < expected.size(); i++) {
+            GameRecord expectedGame = expected.get(i);
+            GameRecord actualGame = actual.get(i);
+            assertEquals(expectedGame.getPlayer(0), actualGame.getPlayer(0), "player 0 of game " + i);
+            assertEquals(expectedGame.getPlayer(1), actualGame.getPlayer(1), "player 1 of game " + i);
+            assertEquals(expectedGame.getLayoutId(), actualGame.getLayoutId(), "layout of game " + i);
+            assertEquals(expectedGame.getStartTimeMs(), actualGame.getStartTimeMs(), "start time of game " + i);
+            assertEquals(expectedGame.getWinner(), actualGame.getWinner(), "winner of game " + i);
+            assertArrayEquals(expectedGame.getMoves(), actualGame.getMoves(), "moves of game " + i);
+        }
+    }
+
+    /**
+     * Reads every complete game in a log.
+     */
+    private static ArrayList<GameRecord> readAll(File file) throws IOException {
+        ArrayList<GameRecord> games = new ArrayList<GameRecord>();
+        try (GameLogReader reader = new GameLogReader(file)) {
+            for (GameRecord game = reader.next(); game != null; game = reader.next()) {
+                games.add(game);
+            }
+            assertNull(reader.next());
+        }
+        return games;
+    }
+}